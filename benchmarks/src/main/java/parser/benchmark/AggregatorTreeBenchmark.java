@@ -0,0 +1,57 @@
+package parser.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.POM;
+import parser.POMParser;
+import parser.POMTree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serial versus parallel construction of the aggregator tree on a generated reactor.
+ * @author i-Taozi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AggregatorTreeBenchmark {
+
+    @Param({"600"})
+    public int modules;
+
+    /**
+     * 1 is the serial path, 0 means one thread per available processor.
+     */
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"DOM", "STAX"})
+    public POMParser.Mode mode;
+
+    private Path reactor;
+    private POMParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        reactor = Files.createTempDirectory("reactor-" + modules);
+        ReactorGenerator.generate(reactor, modules, 20);
+        parser = new POMParser(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ReactorGenerator.delete(reactor);
+    }
+
+    @Benchmark
+    public POM createPomTree() throws Exception {
+        POMTree tree = new POMTree(reactor.toString(), parser);
+        tree.setParallelism(parallelism == 0 ? Runtime.getRuntime().availableProcessors() : parallelism);
+        return tree.createPomTree();
+    }
+}
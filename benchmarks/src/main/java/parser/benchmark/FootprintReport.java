@@ -0,0 +1,65 @@
+package parser.benchmark;
+
+import parser.POMParser;
+import parser.POMTree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap retained per POM with {@code raw} kept in memory and no string pool (the old behaviour),
+ * against the default lean model. Run with: java -cp benchmarks/target/benchmarks.jar parser.benchmark.FootprintReport [modules]
+ * @author i-Taozi
+ */
+public final class FootprintReport {
+
+    private FootprintReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int modules = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Path reactor = Files.createTempDirectory("footprint");
+        try {
+            ReactorGenerator.generate(reactor, modules, 20);
+            measure("retained raw, no pool", reactor, true, false);
+            measure("lean (default)      ", reactor, false, true);
+        } finally {
+            ReactorGenerator.delete(reactor);
+        }
+    }
+
+    private static void measure(String label, Path reactor, boolean retainRaw, boolean pool) throws Exception {
+        //同一份树构建多次，摊薄测量误差
+        int copies = 5;
+        List<POMTree> trees = new ArrayList<>();
+        long before = usedHeap();
+        for (int i = 0; i < copies; i++) {
+            POMParser parser = new POMParser(POMParser.Mode.STAX);
+            parser.setRetainRaw(retainRaw);
+            POMTree tree = new POMTree(reactor.toString(), parser);
+            if (!pool)
+                tree.setStringPool(null);
+            tree.createPomTree();
+            trees.add(tree);
+        }
+        long after = usedHeap();
+        int poms = 0;
+        for (POMTree tree : trees) {
+            poms += tree.getPomList().size();
+        }
+        System.out.printf("%s  %,8d bytes/POM  (%d POMs)%n", label, (after - before) / poms, poms);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,75 @@
+package parser.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.Dependency;
+import parser.POM;
+import parser.POMParser;
+import parser.POMTree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link POM#interpolateString(String, POM)} and {@link POM#getDependencies()} on the leaf of a generated
+ * inheritance chain. The cold variants drop the cached effective properties first, so they measure
+ * the merge along the whole chain; the warm variants measure lookups against the cache.
+ * @author i-Taozi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterpolationBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int depth;
+
+    @Param({"50"})
+    public int dependencies;
+
+    private Path chain;
+    private POM leaf;
+    private String expression;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        chain = Files.createTempDirectory("chain-" + depth);
+        ReactorGenerator.generateChain(chain, depth, dependencies);
+        POMTree tree = new POMTree(chain.toString(), new POMParser(POMParser.Mode.STAX));
+        tree.createPomTree();
+        leaf = tree.findPom(ReactorGenerator.GROUP_ID, "leaf");
+        //引用最顶层的属性，需要展开整条链
+        expression = "prefix-${v" + (depth - 1) + "}-${project.version}-suffix";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ReactorGenerator.delete(chain);
+    }
+
+    @Benchmark
+    public String interpolateWarm() {
+        return POM.interpolateString(expression, leaf);
+    }
+
+    @Benchmark
+    public String interpolateCold() {
+        leaf.invalidateProperties();
+        return POM.interpolateString(expression, leaf);
+    }
+
+    @Benchmark
+    public List<Dependency> getDependenciesWarm() {
+        return leaf.getDependencies();
+    }
+
+    @Benchmark
+    public List<Dependency> getDependenciesCold() {
+        leaf.invalidateProperties();
+        return leaf.getDependencies();
+    }
+}
@@ -0,0 +1,61 @@
+package parser.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.POM;
+import parser.POMParser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link POMParser#parse(String)} of a single generated POM.
+ * small: 5 dependencies / 5 properties, medium: 100 / 30, huge: 3000 / 200.
+ * @author i-Taozi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"small", "medium", "huge"})
+    public String size;
+
+    @Param({"DOM", "STAX"})
+    public POMParser.Mode mode;
+
+    private Path file;
+    private POMParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String xml;
+        switch (size) {
+            case "small":
+                xml = ReactorGenerator.pom(5, 5);
+                break;
+            case "medium":
+                xml = ReactorGenerator.pom(100, 30);
+                break;
+            default:
+                xml = ReactorGenerator.pom(3000, 200);
+        }
+        file = Files.createTempFile("pom-" + size, ".xml");
+        Files.write(file, xml.getBytes(StandardCharsets.UTF_8));
+        parser = new POMParser(mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public POM parse() throws Exception {
+        return parser.parse(file.toString());
+    }
+}
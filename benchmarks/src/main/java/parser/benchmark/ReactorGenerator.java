@@ -0,0 +1,216 @@
+package parser.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes synthetic, deterministic Maven reactors to disk so benchmark runs need no network and no real checkouts.
+ * @author i-Taozi
+ */
+public final class ReactorGenerator {
+
+    public static final String GROUP_ID = "bench.generated";
+
+    private ReactorGenerator() {
+    }
+
+    /**
+     * Generate a reactor with {@code modules} leaf modules spread over nested aggregators.
+     * @param dir Root directory of the reactor, the root pom.xml is written there.
+     * @param modules Number of leaf (jar) modules.
+     * @param fanout Maximum number of modules declared by one aggregator.
+     */
+    public static void generate(Path dir, int modules, int fanout) throws IOException {
+        Files.createDirectories(dir);
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < modules; i++) {
+            leaves.add("module-" + i);
+        }
+        writeAggregator(dir, "root", null, leaves, fanout, 0);
+    }
+
+    private static void writeAggregator(Path dir, String artifactId, String parentArtifactId,
+                                        List<String> leaves, int fanout, int level) throws IOException {
+        List<String> moduleNames = new ArrayList<>();
+        if (leaves.size() <= fanout) {
+            for (String leaf : leaves) {
+                moduleNames.add(leaf);
+                writeLeaf(dir.resolve(leaf), leaf, artifactId);
+            }
+        } else {
+            //把剩余模块均分给 fanout 个子聚合模块
+            int chunk = (leaves.size() + fanout - 1) / fanout;
+            for (int i = 0; i * chunk < leaves.size(); i++) {
+                String name = "group-" + level + "-" + i;
+                moduleNames.add(name);
+                List<String> part = leaves.subList(i * chunk, Math.min(leaves.size(), (i + 1) * chunk));
+                writeAggregator(dir.resolve(name), artifactId + "-" + name, artifactId, part, fanout, level + 1);
+            }
+        }
+        StringBuilder xml = header();
+        if (parentArtifactId != null)
+            parent(xml, parentArtifactId);
+        xml.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+        xml.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+        xml.append("  <version>1.0.0-SNAPSHOT</version>\n");
+        xml.append("  <packaging>pom</packaging>\n");
+        xml.append("  <modules>\n");
+        for (String name : moduleNames) {
+            xml.append("    <module>").append(name).append("</module>\n");
+        }
+        xml.append("  </modules>\n");
+        xml.append("  <properties>\n");
+        xml.append("    <junit.version>4.13.2</junit.version>\n");
+        xml.append("    <lib.version>2.").append(level).append(".0</lib.version>\n");
+        xml.append("    <level.").append(level).append(">${lib.version}</level.").append(level).append(">\n");
+        xml.append("  </properties>\n");
+        xml.append("  <dependencyManagement>\n    <dependencies>\n");
+        dependency(xml, "junit", "junit", "${junit.version}", "      ");
+        xml.append("    </dependencies>\n  </dependencyManagement>\n");
+        xml.append("</project>\n");
+        write(dir, xml);
+    }
+
+    private static void writeLeaf(Path dir, String artifactId, String parentArtifactId) throws IOException {
+        StringBuilder xml = header();
+        parent(xml, parentArtifactId);
+        xml.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+        xml.append("  <properties>\n    <own.version>1.").append(artifactId.length()).append("</own.version>\n  </properties>\n");
+        xml.append("  <dependencies>\n");
+        dependency(xml, "junit", "junit", "${junit.version}", "    ");
+        dependency(xml, "org.example", "lib-" + (artifactId.hashCode() & 15), "${lib.version}", "    ");
+        dependency(xml, "org.example", "own-" + artifactId, "${own.version}", "    ");
+        dependency(xml, "org.example", "fixed", "3.1.4", "    ");
+        xml.append("  </dependencies>\n");
+        xml.append("</project>\n");
+        write(dir, xml);
+    }
+
+    /**
+     * Generate a linear inheritance chain: {@code depth} nested pom-packaged levels, each the parent and aggregator
+     * of the next, ending in a jar module {@code leaf}. Every level defines a property that references the level
+     * above, and the leaf's dependency versions use properties from all levels.
+     * @param dir Root directory of the chain, the top-level pom.xml is written there.
+     * @param depth Number of parent POMs above the leaf.
+     * @param dependencies Number of dependencies declared by the leaf.
+     */
+    public static void generateChain(Path dir, int depth, int dependencies) throws IOException {
+        Path current = dir;
+        String parentArtifactId = null;
+        for (int level = 0; level < depth; level++) {
+            String artifactId = "chain-" + level;
+            StringBuilder xml = header();
+            if (parentArtifactId != null)
+                parent(xml, parentArtifactId);
+            xml.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+            xml.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+            xml.append("  <version>1.0.0-SNAPSHOT</version>\n");
+            xml.append("  <packaging>pom</packaging>\n");
+            xml.append("  <modules>\n    <module>").append(level + 1 < depth ? "chain-" + (level + 1) : "leaf")
+                    .append("</module>\n  </modules>\n");
+            xml.append("  <properties>\n");
+            //每一层的属性都引用上一层，插值时需要沿整条继承链查找
+            xml.append("    <v").append(level).append(">")
+                    .append(level == 0 ? "1.0" : "${v" + (level - 1) + "}." + level)
+                    .append("</v").append(level).append(">\n");
+            xml.append("  </properties>\n");
+            xml.append("</project>\n");
+            write(current, xml);
+            parentArtifactId = artifactId;
+            current = current.resolve(level + 1 < depth ? "chain-" + (level + 1) : "leaf");
+        }
+        StringBuilder xml = header();
+        if (parentArtifactId != null)
+            parent(xml, parentArtifactId);
+        xml.append("  <artifactId>leaf</artifactId>\n");
+        xml.append("  <dependencies>\n");
+        for (int i = 0; i < dependencies; i++) {
+            String version = depth > 0 ? "${v" + (i % depth) + "}" : "1." + i;
+            dependency(xml, "org.example", "artifact-" + i, version, "    ");
+        }
+        xml.append("  </dependencies>\n");
+        xml.append("</project>\n");
+        write(current, xml);
+    }
+
+    /**
+     * A standalone POM with the given number of dependencies and properties, used for single-file parse benchmarks.
+     */
+    public static String pom(int dependencies, int properties) {
+        StringBuilder xml = header();
+        xml.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+        xml.append("  <artifactId>single</artifactId>\n  <version>1.0.0</version>\n");
+        xml.append("  <properties>\n");
+        for (int i = 0; i < properties; i++) {
+            xml.append("    <p").append(i).append(">").append(i == 0 ? "1.0" : "${p" + (i - 1) + "}.1")
+                    .append("</p").append(i).append(">\n");
+        }
+        xml.append("  </properties>\n  <dependencies>\n");
+        for (int i = 0; i < dependencies; i++) {
+            String version = properties > 0 ? "${p" + (i % properties) + "}" : "1." + i;
+            dependency(xml, "org.example.g" + (i % 7), "artifact-" + i, version, "    ");
+        }
+        xml.append("  </dependencies>\n");
+        xml.append("  <build>\n    <plugins>\n      <plugin>\n");
+        xml.append("        <groupId>org.apache.maven.plugins</groupId>\n");
+        xml.append("        <artifactId>maven-surefire-plugin</artifactId>\n");
+        xml.append("        <configuration>\n          <skipTests>false</skipTests>\n        </configuration>\n");
+        xml.append("      </plugin>\n    </plugins>\n  </build>\n");
+        xml.append("</project>\n");
+        return xml.toString();
+    }
+
+    public static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir))
+            return;
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path d, IOException exc) throws IOException {
+                Files.delete(d);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static StringBuilder header() {
+        StringBuilder xml = new StringBuilder();
+        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        xml.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        xml.append("  <modelVersion>4.0.0</modelVersion>\n");
+        return xml;
+    }
+
+    private static void parent(StringBuilder xml, String artifactId) {
+        xml.append("  <parent>\n");
+        xml.append("    <groupId>").append(GROUP_ID).append("</groupId>\n");
+        xml.append("    <artifactId>").append(artifactId).append("</artifactId>\n");
+        xml.append("    <version>1.0.0-SNAPSHOT</version>\n");
+        xml.append("  </parent>\n");
+    }
+
+    private static void dependency(StringBuilder xml, String groupId, String artifactId, String version, String indent) {
+        xml.append(indent).append("<dependency>\n");
+        xml.append(indent).append("  <groupId>").append(groupId).append("</groupId>\n");
+        xml.append(indent).append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+        xml.append(indent).append("  <version>").append(version).append("</version>\n");
+        xml.append(indent).append("</dependency>\n");
+    }
+
+    private static void write(Path dir, StringBuilder xml) throws IOException {
+        Files.createDirectories(dir);
+        Files.write(dir.resolve("pom.xml"), xml.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+package parser.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.POM;
+import parser.POMParser;
+import parser.POMTree;
+import parser.POMTreeSnapshot;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a {@link POMTreeSnapshot} against parsing the same reactor, and reading one POM lazily from the snapshot.
+ * @author i-Taozi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    @Param({"1000", "5000"})
+    public int modules;
+
+    private Path reactor;
+    private Path snapshot;
+    private POMParser parser;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        reactor = Files.createTempDirectory("reactor-" + modules);
+        ReactorGenerator.generate(reactor, modules, 20);
+        parser = new POMParser(POMParser.Mode.STAX);
+        snapshot = Files.createTempFile("snapshot-" + modules, ".bin");
+        new POMTree(reactor.toString(), parser).saveSnapshot(snapshot);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ReactorGenerator.delete(reactor);
+        Files.deleteIfExists(snapshot);
+    }
+
+    @Benchmark
+    public POM parseReactor() throws Exception {
+        return new POMTree(reactor.toString(), parser).createPomTree();
+    }
+
+    @Benchmark
+    public POMTree loadSnapshot() throws Exception {
+        return POMTree.loadSnapshot(snapshot);
+    }
+
+    @Benchmark
+    public POM readOnePom() throws Exception {
+        try (POMTreeSnapshot s = POMTreeSnapshot.open(snapshot)) {
+            return s.get(s.indexOf(ReactorGenerator.GROUP_ID, "module-" + (modules / 2)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package parser.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import parser.POM;
+import parser.POMParser;
+import parser.POMTree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link POMTree#createPomTree()} end to end, and {@link POMTree#createInheritanceTree(Map, List)} alone
+ * on an already parsed reactor, for generated reactors of 10, 100 and 1,000 modules.
+ * @author i-Taozi
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreeBuildingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int modules;
+
+    @Param({"STAX"})
+    public POMParser.Mode mode;
+
+    private Path reactor;
+    private POMParser parser;
+    private List<POM> pomList;
+    private Map<String, List<POM>> pomIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        reactor = Files.createTempDirectory("reactor-" + modules);
+        ReactorGenerator.generate(reactor, modules, 20);
+        parser = new POMParser(mode);
+        POMTree tree = new POMTree(reactor.toString(), parser);
+        tree.createPomTree();
+        pomList = tree.getPomList();
+        pomIndex = POMTree.createPomIndex(pomList);
+    }
+
+    //createInheritanceTree 会向父POM追加子POM，每次调用前清空以免列表不断增长
+    @Setup(Level.Invocation)
+    public void resetInheritance() {
+        for (POM pom : pomList) {
+            pom.getChildrenPoms().clear();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ReactorGenerator.delete(reactor);
+    }
+
+    @Benchmark
+    public POM createPomTree() throws Exception {
+        return new POMTree(reactor.toString(), parser).createPomTree();
+    }
+
+    @Benchmark
+    public List<POM> createInheritanceTree() {
+        POMTree.createInheritanceTree(pomIndex, pomList);
+        return pomList;
+    }
+}
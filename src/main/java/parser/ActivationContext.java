@@ -0,0 +1,258 @@
+package parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The build environment profiles are activated against: explicitly (de)activated profile ids, user and system
+ * properties, JDK version, OS and, optionally, the set of files that exist. Used as the cache key of
+ * {@link POM#getEffectiveModel(ActivationContext)}, so instances are immutable and compare by value;
+ * the {@code with} methods return modified copies.
+ * @author i-Taozi
+ */
+public final class ActivationContext {
+
+    /**
+     * No explicit profiles, properties, JDK or OS: only {@code activeByDefault} and file conditions can match.
+     */
+    public static final ActivationContext EMPTY = new ActivationContext(Collections.<String>emptySet(),
+            Collections.<String>emptySet(), Collections.<String, String>emptyMap(), Collections.<String, String>emptyMap(),
+            null, null, null, null, null);
+
+    private final Set<String> activeProfiles;
+    private final Set<String> inactiveProfiles;
+    //-D 传入的用户属性，覆盖POM中的同名属性
+    private final Map<String, String> userProperties;
+    //JVM 的系统属性，只补充POM未定义的名称
+    private final Map<String, String> systemProperties;
+    private final String jdkVersion;
+    private final String osName;
+    private final String osArch;
+    private final String osVersion;
+    //null 表示按POM的来源检查文件是否存在
+    private final Set<String> files;
+    private final int hash;
+
+    private ActivationContext(Set<String> activeProfiles, Set<String> inactiveProfiles,
+                              Map<String, String> userProperties, Map<String, String> systemProperties,
+                              String jdkVersion, String osName, String osArch, String osVersion, Set<String> files) {
+        this.activeProfiles = activeProfiles;
+        this.inactiveProfiles = inactiveProfiles;
+        this.userProperties = userProperties;
+        this.systemProperties = systemProperties;
+        this.jdkVersion = jdkVersion;
+        this.osName = osName;
+        this.osArch = osArch;
+        this.osVersion = osVersion;
+        this.files = files;
+        this.hash = Objects.hash(activeProfiles, inactiveProfiles, userProperties, systemProperties,
+                jdkVersion, osName, osArch, osVersion, files);
+    }
+
+    /**
+     * The running JVM: its system properties as {@link #withSystemProperties(Map) system properties},
+     * {@code java.version} and {@code os.*}. No user properties are set.
+     */
+    public static ActivationContext current() {
+        Map<String, String> properties = new TreeMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            properties.put(name, System.getProperty(name));
+        }
+        return EMPTY.withSystemProperties(properties)
+                .withJdkVersion(System.getProperty("java.version"))
+                .withOs(System.getProperty("os.name"), System.getProperty("os.arch"), System.getProperty("os.version"));
+    }
+
+    public Set<String> getActiveProfiles() {
+        return activeProfiles;
+    }
+
+    public Set<String> getInactiveProfiles() {
+        return inactiveProfiles;
+    }
+
+    /**
+     * Profiles in the syntax of {@code mvn -P}: ids separated by commas, {@code !id} or {@code -id} deactivates.
+     * Added to the ones already set.
+     */
+    public ActivationContext withProfiles(String... ids) {
+        Set<String> active = new TreeSet<>(activeProfiles);
+        Set<String> inactive = new TreeSet<>(inactiveProfiles);
+        for (String item : ids) {
+            for (String id : item.split(",")) {
+                id = id.trim();
+                if (id.startsWith("!") || id.startsWith("-")) {
+                    id = id.substring(1).trim();
+                    active.remove(id);
+                    if (!id.isEmpty())
+                        inactive.add(id);
+                } else if (!id.isEmpty()) {
+                    id = id.startsWith("+") ? id.substring(1).trim() : id;
+                    inactive.remove(id);
+                    active.add(id);
+                }
+            }
+        }
+        return new ActivationContext(Collections.unmodifiableSet(active), Collections.unmodifiableSet(inactive),
+                userProperties, systemProperties, jdkVersion, osName, osArch, osVersion, files);
+    }
+
+    public Map<String, String> getUserProperties() {
+        return userProperties;
+    }
+
+    public Map<String, String> getSystemProperties() {
+        return systemProperties;
+    }
+
+    /**
+     * A property as {@code <property>} conditions see it: the user property, else the system property.
+     */
+    public String getProperty(String name) {
+        String value = userProperties.get(name);
+        return value != null ? value : systemProperties.get(name);
+    }
+
+    /**
+     * User properties, as passed with {@code -D}. They activate {@code <property>} conditions and, in an
+     * {@link EffectiveModel}, take precedence over properties of the same name the POMs define.
+     */
+    public ActivationContext withProperties(Map<String, String> properties) {
+        return new ActivationContext(activeProfiles, inactiveProfiles, merge(userProperties, properties),
+                systemProperties, jdkVersion, osName, osArch, osVersion, files);
+    }
+
+    public ActivationContext withProperty(String name, String value) {
+        return withProperties(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * System properties of the JVM running the build. They activate {@code <property>} conditions and, in an
+     * {@link EffectiveModel}, only resolve names the POMs do not define, e.g. a POM's own {@code java.version}
+     * wins over the running JDK's.
+     */
+    public ActivationContext withSystemProperties(Map<String, String> properties) {
+        return new ActivationContext(activeProfiles, inactiveProfiles, userProperties,
+                merge(systemProperties, properties), jdkVersion, osName, osArch, osVersion, files);
+    }
+
+    private static Map<String, String> merge(Map<String, String> current, Map<String, String> added) {
+        Map<String, String> merged = new TreeMap<>(current);
+        merged.putAll(added);
+        return Collections.unmodifiableMap(merged);
+    }
+
+    public String getJdkVersion() {
+        return jdkVersion;
+    }
+
+    /**
+     * The version {@code <jdk>} conditions are checked against, e.g. {@code 1.8.0_292} or {@code 17.0.2}.
+     * {@code null} matches no condition.
+     */
+    public ActivationContext withJdkVersion(String jdkVersion) {
+        return new ActivationContext(activeProfiles, inactiveProfiles, userProperties, systemProperties,
+                jdkVersion, osName, osArch, osVersion, files);
+    }
+
+    public String getOsName() {
+        return osName;
+    }
+
+    public String getOsArch() {
+        return osArch;
+    }
+
+    public String getOsVersion() {
+        return osVersion;
+    }
+
+    /**
+     * The OS as {@code os.name}, {@code os.arch} and {@code os.version} would report it; the family is derived
+     * from the name. {@code null} parts match no condition.
+     */
+    public ActivationContext withOs(String name, String arch, String version) {
+        return new ActivationContext(activeProfiles, inactiveProfiles, userProperties, systemProperties, jdkVersion,
+                name == null ? null : name.toLowerCase(), arch == null ? null : arch.toLowerCase(),
+                version == null ? null : version.toLowerCase(), files);
+    }
+
+    public Set<String> getFiles() {
+        return files;
+    }
+
+    /**
+     * Evaluate {@code <file>} conditions against this set of paths instead of the {@link POMSource} of each POM.
+     * Relative paths are resolved against the working directory. {@code null} restores the default.
+     */
+    public ActivationContext withFiles(Collection<String> files) {
+        Set<String> normalized = null;
+        if (files != null) {
+            normalized = new TreeSet<>();
+            for (String file : files) {
+                normalized.add(POMTree.pathKey(file));
+            }
+            normalized = Collections.unmodifiableSet(normalized);
+        }
+        return new ActivationContext(activeProfiles, inactiveProfiles, userProperties, systemProperties,
+                jdkVersion, osName, osArch, osVersion, normalized);
+    }
+
+    boolean isActive(String profileId) {
+        return activeProfiles.contains(profileId);
+    }
+
+    boolean isInactive(String profileId) {
+        return inactiveProfiles.contains(profileId);
+    }
+
+    boolean exists(String path, POMSource source) {
+        if (files != null)
+            return files.contains(POMTree.pathKey(path));
+        try {
+            return (source == null ? POMSource.FILES : source).exists(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ActivationContext))
+            return false;
+        ActivationContext that = (ActivationContext) o;
+        return hash == that.hash && activeProfiles.equals(that.activeProfiles)
+                && inactiveProfiles.equals(that.inactiveProfiles) && userProperties.equals(that.userProperties)
+                && systemProperties.equals(that.systemProperties)
+                && Objects.equals(jdkVersion, that.jdkVersion) && Objects.equals(osName, that.osName)
+                && Objects.equals(osArch, that.osArch) && Objects.equals(osVersion, that.osVersion)
+                && Objects.equals(files, that.files);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "ActivationContext{" +
+                "activeProfiles=" + activeProfiles +
+                ", inactiveProfiles=" + inactiveProfiles +
+                ", jdk=" + jdkVersion +
+                ", os=" + Arrays.asList(osName, osArch, osVersion) +
+                ", userProperties=" + userProperties.size() +
+                ", systemProperties=" + systemProperties.size() +
+                (files == null ? "" : ", files=" + files.size()) +
+                '}';
+    }
+}
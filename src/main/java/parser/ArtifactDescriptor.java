@@ -0,0 +1,30 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The direct dependencies of one resolved coordinate, shared by every {@link DependencyResolver} run in the process.
+ * @author i-Taozi
+ */
+@Getter
+public class ArtifactDescriptor {
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    //本地仓库中没有该POM时为 null
+    private final POM pom;
+    private final List<Dependency> dependencies;
+
+    ArtifactDescriptor(String groupId, String artifactId, String version, POM pom) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.pom = pom;
+        this.dependencies = pom == null ? Collections.<Dependency>emptyList()
+                : Collections.unmodifiableList(DependencyResolver.declaredDependencies(pom));
+    }
+}
@@ -0,0 +1,115 @@
+package parser;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * A thread-safe, size-bounded LRU cache that loads each key at most once: concurrent callers asking for a key
+ * that is being loaded wait for that load instead of repeating it. {@code null} results are not cached.
+ * @author i-Taozi
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final LinkedHashMap<K, FutureTask<V>> map;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public BoundedCache(int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        this.maxSize = maxSize;
+        this.map = new LinkedHashMap<K, FutureTask<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, FutureTask<V>> eldest) {
+                return size() > BoundedCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Return the cached value, loading it with {@code loader} on the calling thread on a miss.
+     * @throws CancellationException When the thread is interrupted while waiting for another thread's load;
+     * the interrupt status is restored.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        FutureTask<V> task;
+        boolean owner = false;
+        synchronized (map) {
+            task = map.get(key);
+            if (task == null) {
+                task = new FutureTask<>(() -> loader.apply(key));
+                map.put(key, task);
+                owner = true;
+            }
+        }
+        if (owner) {
+            misses.incrementAndGet();
+            task.run();
+        } else {
+            hits.incrementAndGet();
+        }
+        try {
+            V value = task.get();
+            if (value == null)
+                remove(key, task);
+            return value;
+        } catch (ExecutionException e) {
+            remove(key, task);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException)
+                throw (RuntimeException) cause;
+            if (cause instanceof Error)
+                throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            //不能返回 null，调用方会把它当作不存在或格式错误；加载仍由其所有者完成
+            Thread.currentThread().interrupt();
+            CancellationException cancelled = new CancellationException("等待缓存加载时被中断: " + key);
+            cancelled.initCause(e);
+            throw cancelled;
+        }
+    }
+
+    private void remove(K key, FutureTask<V> task) {
+        synchronized (map) {
+            map.remove(key, task);
+        }
+    }
+
+    public void invalidate(K key) {
+        synchronized (map) {
+            map.remove(key);
+        }
+    }
+
+    public void clear() {
+        synchronized (map) {
+            map.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (map) {
+            return map.size();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
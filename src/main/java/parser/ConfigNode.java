@@ -0,0 +1,108 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An element of an expanded {@link PluginConfiguration}: name, attributes and content.
+ * Text is kept as written, whitespace included, so {@link #getTextContent()} matches the DOM's.
+ * @author i-Taozi
+ */
+public final class ConfigNode {
+
+    private final String name;
+    private final Map<String, String> attributes;
+    //子元素 (ConfigNode) 与文本 (String) 按文档顺序排列
+    private final List<Object> content;
+
+    ConfigNode(String name, Map<String, String> attributes, List<Object> content) {
+        this.name = name;
+        this.attributes = attributes.isEmpty() ? Collections.<String, String>emptyMap()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(attributes));
+        this.content = Collections.unmodifiableList(content);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    public String getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    public List<ConfigNode> getChildren() {
+        List<ConfigNode> children = new ArrayList<>();
+        for (Object item : content) {
+            if (item instanceof ConfigNode)
+                children.add((ConfigNode) item);
+        }
+        return children;
+    }
+
+    /**
+     * The first child element with the name, {@code null} when there is none.
+     */
+    public ConfigNode getChild(String name) {
+        for (Object item : content) {
+            if (item instanceof ConfigNode && ((ConfigNode) item).name.equals(name))
+                return (ConfigNode) item;
+        }
+        return null;
+    }
+
+    public List<ConfigNode> getChildren(String name) {
+        List<ConfigNode> children = new ArrayList<>();
+        for (Object item : content) {
+            if (item instanceof ConfigNode && ((ConfigNode) item).name.equals(name))
+                children.add((ConfigNode) item);
+        }
+        return children;
+    }
+
+    public boolean hasChildren() {
+        for (Object item : content) {
+            if (item instanceof ConfigNode)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * The trimmed text of the element, e.g. {@code false} for {@code <skipTests> false </skipTests>}.
+     */
+    public String getValue() {
+        return getTextContent().trim();
+    }
+
+    /**
+     * All text below the element, untrimmed, like {@code Node.getTextContent()}.
+     */
+    public String getTextContent() {
+        if (content.size() == 1 && content.get(0) instanceof String)
+            return (String) content.get(0);
+        StringBuilder text = new StringBuilder();
+        appendText(text);
+        return text.toString();
+    }
+
+    private void appendText(StringBuilder text) {
+        for (Object item : content) {
+            if (item instanceof ConfigNode)
+                ((ConfigNode) item).appendText(text);
+            else
+                text.append((String) item);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigNode{" + name + '}';
+    }
+}
@@ -0,0 +1,94 @@
+package parser;
+
+/**
+ * An immutable groupId:artifactId:version. Instances from {@link #of} are interned, so the coordinates repeated
+ * across a corpus share one object; equality covers all three parts and the hash is computed once.
+ * @author i-Taozi
+ */
+public final class Coordinate {
+
+    private static final Interner<Coordinate> INTERNER = new Interner<>();
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final int hash;
+
+    private Coordinate(String groupId, String artifactId, String version) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.hash = (groupId.hashCode() * 31 + artifactId.hashCode()) * 31 + version.hashCode();
+    }
+
+    /**
+     * The canonical instance, {@code null} parts are treated as empty.
+     */
+    public static Coordinate of(String groupId, String artifactId, String version) {
+        return INTERNER.intern(new Coordinate(nullToEmpty(groupId), nullToEmpty(artifactId), nullToEmpty(version)));
+    }
+
+    public static Coordinate of(Dependency dependency) {
+        return of(dependency.getGroupID(), dependency.getArtifactID(), dependency.getVersion());
+    }
+
+    public static Coordinate of(POM pom) {
+        return of(pom.getGroupId(), pom.getArtifactId(), pom.getVersion());
+    }
+
+    /**
+     * The interner behind {@link #of}, e.g. to check its size. Coordinates no longer referenced elsewhere are
+     * dropped from it by the garbage collector.
+     */
+    public static Interner<Coordinate> getInterner() {
+        return INTERNER;
+    }
+
+    static String nullToEmpty(String s) {
+        return s == null ? "" : s;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * groupId:artifactId, the key used by the tree and dependency indexes.
+     */
+    public String getKey() {
+        return groupId + ":" + artifactId;
+    }
+
+    public Coordinate withVersion(String version) {
+        return of(groupId, artifactId, version);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Coordinate))
+            return false;
+        Coordinate that = (Coordinate) o;
+        return hash == that.hash && groupId.equals(that.groupId) && artifactId.equals(that.artifactId)
+                && version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return groupId + ":" + artifactId + ":" + version;
+    }
+}
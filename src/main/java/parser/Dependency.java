@@ -2,6 +2,8 @@ package parser;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 /**
  * @author i-Taozi
@@ -14,6 +16,13 @@ public class Dependency {
     private String groupID;
     private String artifactID;
     private String version;
+    //未声明时为空字符串，按 compile 处理
+    private String scope = "";
+    private String type = "";
+    private String classifier = "";
+    private boolean optional;
+    //groupId:artifactId，可以使用 * 通配
+    private List<String> exclusions = new ArrayList<>();
 
     public Dependency(String groupID, String artifactID, String version) {
         this.groupID = groupID;
@@ -21,21 +30,76 @@ public class Dependency {
         this.version = version;
     }
 
+    /**
+     * A copy with another version, scope, type, classifier, optional and exclusions are kept.
+     */
+    public Dependency withVersion(String version) {
+        Dependency copy = new Dependency(this.groupID, this.artifactID, version);
+        copy.scope = this.scope;
+        copy.type = this.type;
+        copy.classifier = this.classifier;
+        copy.optional = this.optional;
+        //复制列表：StringPool 等会原地修改 exclusions
+        copy.exclusions = new ArrayList<>(this.exclusions);
+        return copy;
+    }
+
+    /**
+     * A copy completed from a dependencyManagement entry: version, scope and exclusions
+     * that this dependency does not declare itself are taken from {@code managed}.
+     */
+    public Dependency withManagement(Dependency managed) {
+        Dependency copy = withVersion(this.version.equals("") ? managed.version : this.version);
+        if (copy.scope.equals(""))
+            copy.scope = managed.scope;
+        if (copy.exclusions.isEmpty())
+            copy.exclusions = new ArrayList<>(managed.exclusions);
+        return copy;
+    }
+
+    public void addExclusion(String groupId, String artifactId) {
+        this.exclusions.add(groupId + ":" + artifactId);
+    }
+
+    /**
+     * Whether an artifact is excluded by one of this dependency's exclusions.
+     */
+    public boolean excludes(String groupId, String artifactId) {
+        return excludes(this.exclusions, groupId, artifactId);
+    }
+
+    //exclusion 为 groupId:artifactId，两部分都可以是 *
+    static boolean excludes(List<String> exclusions, String groupId, String artifactId) {
+        for (String exclusion : exclusions) {
+            int colon = exclusion.indexOf(':');
+            String g = colon < 0 ? exclusion : exclusion.substring(0, colon);
+            String a = colon < 0 ? "*" : exclusion.substring(colon + 1);
+            if ((g.equals("*") || g.equals(groupId)) && (a.equals("*") || a.equals(artifactId)))
+                return true;
+        }
+        return false;
+    }
+
     public String getName() {
         return groupID + "/" + artifactID;
     }
 
+    /**
+     * Equal when groupId and artifactId are, whatever the version; see {@link ImmutableDependency} for full equality.
+     */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        //FrozenPOM 的只读副本是子类，与原依赖仍然相等
+        if (!(o instanceof Dependency)) return false;
         Dependency that = (Dependency) o;
         return groupID.equals(that.groupID) && artifactID.equals(that.artifactID);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(groupID,artifactID,version);
+        //与 equals 一致，只包含 groupId 与 artifactId
+        return Objects.hash(groupID, artifactID);
     }
 
     @Override
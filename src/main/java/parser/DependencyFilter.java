@@ -0,0 +1,123 @@
+package parser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable dependency predicate that {@link POMTree#dependencies(DependencyFilter)} can push down:
+ * POMs none of whose declared dependencies can match are skipped without resolving their effective
+ * dependencies. Criteria combine with AND.
+ * <pre>
+ * tree.dependencies(DependencyFilter.all().groupIdPrefix("org.apache.").scope("compile", "runtime")).count();
+ * </pre>
+ * @author i-Taozi
+ */
+public final class DependencyFilter implements Predicate<Dependency> {
+
+    private static final DependencyFilter ALL = new DependencyFilter(null, null, false, null);
+
+    //null 表示不限制
+    private final Set<String> scopes;
+    private final String groupIdPrefix;
+    private final boolean dynamicVersion;
+    private final Predicate<Dependency> extra;
+
+    private DependencyFilter(Set<String> scopes, String groupIdPrefix, boolean dynamicVersion, Predicate<Dependency> extra) {
+        this.scopes = scopes;
+        this.groupIdPrefix = groupIdPrefix;
+        this.dynamicVersion = dynamicVersion;
+        this.extra = extra;
+    }
+
+    public static DependencyFilter all() {
+        return ALL;
+    }
+
+    /**
+     * Only these scopes; an undeclared scope counts as {@code compile}.
+     */
+    public DependencyFilter scope(String... scopes) {
+        return new DependencyFilter(Collections.unmodifiableSet(new HashSet<>(Arrays.asList(scopes))),
+                groupIdPrefix, dynamicVersion, extra);
+    }
+
+    public DependencyFilter groupIdPrefix(String prefix) {
+        return new DependencyFilter(scopes, prefix, dynamicVersion, extra);
+    }
+
+    /**
+     * Only versions that can change between builds: RELEASE, LATEST, snapshots and ranges.
+     */
+    public DependencyFilter dynamicVersion() {
+        return new DependencyFilter(scopes, groupIdPrefix, true, extra);
+    }
+
+    /**
+     * An additional predicate, tested last and never pushed down.
+     */
+    public DependencyFilter matching(Predicate<? super Dependency> predicate) {
+        Predicate<Dependency> p = predicate::test;
+        return new DependencyFilter(scopes, groupIdPrefix, dynamicVersion, extra == null ? p : extra.and(p));
+    }
+
+    /**
+     * Only versions inside the range. Dependencies whose version is itself a range never match.
+     */
+    public DependencyFilter versionIn(VersionRange range) {
+        return matching(dependency -> !VersionRange.isRange(dependency.getVersion())
+                && range.containsVersion(dependency.getVersion()));
+    }
+
+    public static boolean isDynamic(String version) {
+        return VersionRange.isDynamic(version);
+    }
+
+    /**
+     * Test an effective dependency, as returned by {@link POM#getDependencies()}.
+     */
+    @Override
+    public boolean test(Dependency dependency) {
+        if (groupIdPrefix != null && !dependency.getGroupID().startsWith(groupIdPrefix))
+            return false;
+        if (scopes != null && !scopes.contains(scopeOf(dependency.getScope())))
+            return false;
+        if (dynamicVersion && !isDynamic(dependency.getVersion()))
+            return false;
+        return extra == null || extra.test(dependency);
+    }
+
+    /**
+     * Whether a declared dependency, before management and interpolation, can still match.
+     * Fields that are not declared or contain a property reference are assumed to match.
+     */
+    boolean mayMatch(Dependency declared) {
+        String groupId = declared.getGroupID();
+        if (groupIdPrefix != null && !groupId.contains("${") && !groupId.startsWith(groupIdPrefix))
+            return false;
+        String scope = declared.getScope();
+        if (scopes != null && !scope.equals("") && !scope.contains("${") && !scopes.contains(scope))
+            return false;
+        String version = declared.getVersion();
+        return !dynamicVersion || version.equals("") || version.contains("${") || isDynamic(version);
+    }
+
+    /**
+     * Whether any declared dependency of the POM can match, i.e. whether its effective dependencies need resolving.
+     */
+    boolean mayMatch(POM pom) {
+        if (this == ALL)
+            return true;
+        for (Dependency declared : pom.getRawDependencies()) {
+            if (mayMatch(declared))
+                return true;
+        }
+        return false;
+    }
+
+    private static String scopeOf(String scope) {
+        return scope == null || scope.equals("") ? "compile" : scope;
+    }
+}
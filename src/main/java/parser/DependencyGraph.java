@@ -0,0 +1,86 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The mediated transitive dependency tree of one POM, as built by {@link DependencyResolver}.
+ * Each artifact (groupId:artifactId) appears once, at the nearest depth where it was reached.
+ * @author i-Taozi
+ */
+@Getter
+public class DependencyGraph {
+
+    private final POM root;
+    //直接依赖
+    private final List<Node> roots = new ArrayList<>();
+    //在本地仓库中找不到POM的依赖，它们的传递依赖未展开
+    private final List<Dependency> missing = new ArrayList<>();
+    //版本既未声明也未被管理的传递依赖，它们的传递依赖未展开
+    private final List<Dependency> unversioned = new ArrayList<>();
+
+    DependencyGraph(POM root) {
+        this.root = root;
+    }
+
+    /**
+     * All selected dependencies in breadth-first order, versions and scopes as mediated.
+     */
+    public List<Dependency> flatten() {
+        List<Dependency> list = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>(roots);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            list.add(node.dependency);
+            queue.addAll(node.children);
+        }
+        return list;
+    }
+
+    @Getter
+    public static class Node {
+        //版本与 scope 为调解后的结果
+        private final Dependency dependency;
+        //声明时的依赖，exclusions 从这里读取
+        private final Dependency declared;
+        private final Node parent;
+        private final int depth;
+        private final List<Node> children = new ArrayList<>();
+
+        Node(Dependency dependency, Dependency declared, Node parent) {
+            this.dependency = dependency;
+            this.declared = declared;
+            this.parent = parent;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+        }
+
+        void addChild(Node child) {
+            children.add(child);
+        }
+
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Whether an artifact is excluded by this node or any node on its path to the root.
+         */
+        public boolean excludes(String groupId, String artifactId) {
+            for (Node node = this; node != null; node = node.parent) {
+                if (node.declared.excludes(groupId, artifactId))
+                    return true;
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return dependency.getGroupID() + ":" + dependency.getArtifactID() + ":" + dependency.getVersion()
+                    + ":" + dependency.getScope();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package parser;
+
+import lombok.Getter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index from artifact (groupId:artifactId) to the POMs that depend on it, across any number of trees.
+ * <p>
+ * Each tree is registered under a repository name; re-adding a tree, or applying a {@link POMChange},
+ * replaces only the affected entries. Artifacts are kept sorted, so groupId prefix queries are a range scan.
+ * The index is safe for concurrent queries and updates.
+ * <pre>
+ * DependencyIndex index = new DependencyIndex();
+ * index.add("repo-a", treeA);
+ * index.find("com.google.guava", "guava");
+ * </pre>
+ * @author i-Taozi
+ */
+public class DependencyIndex {
+
+    private static final int MAGIC = 0x44494458; // "DIDX"
+    private static final int FORMAT_VERSION = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    //groupId:artifactId -> 仓库与POM路径 -> 该POM对此构件的依赖，删除POM时按键移除而不扫描整个列表
+    private final TreeMap<String, Map<String, List<Usage>>> byArtifact = new TreeMap<>();
+    //仓库 -> POM路径 -> 该POM的依赖，用于增量删除
+    private final Map<String, Map<String, List<Usage>>> byRepository = new LinkedHashMap<>();
+    private final StringPool pool = new StringPool();
+    private int size;
+
+    /**
+     * One dependency edge: a POM of a repository depends on an artifact at a version.
+     */
+    @Getter
+    public static final class Usage {
+        private final String repository;
+        private final String pomPath;
+        private final String groupId;
+        private final String artifactId;
+        private final String version;
+        private final String scope;
+
+        Usage(String repository, String pomPath, String groupId, String artifactId, String version, String scope) {
+            this.repository = repository;
+            this.pomPath = pomPath;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.version = version;
+            this.scope = scope;
+        }
+
+        @Override
+        public String toString() {
+            return repository + " " + pomPath + " -> " + groupId + ":" + artifactId + ":" + version
+                    + (scope.equals("") ? "" : ":" + scope);
+        }
+    }
+
+    /**
+     * Index the effective dependencies of every POM of a built tree, replacing what was indexed for the repository.
+     */
+    public void add(String repository, POMTree tree) {
+        //在锁外解析有效依赖，插值可能较慢
+        Map<String, List<Usage>> poms = new LinkedHashMap<>();
+        for (POM pom : tree.getPomList()) {
+            poms.put(pom.getPath(), usages(repository, pom));
+        }
+        lock.writeLock().lock();
+        try {
+            removeRepository(repository);
+            Map<String, List<Usage>> indexed = new LinkedHashMap<>();
+            byRepository.put(pool.intern(repository), indexed);
+            for (Map.Entry<String, List<Usage>> item : poms.entrySet()) {
+                put(indexed, item.getKey(), item.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Index one POM, replacing its previous entries.
+     */
+    public void add(String repository, POM pom) {
+        List<Usage> usages = usages(repository, pom);
+        lock.writeLock().lock();
+        try {
+            Map<String, List<Usage>> indexed = byRepository.computeIfAbsent(pool.intern(repository), k -> new LinkedHashMap<>());
+            removePom(indexed, pom.getPath());
+            put(indexed, pom.getPath(), usages);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String repository) {
+        lock.writeLock().lock();
+        try {
+            removeRepository(repository);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String repository, String pomPath) {
+        lock.writeLock().lock();
+        try {
+            Map<String, List<Usage>> indexed = byRepository.get(repository);
+            if (indexed != null)
+                removePom(indexed, pomPath);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Follow an incremental {@link POMTree#reload(String) reload}: removed POMs are dropped, the new, added
+     * and invalidated POMs (whose inherited versions may have changed) are re-indexed.
+     */
+    public void apply(String repository, POMChange change) {
+        //在锁外解析有效依赖，整个变更在一次写锁内生效，查询不会看到中间状态
+        Map<String, List<Usage>> poms = new LinkedHashMap<>();
+        if (change.getNewPom() != null)
+            poms.put(change.getNewPom().getPath(), usages(repository, change.getNewPom()));
+        for (POM pom : change.getAddedPoms()) {
+            poms.put(pom.getPath(), usages(repository, pom));
+        }
+        for (POM pom : change.getInvalidatedPoms()) {
+            poms.put(pom.getPath(), usages(repository, pom));
+        }
+        lock.writeLock().lock();
+        try {
+            Map<String, List<Usage>> indexed = byRepository.computeIfAbsent(pool.intern(repository), k -> new LinkedHashMap<>());
+            if (change.getType() == POMChange.Type.REMOVED)
+                removePom(indexed, change.getPath());
+            for (POM pom : change.getRemovedPoms()) {
+                removePom(indexed, pom.getPath());
+            }
+            for (Map.Entry<String, List<Usage>> item : poms.entrySet()) {
+                removePom(indexed, item.getKey());
+                put(indexed, item.getKey(), item.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Usage> find(String groupId, String artifactId) {
+        lock.readLock().lock();
+        try {
+            Map<String, List<Usage>> usages = byArtifact.get(key(groupId, artifactId));
+            return usages == null ? Collections.<Usage>emptyList() : flatten(usages);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Usages whose version lies in the range; usages declaring a range themselves are not matched.
+     */
+    public List<Usage> find(String groupId, String artifactId, VersionRange range) {
+        List<Usage> matches = new ArrayList<>();
+        for (Usage usage : find(groupId, artifactId)) {
+            if (!VersionRange.isRange(usage.version) && !usage.version.contains("${")
+                    && range.containsVersion(usage.version))
+                matches.add(usage);
+        }
+        return matches;
+    }
+
+    /**
+     * All usages of artifacts whose groupId starts with {@code prefix}, grouped by groupId:artifactId in sorted order.
+     */
+    public Map<String, List<Usage>> findByGroupIdPrefix(String prefix) {
+        Map<String, List<Usage>> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (Map.Entry<String, Map<String, List<Usage>>> item
+                    : byArtifact.subMap(prefix, true, prefix + Character.MAX_VALUE, true).entrySet()) {
+                result.put(item.getKey(), flatten(item.getValue()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * The repositories using an artifact, in indexing order.
+     */
+    public Set<String> getRepositories(String groupId, String artifactId) {
+        Set<String> repositories = new LinkedHashSet<>();
+        for (Usage usage : find(groupId, artifactId)) {
+            repositories.add(usage.repository);
+        }
+        return repositories;
+    }
+
+    public Set<String> getRepositories() {
+        lock.readLock().lock();
+        try {
+            return new LinkedHashSet<>(byRepository.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed dependency edges.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getArtifactCount() {
+        lock.readLock().lock();
+        try {
+            return byArtifact.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Usage> usages(String repository, POM pom) {
+        List<Dependency> dependencies = pom.resolvedDependencies();
+        List<Usage> usages = new ArrayList<>(dependencies.size());
+        String path = pool.intern(pom.getPath());
+        repository = pool.intern(repository);
+        for (Dependency dependency : dependencies) {
+            usages.add(new Usage(repository, path, pool.intern(dependency.getGroupID()),
+                    pool.intern(dependency.getArtifactID()), pool.intern(dependency.getVersion()),
+                    pool.intern(dependency.getScope())));
+        }
+        return usages;
+    }
+
+    private static List<Usage> flatten(Map<String, List<Usage>> usages) {
+        List<Usage> list = new ArrayList<>();
+        for (List<Usage> item : usages.values()) {
+            list.addAll(item);
+        }
+        return list;
+    }
+
+    //以下方法需持有写锁
+    private void put(Map<String, List<Usage>> indexed, String pomPath, List<Usage> usages) {
+        indexed.put(pomPath, usages);
+        for (Usage usage : usages) {
+            byArtifact.computeIfAbsent(key(usage.groupId, usage.artifactId), k -> new LinkedHashMap<>(4))
+                    .computeIfAbsent(owner(usage.repository, usage.pomPath), k -> new ArrayList<>(1)).add(usage);
+        }
+        size += usages.size();
+    }
+
+    private void removePom(Map<String, List<Usage>> indexed, String pomPath) {
+        List<Usage> usages = indexed.remove(pomPath);
+        if (usages != null)
+            removeUsages(usages);
+    }
+
+    private void removeRepository(String repository) {
+        Map<String, List<Usage>> indexed = byRepository.remove(repository);
+        if (indexed == null)
+            return;
+        for (List<Usage> usages : indexed.values()) {
+            removeUsages(usages);
+        }
+    }
+
+    //按仓库与POM路径直接移除，与构件的使用方数量无关
+    private void removeUsages(List<Usage> usages) {
+        for (Usage usage : usages) {
+            String key = key(usage.groupId, usage.artifactId);
+            Map<String, List<Usage>> owners = byArtifact.get(key);
+            if (owners == null)
+                continue;
+            owners.remove(owner(usage.repository, usage.pomPath));
+            if (owners.isEmpty())
+                byArtifact.remove(key);
+        }
+        size -= usages.size();
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    private static String owner(String repository, String pomPath) {
+        return repository + '\0' + pomPath;
+    }
+
+    // ---------------------------------------------------------------- 持久化
+
+    /**
+     * Write the index to a file, replacing it atomically. Strings are written once and referenced afterwards.
+     */
+    public void save(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "index", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                Map<String, Integer> strings = new HashMap<>();
+                lock.readLock().lock();
+                try {
+                    out.writeInt(byRepository.size());
+                    for (Map.Entry<String, Map<String, List<Usage>>> repository : byRepository.entrySet()) {
+                        writeString(out, repository.getKey(), strings);
+                        out.writeInt(repository.getValue().size());
+                        for (Map.Entry<String, List<Usage>> pom : repository.getValue().entrySet()) {
+                            writeString(out, pom.getKey(), strings);
+                            out.writeInt(pom.getValue().size());
+                            for (Usage usage : pom.getValue()) {
+                                writeString(out, usage.groupId, strings);
+                                writeString(out, usage.artifactId, strings);
+                                writeString(out, usage.version, strings);
+                                writeString(out, usage.scope, strings);
+                            }
+                        }
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static DependencyIndex load(Path file) throws IOException {
+        DependencyIndex index = new DependencyIndex();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException("不是依赖索引文件");
+            if (in.readInt() != FORMAT_VERSION)
+                throw new IOException("不支持的依赖索引版本");
+            List<String> strings = new ArrayList<>();
+            int repositories = in.readInt();
+            for (int r = 0; r < repositories; r++) {
+                String repository = readString(in, strings);
+                Map<String, List<Usage>> indexed = new LinkedHashMap<>();
+                index.byRepository.put(repository, indexed);
+                int poms = in.readInt();
+                for (int p = 0; p < poms; p++) {
+                    String pomPath = readString(in, strings);
+                    int count = in.readInt();
+                    List<Usage> usages = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        usages.add(new Usage(repository, pomPath, readString(in, strings), readString(in, strings),
+                                readString(in, strings), readString(in, strings)));
+                    }
+                    index.put(indexed, pomPath, usages);
+                }
+            }
+        }
+        return index;
+    }
+
+    //首次出现时写 -1 加字符串内容，之后只写编号
+    private static void writeString(DataOutputStream out, String s, Map<String, Integer> strings) throws IOException {
+        Integer id = strings.get(s);
+        if (id != null) {
+            out.writeInt(id);
+            return;
+        }
+        strings.put(s, strings.size());
+        out.writeInt(-1);
+        POMCodec.writeString(out, s);
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int id = in.readInt();
+        if (id >= 0)
+            return strings.get(id);
+        String s = POMCodec.readString(in);
+        strings.add(s);
+        return s;
+    }
+}
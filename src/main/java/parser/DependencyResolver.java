@@ -0,0 +1,293 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Resolves the transitive dependencies of a POM against a {@link LocalRepository}, following Maven's rules:
+ * nearest definition wins, test/provided/system and optional dependencies are not transitive,
+ * scopes are narrowed along the path and exclusions apply to the whole subtree below them.
+ * <p>
+ * The expanded subtree of every coordinate, per scope and set of inherited exclusions, is computed once per process
+ * and shared by all resolutions: its filtered children with their scopes and exclusions, each child's subtree shared
+ * in turn. Nearest-wins mediation and the root's dependencyManagement depend on the whole graph, so each resolution
+ * walks the shared subtrees to select versions. Subtrees of one breadth-first level are loaded in parallel
+ * when {@link #setParallelism(int) parallelism} is above 1.
+ * @author i-Taozi
+ */
+public class DependencyResolver {
+
+    private static final BoundedCache<String, ArtifactDescriptor> DESCRIPTORS = new BoundedCache<>(16384);
+    private static final BoundedCache<String, Subtree> SUBTREES = new BoundedCache<>(16384);
+
+    private final LocalRepository localRepository;
+    private int parallelism = 1;
+
+    public DependencyResolver(LocalRepository localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Threads used to load the subtrees of one level. Each {@link #resolve(POM)} call creates its own pool
+     * and shuts it down when it returns, so a resolver holds no threads between calls.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * The process-wide cache of per-coordinate direct dependencies.
+     */
+    public static BoundedCache<String, ArtifactDescriptor> getDescriptorCache() {
+        return DESCRIPTORS;
+    }
+
+    /**
+     * The process-wide cache of expanded subtrees, keyed by coordinate, scope and inherited exclusions.
+     */
+    public static BoundedCache<String, Subtree> getSubtreeCache() {
+        return SUBTREES;
+    }
+
+    public List<Dependency> resolveFlat(POM pom) throws Exception {
+        return resolve(pom).flatten();
+    }
+
+    public DependencyGraph resolve(POM pom) throws Exception {
+        DependencyGraph graph = new DependencyGraph(pom);
+        ManagedVersions management = pom.getManagedVersions();
+        Set<String> selected = new HashSet<>();
+        selected.add(key(pom.getGroupId(), pom.getArtifactId()));
+
+        List<Pending> level = new ArrayList<>();
+        for (Dependency declared : declaredDependencies(pom)) {
+            if (!selected.add(key(declared.getGroupID(), declared.getArtifactID())))
+                continue;
+            Dependency dependency = declared.withVersion(concreteVersion(declared, declared.getVersion()));
+            dependency.setScope(scope(declared));
+            DependencyGraph.Node node = new DependencyGraph.Node(dependency, declared, null);
+            graph.getRoots().add(node);
+            level.add(new Pending(node, exclusions(Collections.<String>emptyList(), declared)));
+        }
+
+        //与 POMTree.createPomTree 相同，线程池只在本次解析期间存在
+        ForkJoinPool pool = this.parallelism > 1 ? new ForkJoinPool(this.parallelism) : null;
+        try {
+            resolveLevels(graph, level, selected, management, pool);
+        } finally {
+            if (pool != null)
+                pool.shutdown();
+        }
+        return graph;
+    }
+
+    private void resolveLevels(DependencyGraph graph, List<Pending> level, Set<String> selected,
+                               ManagedVersions management, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        while (!level.isEmpty()) {
+            Map<Pending, Subtree> subtrees = subtrees(level, pool);
+            List<Pending> next = new ArrayList<>();
+            //同一层按声明顺序处理，保证“最近者优先、先声明者优先”
+            for (Pending pending : level) {
+                DependencyGraph.Node node = pending.node;
+                if (node.getDependency().getVersion().equals("")) {
+                    graph.getUnversioned().add(node.getDependency());
+                    continue;
+                }
+                Subtree subtree = subtrees.get(pending);
+                if (subtree.getDescriptor().getPom() == null) {
+                    graph.getMissing().add(node.getDependency());
+                    continue;
+                }
+                for (Subtree.Child item : subtree.getChildren()) {
+                    Dependency declared = item.declared;
+                    if (!selected.add(key(declared.getGroupID(), declared.getArtifactID())))
+                        continue;
+                    //根POM的 dependencyManagement 同样约束传递依赖的版本与 scope
+                    Dependency managed = management.get(declared);
+                    String version = declared.getVersion();
+                    if (managed != null && !managed.getVersion().equals(""))
+                        version = managed.getVersion();
+                    Dependency dependency = declared.withVersion(concreteVersion(declared, version));
+                    dependency.setScope(managed != null && !managed.getScope().equals("")
+                            ? managed.getScope() : item.scope);
+                    DependencyGraph.Node child = new DependencyGraph.Node(dependency, declared, node);
+                    node.addChild(child);
+                    next.add(new Pending(child, item.exclusions));
+                }
+            }
+            level = next;
+        }
+    }
+
+    private Map<Pending, Subtree> subtrees(List<Pending> level, ForkJoinPool pool)
+            throws InterruptedException, ExecutionException {
+        Map<Pending, Subtree> subtrees = Collections.synchronizedMap(new IdentityHashMap<>(level.size() * 2));
+        List<Pending> toLoad = new ArrayList<>();
+        for (Pending pending : level) {
+            if (!pending.node.getDependency().getVersion().equals(""))
+                toLoad.add(pending);
+        }
+        if (pool == null || toLoad.size() < 2) {
+            for (Pending pending : toLoad) {
+                subtrees.put(pending, subtree(pending));
+            }
+        } else {
+            pool.submit(() -> toLoad.parallelStream()
+                    .forEach(pending -> subtrees.put(pending, subtree(pending)))).get();
+        }
+        return subtrees;
+    }
+
+    private Subtree subtree(Pending pending) {
+        Dependency dependency = pending.node.getDependency();
+        String scope = dependency.getScope();
+        String key = this.localRepository.getRoot() + "|" + dependency.getGroupID() + ":" + dependency.getArtifactID()
+                + ":" + dependency.getVersion() + "|" + scope + "|" + String.join(",", pending.exclusions);
+        return SUBTREES.get(key, k -> Subtree.of(descriptor(dependency), scope, pending.exclusions));
+    }
+
+    private ArtifactDescriptor descriptor(Dependency dependency) {
+        String groupId = dependency.getGroupID();
+        String artifactId = dependency.getArtifactID();
+        String version = dependency.getVersion();
+        return DESCRIPTORS.get(this.localRepository.getRoot() + "|" + groupId + ":" + artifactId + ":" + version,
+                k -> new ArtifactDescriptor(groupId, artifactId, version,
+                        this.localRepository.resolve(groupId, artifactId, version)));
+    }
+
+    //路径上累积的排除：父节点的加上本节点声明的，排序去重后作为子树键的一部分
+    static List<String> exclusions(List<String> inherited, Dependency declared) {
+        if (declared.getExclusions().isEmpty())
+            return inherited;
+        TreeSet<String> merged = new TreeSet<>(inherited);
+        merged.addAll(declared.getExclusions());
+        return Collections.unmodifiableList(new ArrayList<>(merged));
+    }
+
+    /**
+     * One coordinate expanded under a scope and the exclusions inherited along its path: the dependencies its POM
+     * declares that are transitive, not excluded, with their scope narrowed by this one and their own inherited
+     * exclusions. Immutable and shared between resolutions.
+     */
+    public static final class Subtree {
+        private final ArtifactDescriptor descriptor;
+        private final List<Child> children;
+
+        private Subtree(ArtifactDescriptor descriptor, List<Child> children) {
+            this.descriptor = descriptor;
+            this.children = children;
+        }
+
+        static Subtree of(ArtifactDescriptor descriptor, String scope, List<String> exclusions) {
+            List<Child> children = new ArrayList<>();
+            for (Dependency declared : descriptor.getDependencies()) {
+                String declaredScope = scope(declared);
+                if (declared.isOptional() || declaredScope.equals("test") || declaredScope.equals("provided")
+                        || declaredScope.equals("system") || declaredScope.equals("import"))
+                    continue;
+                if (Dependency.excludes(exclusions, declared.getGroupID(), declared.getArtifactID()))
+                    continue;
+                children.add(new Child(declared, mediateScope(scope, declaredScope), exclusions(exclusions, declared)));
+            }
+            return new Subtree(descriptor, Collections.unmodifiableList(children));
+        }
+
+        public ArtifactDescriptor getDescriptor() {
+            return descriptor;
+        }
+
+        /**
+         * The declared dependencies below this coordinate, before mediation; empty when its POM is missing.
+         */
+        public List<Dependency> getDependencies() {
+            List<Dependency> dependencies = new ArrayList<>(children.size());
+            for (Child child : children) {
+                dependencies.add(child.declared);
+            }
+            return dependencies;
+        }
+
+        List<Child> getChildren() {
+            return children;
+        }
+
+        static final class Child {
+            final Dependency declared;
+            //未受根POM的 dependencyManagement 影响时的 scope
+            final String scope;
+            final List<String> exclusions;
+
+            Child(Dependency declared, String scope, List<String> exclusions) {
+                this.declared = declared;
+                this.scope = scope;
+                this.exclusions = exclusions;
+            }
+        }
+    }
+
+    //本次解析中待展开的节点与它继承的排除
+    private static final class Pending {
+        final DependencyGraph.Node node;
+        final List<String> exclusions;
+
+        Pending(DependencyGraph.Node node, List<String> exclusions) {
+            this.node = node;
+            this.exclusions = exclusions;
+        }
+    }
+
+    /**
+     * The dependencies a POM declares itself, completed from its own managed versions and interpolated.
+     * Unlike {@link POM#getDependencies()} those without a version are kept, the root's dependencyManagement
+     * may still provide one; otherwise they end up in {@link DependencyGraph#getUnversioned()}.
+     */
+    static List<Dependency> declaredDependencies(POM pom) {
+        return POM.resolveDependencies(pom.getRawDependencies(), pom::getManagedVersions, pom::effectiveProperties, true);
+    }
+
+    //版本范围取本地仓库中满足范围的最新版本，找不到时保留范围
+    private String concreteVersion(Dependency dependency, String version) {
+        if (!VersionRange.isRange(version))
+            return version;
+        String resolved = this.localRepository.resolveVersion(dependency.getGroupID(), dependency.getArtifactID(), version);
+        return resolved != null ? resolved : version;
+    }
+
+    private static String scope(Dependency dependency) {
+        String scope = dependency.getScope();
+        return scope == null || scope.equals("") ? "compile" : scope;
+    }
+
+    //传递依赖的 scope：父为 compile 时保持，runtime 传递为 runtime，provided/test 向下传递
+    static String mediateScope(String parentScope, String scope) {
+        switch (parentScope) {
+            case "compile":
+                return scope;
+            case "runtime":
+                return "runtime";
+            case "provided":
+                return "provided";
+            case "test":
+                return "test";
+            default:
+                return scope;
+        }
+    }
+
+    private static String key(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+}
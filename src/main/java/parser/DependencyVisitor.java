@@ -0,0 +1,16 @@
+package parser;
+
+/**
+ * Callback for {@link POMTree#visitDependencies(DependencyFilter, DependencyVisitor)}.
+ * @author i-Taozi
+ */
+@FunctionalInterface
+public interface DependencyVisitor {
+
+    /**
+     * @param pom The POM declaring the dependency.
+     * @param dependency The effective dependency.
+     * @return {@code false} to stop the traversal.
+     */
+    boolean visit(POM pom, Dependency dependency);
+}
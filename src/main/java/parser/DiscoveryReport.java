@@ -0,0 +1,165 @@
+package parser;
+
+import lombok.Getter;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link POMDiscovery} run. The POMs found on disk are linked into the aggregator tree declared
+ * from the root pom.xml, and the differences between the two are reported:
+ * orphans were found but no aggregator declares them, missing modules are declared but were not found.
+ * Modules declared only inside {@code <profiles>} are not linked into the tree, as in {@link POMTree}; they are
+ * reported as profile modules rather than orphans.
+ * @author i-Taozi
+ */
+@Getter
+public class DiscoveryReport {
+
+    private final String rootPath;
+    //根 pom.xml 不存在或解析失败时为 null
+    private final POM rootPom;
+    //按路径排序的全部POM
+    private final Map<String, POM> poms;
+    private final List<POM> orphans;
+    //只能经由 profile 中的 modules 到达的POM，按路径排序
+    private final List<POM> profileModules;
+    private final List<MissingModule> missingModules;
+    private final Map<String, Exception> failures;
+    private final long elapsedNanos;
+
+    DiscoveryReport(String rootPath, Map<String, POM> poms, Map<String, Exception> failures, long elapsedNanos) {
+        this.rootPath = rootPath;
+        this.poms = Collections.unmodifiableMap(new TreeMap<>(poms));
+        this.failures = Collections.unmodifiableMap(new TreeMap<>(failures));
+        this.elapsedNanos = elapsedNanos;
+        this.rootPom = poms.get(rootPath);
+
+        Set<POM> reachable = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<MissingModule> missing = new ArrayList<>();
+        if (this.rootPom != null)
+            link(this.rootPom, reachable, missing);
+        Set<POM> profileOnly = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (this.rootPom != null)
+            linkProfiles(this.rootPom, null, reachable, profileOnly, missing,
+                    Collections.newSetFromMap(new IdentityHashMap<>()));
+        this.missingModules = Collections.unmodifiableList(missing);
+
+        List<POM> orphans = new ArrayList<>();
+        List<POM> profileModules = new ArrayList<>();
+        for (POM pom : this.poms.values()) {
+            if (profileOnly.contains(pom))
+                profileModules.add(pom);
+            else if (!reachable.contains(pom))
+                orphans.add(pom);
+        }
+        this.orphans = Collections.unmodifiableList(orphans);
+        this.profileModules = Collections.unmodifiableList(profileModules);
+    }
+
+    //与 POMTree.createAggregatorTree 相同：仅 packaging 为 pom 时跟随 modules，但不再重新解析
+    private void link(POM pom, Set<POM> reachable, List<MissingModule> missing) {
+        if (!reachable.add(pom))
+            return;
+        if (!pom.getPackaging().equals("pom"))
+            return;
+        for (String moduleName : pom.getModules()) {
+            String modulePath = modulePath(pom, moduleName);
+            POM module = poms.get(modulePath);
+            if (module == null) {
+                missing.add(new MissingModule(pom.getPath(), moduleName, modulePath, ""));
+            } else if (!reachable.contains(module)) {
+                pom.addAggregatorPom(module);
+                link(module, reachable, missing);
+            }
+        }
+    }
+
+    //在聚合树之上跟随各 profile 的 modules，profile 为 null 表示 pom 本身在聚合树中
+    private void linkProfiles(POM pom, String profile, Set<POM> reachable, Set<POM> profileOnly,
+                              List<MissingModule> missing, Set<POM> visited) {
+        if (!visited.add(pom))
+            return;
+        if (!pom.getPackaging().equals("pom"))
+            return;
+        if (profile == null) {
+            for (String moduleName : pom.getModules()) {
+                POM module = poms.get(modulePath(pom, moduleName));
+                if (module != null && reachable.contains(module))
+                    linkProfiles(module, null, reachable, profileOnly, missing, visited);
+            }
+        } else {
+            //只由 profile 到达的聚合POM，其默认 modules 也只在该 profile 下存在
+            linkProfileModules(pom, pom.getModules(), profile, reachable, profileOnly, missing, visited);
+        }
+        for (Profile item : pom.getProfiles()) {
+            linkProfileModules(pom, item.getModules(), item.getId(), reachable, profileOnly, missing, visited);
+        }
+    }
+
+    private void linkProfileModules(POM pom, List<String> moduleNames, String profile, Set<POM> reachable,
+                                    Set<POM> profileOnly, List<MissingModule> missing, Set<POM> visited) {
+        for (String moduleName : moduleNames) {
+            String modulePath = modulePath(pom, moduleName);
+            POM module = poms.get(modulePath);
+            if (module == null) {
+                missing.add(new MissingModule(pom.getPath(), moduleName, modulePath, profile));
+            } else if (!reachable.contains(module)) {
+                profileOnly.add(module);
+                linkProfiles(module, profile, reachable, profileOnly, missing, visited);
+            }
+        }
+    }
+
+    private static String modulePath(POM pom, String moduleName) {
+        return POMTree.pathKey(Paths.get(Paths.get(pom.getPath()).getParent().toString(), moduleName, "pom.xml").toString());
+    }
+
+    public double getPomsPerSecond() {
+        return elapsedNanos == 0 ? 0 : poms.size() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("DiscoveryReport{poms=%d, orphans=%d, profileModules=%d, missingModules=%d, failures=%d, %.1f POMs/s}",
+                poms.size(), orphans.size(), profileModules.size(), missingModules.size(), failures.size(),
+                getPomsPerSecond());
+    }
+
+    /**
+     * A {@code <module>} whose pom.xml was not discovered: it does not exist, lies in an ignored
+     * directory or failed to parse (then it is also in {@link #getFailures()}).
+     * {@link #getProfile()} is the id of the profile it is declared under, empty for the default modules.
+     */
+    @Getter
+    public static class MissingModule {
+        private final String aggregatorPath;
+        private final String module;
+        private final String expectedPath;
+        private final String profile;
+
+        MissingModule(String aggregatorPath, String module, String expectedPath, String profile) {
+            this.aggregatorPath = aggregatorPath;
+            this.module = module;
+            this.expectedPath = expectedPath;
+            this.profile = profile;
+        }
+
+        public boolean exists() {
+            return Files.exists(Paths.get(expectedPath));
+        }
+
+        @Override
+        public String toString() {
+            return aggregatorPath + " -> " + module + (profile.isEmpty() ? "" : " (profile " + profile + ")");
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A POM as seen under one {@link ActivationContext}: its profiles and those of its parents are activated and
+ * their properties, dependencies, dependencyManagement, modules, repositories and plugins are merged in.
+ * Obtained from {@link POM#getEffectiveModel(ActivationContext)}, which caches one instance per context;
+ * the parent's model under the same context is reused rather than recomputed.
+ * <p>
+ * Activation and properties are evaluated when the model is created, the managed versions and dependencies on
+ * first access. The collections are unmodifiable, a model is safe to share between threads.
+ * @author i-Taozi
+ */
+public final class EffectiveModel {
+
+    //当前线程正在计算的POM
+    private static final ThreadLocal<Set<POM>> BUILDING =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private final POM pom;
+    private final ActivationContext context;
+    private final EffectiveModel parent;
+    private final List<Profile> activeProfiles;
+
+    //沿继承链合并、尚未插值的属性，子POM在此基础上合并
+    private final Map<String, String> rawProperties;
+    private final Map<String, String> properties;
+    //继承链与激活的 profile 中声明的 dependencyManagement，近的在前
+    private final List<Dependency> declaredManagedDependencies;
+
+    private volatile ManagedVersions managedVersions;
+    private volatile List<Dependency> dependencies;
+    private volatile List<Dependency> rawDependencies;
+
+    private EffectiveModel(POM pom, ActivationContext context, EffectiveModel parent) {
+        this.pom = pom;
+        this.context = context;
+        this.parent = parent;
+        this.activeProfiles = Collections.unmodifiableList(activate(pom, context));
+
+        Map<String, String> raw = new HashMap<>();
+        if (parent != null)
+            raw.putAll(parent.rawProperties);
+        raw.putAll(pom.getRawProperties());
+        for (Profile profile : activeProfiles) {
+            raw.putAll(profile.getRawProperties());
+        }
+        this.rawProperties = Collections.unmodifiableMap(raw);
+
+        //与 Maven 一致：用户属性覆盖POM属性，POM属性覆盖系统属性；project.* 仍取自POM本身
+        Map<String, String> merged = new HashMap<>(context.getSystemProperties());
+        merged.putAll(raw);
+        merged.putAll(context.getUserProperties());
+        this.properties = Collections.unmodifiableMap(PropertyInterpolator.resolveAll(pom, merged));
+
+        List<Dependency> managed = new ArrayList<>();
+        //后激活的 profile 覆盖先激活的，都覆盖POM本身的声明
+        for (int i = activeProfiles.size() - 1; i >= 0; i--) {
+            managed.addAll(activeProfiles.get(i).getManagedDependencies());
+        }
+        managed.addAll(pom.getManagedDependencies());
+        if (parent != null)
+            managed.addAll(parent.declaredManagedDependencies);
+        this.declaredManagedDependencies = Collections.unmodifiableList(managed);
+    }
+
+    static EffectiveModel of(POM pom, ActivationContext context) {
+        Set<POM> building = BUILDING.get();
+        building.add(pom);
+        try {
+            //与 getProperties() 的继承链一致，继承成环时在环上截断，避免等待自己的缓存
+            POM parentPom = pom.hasParent() ? pom.getParent() : null;
+            EffectiveModel parent = parentPom == null || building.contains(parentPom) ? null
+                    : parentPom.getEffectiveModel(context);
+            return new EffectiveModel(pom, context, parent);
+        } finally {
+            building.remove(pom);
+        }
+    }
+
+    /**
+     * The profiles of a POM active in the context: explicitly activated ones and those whose conditions match,
+     * or the {@code activeByDefault} ones when there are none. Explicitly deactivated profiles never are.
+     */
+    static List<Profile> activate(POM pom, ActivationContext context) {
+        List<Profile> active = new ArrayList<>();
+        for (Profile profile : pom.getProfiles()) {
+            if (context.isInactive(profile.getId()))
+                continue;
+            if (context.isActive(profile.getId()) || profile.getActivation().matches(context, pom))
+                active.add(profile);
+        }
+        if (active.isEmpty()) {
+            for (Profile profile : pom.getProfiles()) {
+                if (profile.getActivation().isActiveByDefault() && !context.isInactive(profile.getId()))
+                    active.add(profile);
+            }
+        }
+        return active;
+    }
+
+    public POM getPom() {
+        return pom;
+    }
+
+    public ActivationContext getContext() {
+        return context;
+    }
+
+    /**
+     * The model of the parent under the same context, {@code null} without a parent.
+     */
+    public EffectiveModel getParent() {
+        return parent;
+    }
+
+    /**
+     * The active profiles of this POM, in declaration order. Those of the parents are in {@link #getParent()}.
+     */
+    public List<Profile> getActiveProfiles() {
+        return activeProfiles;
+    }
+
+    public List<String> getActiveProfileIds() {
+        List<String> ids = new ArrayList<>(activeProfiles.size());
+        for (Profile profile : activeProfiles) {
+            ids.add(profile.getId());
+        }
+        return ids;
+    }
+
+    public boolean isActive(String profileId) {
+        for (Profile profile : activeProfiles) {
+            if (profile.getId().equals(profileId))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Like {@link POM#getProperties()}, with the properties of active profiles along the parent chain and those
+     * of the context: its user properties override the POMs' as {@code -D} does in Maven, its system properties
+     * only fill names the POMs do not define.
+     */
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public String interpolate(String s) {
+        return PropertyInterpolator.interpolate(s, properties);
+    }
+
+    public ManagedVersions getManagedVersions() {
+        ManagedVersions managedVersions = this.managedVersions;
+        if (managedVersions == null) {
+            managedVersions = ManagedVersions.of(pom, declaredManagedDependencies, properties);
+            this.managedVersions = managedVersions;
+        }
+        return managedVersions;
+    }
+
+    /**
+     * The declared dependencies of the POM and of its active profiles. A profile dependency replaces
+     * a declared one with the same groupId, artifactId, type and classifier.
+     */
+    public List<Dependency> getRawDependencies() {
+        List<Dependency> rawDependencies = this.rawDependencies;
+        if (rawDependencies == null) {
+            rawDependencies = new ArrayList<>(pom.getRawDependencies());
+            for (Profile profile : activeProfiles) {
+                for (Dependency dependency : profile.getDependencies()) {
+                    int index = indexOf(rawDependencies, ManagedVersions.key(dependency));
+                    if (index >= 0)
+                        rawDependencies.set(index, dependency);
+                    else
+                        rawDependencies.add(dependency);
+                }
+            }
+            rawDependencies = Collections.unmodifiableList(rawDependencies);
+            this.rawDependencies = rawDependencies;
+        }
+        return rawDependencies;
+    }
+
+    private static int indexOf(List<Dependency> dependencies, String key) {
+        for (int i = 0; i < dependencies.size(); i++) {
+            if (ManagedVersions.key(dependencies.get(i)).equals(key))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Like {@link POM#getDependencies()}: the {@link #getRawDependencies() raw dependencies} completed from the
+     * effective managed versions and interpolated against the effective properties.
+     */
+    public List<Dependency> getDependencies() {
+        List<Dependency> dependencies = this.dependencies;
+        if (dependencies == null) {
+            dependencies = Collections.unmodifiableList(
+                    POM.resolveDependencies(getRawDependencies(), this::getManagedVersions, this::getProperties));
+            this.dependencies = dependencies;
+        }
+        return dependencies;
+    }
+
+    /**
+     * The modules of the POM followed by those only active profiles declare.
+     */
+    public List<String> getModules() {
+        if (activeProfiles.isEmpty())
+            return Collections.unmodifiableList(pom.getModules());
+        List<String> modules = new ArrayList<>(pom.getModules());
+        for (Profile profile : activeProfiles) {
+            for (String module : profile.getModules()) {
+                if (!modules.contains(module))
+                    modules.add(module);
+            }
+        }
+        return Collections.unmodifiableList(modules);
+    }
+
+    public List<String> getRepositoryUrls() {
+        if (activeProfiles.isEmpty())
+            return Collections.unmodifiableList(pom.getRepositoryUrls());
+        List<String> urls = new ArrayList<>(pom.getRepositoryUrls());
+        for (Profile profile : activeProfiles) {
+            for (String url : profile.getRepositoryUrls()) {
+                if (!urls.contains(url))
+                    urls.add(url);
+            }
+        }
+        return Collections.unmodifiableList(urls);
+    }
+
+    /**
+     * The plugins of the project's build and of the active profiles' builds.
+     */
+    public List<Plugin> getPlugins() {
+        return activePlugins(pom.getPlugins());
+    }
+
+    public List<Plugin> getManagedPlugins() {
+        return activePlugins(pom.getManagedPlugins());
+    }
+
+    private List<Plugin> activePlugins(List<Plugin> plugins) {
+        List<Plugin> active = new ArrayList<>(plugins.size());
+        for (Plugin plugin : plugins) {
+            if (!plugin.isInProfile() || isActive(plugin.getProfile()))
+                active.add(plugin);
+        }
+        return Collections.unmodifiableList(active);
+    }
+
+    @Override
+    public String toString() {
+        return "EffectiveModel{" + pom + ", activeProfiles=" + getActiveProfileIds() + '}';
+    }
+}
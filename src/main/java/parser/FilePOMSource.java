@@ -0,0 +1,39 @@
+package parser;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * {@link POMSource#FILES}: reads pom.xml files from the file system.
+ * @author i-Taozi
+ */
+final class FilePOMSource implements POMSource {
+
+    static final FilePOMSource INSTANCE = new FilePOMSource();
+
+    private FilePOMSource() {
+    }
+
+    @Override
+    public boolean exists(String path) {
+        return new File(path).exists();
+    }
+
+    @Override
+    public long size(String path) {
+        return new File(path).length();
+    }
+
+    @Override
+    public InputStream open(String path) throws IOException {
+        return new BufferedInputStream(new FileInputStream(path), 16384);
+    }
+
+    @Override
+    public String toString() {
+        return "FILES";
+    }
+}
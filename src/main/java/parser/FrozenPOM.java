@@ -0,0 +1,181 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable view of a {@link POM} taken by {@link POMTree#freeze()}: effective properties, managed versions
+ * and effective dependencies are computed up front and every collection is unmodifiable, so any number of
+ * threads can read it without locks. Dependencies, managed versions and plugins are read-only copies that no
+ * {@link POM} shares: their setters throw {@link UnsupportedOperationException}, and {@code withVersion()} or
+ * {@code copy()} give mutable copies.
+ * @author i-Taozi
+ */
+@Getter
+public final class FrozenPOM {
+
+    private final String path;
+    private final String packaging;
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String parentGroupId;
+    private final String parentArtifactId;
+    private final String parentVersion;
+
+    private final Map<String, String> rawProperties;
+    private final Map<String, String> properties;
+    private final Map<String, String> testConfigurations;
+    private final List<Dependency> dependencies;
+    private final List<Dependency> managedDependencies;
+    private final ManagedVersions managedVersions;
+    private final List<String> modules;
+    private final List<String> repositoryUrls;
+    private final List<Plugin> plugins;
+    private final List<Plugin> managedPlugins;
+
+    //链接在所有节点创建后、快照发布前设置一次
+    //继承父POM，没有时为聚合POM，与 POM.getParent() 一致
+    private FrozenPOM parent;
+    //聚合子模块
+    private List<FrozenPOM> aggregatorPoms = Collections.emptyList();
+    //继承子POM
+    private List<FrozenPOM> childrenPoms = Collections.emptyList();
+
+    FrozenPOM(POM pom) {
+        this.path = pom.getPath();
+        this.packaging = pom.getPackaging();
+        this.groupId = pom.getGroupId();
+        this.artifactId = pom.getArtifactId();
+        this.version = pom.getVersion();
+        this.parentGroupId = pom.getParentGroupId();
+        this.parentArtifactId = pom.getParentArtifactId();
+        this.parentVersion = pom.getParentVersion();
+        this.rawProperties = Collections.unmodifiableMap(new LinkedHashMap<>(pom.getRawProperties()));
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(pom.effectiveProperties()));
+        this.testConfigurations = Collections.unmodifiableMap(new LinkedHashMap<>(pom.getTestConfigurations()));
+        this.dependencies = copy(pom.resolvedDependencies());
+        this.managedDependencies = copy(pom.getManagedDependencies());
+        this.managedVersions = pom.getManagedVersions().map(FrozenDependency::new);
+        this.modules = Collections.unmodifiableList(new ArrayList<>(pom.getModules()));
+        this.repositoryUrls = Collections.unmodifiableList(new ArrayList<>(pom.getRepositoryUrls()));
+        this.plugins = copyPlugins(pom.getPlugins());
+        this.managedPlugins = copyPlugins(pom.getManagedPlugins());
+    }
+
+    void link(FrozenPOM parent, List<FrozenPOM> aggregatorPoms, List<FrozenPOM> childrenPoms) {
+        this.parent = parent;
+        this.aggregatorPoms = Collections.unmodifiableList(aggregatorPoms);
+        this.childrenPoms = Collections.unmodifiableList(childrenPoms);
+    }
+
+    public boolean hasParent() {
+        return parent != null
+                && !parent.getGroupId().equals("")
+                && !parent.getArtifactId().equals("")
+                && !parent.getVersion().equals("");
+    }
+
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public String interpolate(String s) {
+        return PropertyInterpolator.interpolate(s, properties);
+    }
+
+    private static List<Dependency> copy(List<Dependency> dependencies) {
+        List<Dependency> copies = new ArrayList<>(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            copies.add(new FrozenDependency(dependency));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static List<Plugin> copyPlugins(List<Plugin> plugins) {
+        List<Plugin> copies = new ArrayList<>(plugins.size());
+        for (Plugin plugin : plugins) {
+            copies.add(new FrozenPlugin(plugin));
+        }
+        return Collections.unmodifiableList(copies);
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("FrozenPOM 中的对象是只读的，修改请使用 withVersion() 或 copy() 得到的副本");
+    }
+
+    //只读副本：setter 抛出 UnsupportedOperationException，列表不可修改；withVersion() 等返回普通的可变副本
+    private static final class FrozenDependency extends Dependency {
+        FrozenDependency(Dependency dependency) {
+            super(dependency.getGroupID(), dependency.getArtifactID(), dependency.getVersion());
+            super.setScope(dependency.getScope());
+            super.setType(dependency.getType());
+            super.setClassifier(dependency.getClassifier());
+            super.setOptional(dependency.isOptional());
+            super.setExclusions(Collections.unmodifiableList(new ArrayList<>(dependency.getExclusions())));
+        }
+
+        @Override public void setGroupID(String groupID) { throw readOnly(); }
+        @Override public void setArtifactID(String artifactID) { throw readOnly(); }
+        @Override public void setVersion(String version) { throw readOnly(); }
+        @Override public void setScope(String scope) { throw readOnly(); }
+        @Override public void setType(String type) { throw readOnly(); }
+        @Override public void setClassifier(String classifier) { throw readOnly(); }
+        @Override public void setOptional(boolean optional) { throw readOnly(); }
+        @Override public void setExclusions(List<String> exclusions) { throw readOnly(); }
+        @Override public void addExclusion(String groupId, String artifactId) { throw readOnly(); }
+    }
+
+    //配置本身不可变，可与 POM 共享
+    private static final class FrozenPlugin extends Plugin {
+        FrozenPlugin(Plugin plugin) {
+            super.setGroupId(plugin.getGroupId());
+            super.setArtifactId(plugin.getArtifactId());
+            super.setVersion(plugin.getVersion());
+            super.setProfile(plugin.getProfile());
+            super.setConfiguration(plugin.getConfiguration());
+            List<PluginExecution> executions = new ArrayList<>(plugin.getExecutions().size());
+            for (PluginExecution execution : plugin.getExecutions()) {
+                executions.add(new FrozenExecution(execution));
+            }
+            super.setExecutions(Collections.unmodifiableList(executions));
+        }
+
+        @Override public void setGroupId(String groupId) { throw readOnly(); }
+        @Override public void setArtifactId(String artifactId) { throw readOnly(); }
+        @Override public void setVersion(String version) { throw readOnly(); }
+        @Override public void setProfile(String profile) { throw readOnly(); }
+        @Override public void setConfiguration(PluginConfiguration configuration) { throw readOnly(); }
+        @Override public void setExecutions(List<PluginExecution> executions) { throw readOnly(); }
+        @Override public void addExecution(PluginExecution execution) { throw readOnly(); }
+    }
+
+    private static final class FrozenExecution extends PluginExecution {
+        FrozenExecution(PluginExecution execution) {
+            super.setId(execution.getId());
+            super.setPhase(execution.getPhase());
+            super.setGoals(Collections.unmodifiableList(new ArrayList<>(execution.getGoals())));
+            super.setConfiguration(execution.getConfiguration());
+        }
+
+        @Override public void setId(String id) { throw readOnly(); }
+        @Override public void setPhase(String phase) { throw readOnly(); }
+        @Override public void setGoals(List<String> goals) { throw readOnly(); }
+        @Override public void setConfiguration(PluginConfiguration configuration) { throw readOnly(); }
+        @Override public void addGoal(String goal) { throw readOnly(); }
+    }
+
+    @Override
+    public String toString() {
+        return "FrozenPOM{" +
+                "groupId='" + groupId + '\'' +
+                ", artifactId='" + artifactId + '\'' +
+                ", version='" + version + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,132 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * An immutable snapshot of a built {@link POMTree}, created by {@link POMTree#freeze()}.
+ * All state is computed before the snapshot is published, so it can be shared across threads and read without locks.
+ * Parents outside the reactor are frozen as well and reachable through {@link FrozenPOM#getParent()}.
+ * @author i-Taozi
+ */
+public final class FrozenPOMTree {
+
+    private final FrozenPOM rootPom;
+    private final List<FrozenPOM> pomList;
+    private final Map<String, List<FrozenPOM>> pomIndex;
+    private final Map<String, FrozenPOM> pathIndex;
+
+    private FrozenPOMTree(FrozenPOM rootPom, List<FrozenPOM> pomList) {
+        this.rootPom = rootPom;
+        this.pomList = Collections.unmodifiableList(pomList);
+        Map<String, List<FrozenPOM>> pomIndex = new HashMap<>(pomList.size() * 2);
+        Map<String, FrozenPOM> pathIndex = new HashMap<>(pomList.size() * 2);
+        for (FrozenPOM pom : pomList) {
+            pomIndex.computeIfAbsent(POMTree.indexKey(pom.getGroupId(), pom.getArtifactId()), k -> new ArrayList<>(1)).add(pom);
+            pathIndex.put(POMTree.pathKey(pom.getPath()), pom);
+        }
+        for (Map.Entry<String, List<FrozenPOM>> item : pomIndex.entrySet()) {
+            item.setValue(Collections.unmodifiableList(item.getValue()));
+        }
+        this.pomIndex = Collections.unmodifiableMap(pomIndex);
+        this.pathIndex = Collections.unmodifiableMap(pathIndex);
+    }
+
+    /**
+     * Freeze the POMs of a tree in pomList order, with their links and external parents.
+     */
+    static FrozenPOMTree of(POM rootPom, List<POM> pomList) {
+        Map<POM, FrozenPOM> frozen = new IdentityHashMap<>(pomList.size() * 2);
+        List<FrozenPOM> list = new ArrayList<>(pomList.size());
+        for (POM pom : pomList) {
+            FrozenPOM f = new FrozenPOM(pom);
+            frozen.put(pom, f);
+            list.add(f);
+        }
+        //反应堆之外的父POM也冻结，使 getParent() 链完整
+        for (POM pom : pomList) {
+            for (POM p = pom.getParent(); p != null && !frozen.containsKey(p); p = p.getParent()) {
+                frozen.put(p, new FrozenPOM(p));
+            }
+        }
+        for (Map.Entry<POM, FrozenPOM> item : frozen.entrySet()) {
+            POM pom = item.getKey();
+            item.getValue().link(frozen.get(pom.getParent()), map(pom.getAggregatorPoms(), frozen),
+                    map(pom.getChildrenPoms(), frozen));
+        }
+        return new FrozenPOMTree(frozen.get(rootPom), list);
+    }
+
+    private static List<FrozenPOM> map(List<POM> poms, Map<POM, FrozenPOM> frozen) {
+        List<FrozenPOM> list = new ArrayList<>(poms.size());
+        for (POM pom : poms) {
+            FrozenPOM f = frozen.get(pom);
+            if (f != null)
+                list.add(f);
+        }
+        return list;
+    }
+
+    public FrozenPOM getRootPom() {
+        return rootPom;
+    }
+
+    public List<FrozenPOM> getPomList() {
+        return pomList;
+    }
+
+    public FrozenPOM findPom(String groupId, String artifactId) {
+        return findPom(groupId, artifactId, null);
+    }
+
+    /**
+     * Find a POM by coordinates, preferring the one with the given version.
+     */
+    public FrozenPOM findPom(String groupId, String artifactId, String version) {
+        List<FrozenPOM> poms = pomIndex.get(POMTree.indexKey(groupId, artifactId));
+        if (poms == null || poms.isEmpty())
+            return null;
+        if (version != null) {
+            for (FrozenPOM pom : poms) {
+                if (version.equals(pom.getVersion()))
+                    return pom;
+            }
+        }
+        return poms.get(0);
+    }
+
+    public FrozenPOM findByPath(String path) {
+        return pathIndex.get(POMTree.pathKey(path));
+    }
+
+    public Stream<Dependency> dependencies() {
+        return pomList.stream().flatMap(pom -> pom.getDependencies().stream());
+    }
+
+    public Stream<Dependency> dependencies(DependencyFilter filter) {
+        return dependencies().filter(filter);
+    }
+
+    public Map<String, List<Dependency>> getDependenciesMap() {
+        Map<String, List<Dependency>> map = new LinkedHashMap<>();
+        for (FrozenPOM pom : pomList) {
+            map.put(pom.getPath(), pom.getDependencies());
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    public List<String> getRepositoryUrls() {
+        LinkedHashSet<String> urls = new LinkedHashSet<>();
+        for (FrozenPOM pom : pomList) {
+            urls.addAll(pom.getRepositoryUrls());
+        }
+        return Collections.unmodifiableList(new ArrayList<>(urls));
+    }
+}
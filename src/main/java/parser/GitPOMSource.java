@@ -0,0 +1,106 @@
+package parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The pom.xml files of one commit of a {@link GitRepository}. Paths under {@link GitRepository#getDir()} map to
+ * the same paths in the commit's tree, so a {@link POMTree} built on the repository directory reads the commit.
+ * The content id is the blob id: a POM that did not change between commits is parsed once.
+ * @author i-Taozi
+ */
+public final class GitPOMSource implements POMSource {
+
+    private static final String POM_FILE = "pom.xml";
+    private static final GitRepository.ObjectInfo MISSING = new GitRepository.ObjectInfo("", "missing", 0);
+
+    private final GitRepository repository;
+    private final String commit;
+    private final Path root;
+    //提交中所有 pom.xml 的 blob，首次访问时一次 ls-tree 取得，避免每个文件一次往返
+    private volatile Map<String, GitRepository.ObjectInfo> poms;
+    //其他路径 -> blob，每个路径只查询一次
+    private final Map<String, GitRepository.ObjectInfo> blobs = new ConcurrentHashMap<>();
+
+    GitPOMSource(GitRepository repository, String commit) {
+        this.repository = repository;
+        this.commit = commit;
+        this.root = repository.getDir();
+    }
+
+    public GitRepository getRepository() {
+        return repository;
+    }
+
+    public String getCommit() {
+        return commit;
+    }
+
+    @Override
+    public boolean exists(String path) throws IOException {
+        return blob(path) != MISSING;
+    }
+
+    @Override
+    public long size(String path) throws IOException {
+        return blob(path).getSize();
+    }
+
+    @Override
+    public InputStream open(String path) throws IOException {
+        GitRepository.ObjectInfo blob = blob(path);
+        byte[] content = blob == MISSING ? null : repository.read(blob.getId());
+        if (content == null)
+            throw new FileNotFoundException(path + " (" + commit + ")");
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public String contentId(String path) throws IOException {
+        GitRepository.ObjectInfo blob = blob(path);
+        return blob == MISSING ? null : blob.getId();
+    }
+
+    private GitRepository.ObjectInfo blob(String path) throws IOException {
+        String name = treePath(path);
+        if (name == null)
+            return MISSING;
+        if (name.equals(POM_FILE) || name.endsWith("/" + POM_FILE)) {
+            Map<String, GitRepository.ObjectInfo> poms = this.poms;
+            if (poms == null) {
+                poms = repository.listBlobs(commit, POM_FILE);
+                this.poms = poms;
+            }
+            GitRepository.ObjectInfo blob = poms.get(name);
+            return blob == null ? MISSING : blob;
+        }
+        GitRepository.ObjectInfo blob = blobs.get(name);
+        if (blob == null) {
+            blob = repository.stat(commit + ":" + name);
+            if (blob == null || !blob.getType().equals("blob"))
+                blob = MISSING;
+            blobs.putIfAbsent(name, blob);
+        }
+        return blob;
+    }
+
+    //仓库目录之外的路径不属于该提交
+    private String treePath(String path) {
+        Path file = Paths.get(path).toAbsolutePath().normalize();
+        if (!file.startsWith(root) || file.equals(root))
+            return null;
+        return root.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public String toString() {
+        return "GitPOMSource{" + root + "@" + commit + '}';
+    }
+}
@@ -0,0 +1,269 @@
+package parser;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local git repository read through long-running {@code git cat-file} batch processes, so the pom.xml files of
+ * any commit can be parsed without a checkout. One instance serves any number of commits; see {@link #at(String)}.
+ * Requests to the batch processes are serialized, the instance is thread-safe.
+ * @author i-Taozi
+ */
+public class GitRepository implements Closeable {
+
+    private final Path dir;
+    private final String git;
+
+    //--batch-check 只返回对象信息，--batch 同时返回内容
+    private BatchProcess check;
+    private BatchProcess batch;
+
+    /**
+     * @param dir A working tree or a bare repository.
+     */
+    public GitRepository(Path dir) {
+        this(dir, "git");
+    }
+
+    /**
+     * @param git The git executable.
+     */
+    public GitRepository(Path dir, String git) {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.git = git;
+    }
+
+    /**
+     * The repository directory, which is also the root of the paths of {@link GitPOMSource}.
+     */
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * The pom.xml files as of a commit, branch or tag.
+     * @throws IOException When the revision does not name a commit.
+     */
+    public GitPOMSource at(String revision) throws IOException {
+        return new GitPOMSource(this, resolve(revision));
+    }
+
+    /**
+     * Build the tree of a revision, equivalent to checking it out and parsing the working tree.
+     * Reuse one parser across revisions so unchanged POMs are not parsed again.
+     */
+    public POMTree createPomTree(String revision, POMParser pomParser) throws Exception {
+        POMTree tree = new POMTree(this.dir.toString(), pomParser, at(revision));
+        tree.createPomTree();
+        return tree;
+    }
+
+    /**
+     * The full id of the commit a revision points to.
+     */
+    public String resolve(String revision) throws IOException {
+        ObjectInfo info = stat(revision + "^{commit}");
+        if (info == null)
+            throw new IOException("不是有效的提交: " + revision);
+        return info.getId();
+    }
+
+    /**
+     * Commit ids reachable from the revision, newest first, as listed by {@code git rev-list}.
+     */
+    public List<String> revList(String revision) throws IOException {
+        Process process = new ProcessBuilder(git, "-C", dir.toString(), "rev-list", revision)
+                .redirectErrorStream(true).start();
+        List<String> commits = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                commits.add(line.trim());
+            }
+        }
+        try {
+            if (process.waitFor() != 0)
+                throw new IOException("git rev-list " + revision + " 失败: " + commits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return commits;
+    }
+
+    /**
+     * Every blob of a commit named {@code fileName}, keyed by its path in the tree, from one {@code git ls-tree}.
+     */
+    Map<String, ObjectInfo> listBlobs(String commit, String fileName) throws IOException {
+        Process process = new ProcessBuilder(git, "-C", dir.toString(), "ls-tree", "-r", "-l", "-z", commit)
+                .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        Map<String, ObjectInfo> blobs = new HashMap<>();
+        String suffix = "/" + fileName;
+        try (InputStream in = new BufferedInputStream(process.getInputStream(), 65536)) {
+            ByteArrayOutputStream entry = new ByteArrayOutputStream(128);
+            int b;
+            while ((b = in.read()) >= 0) {
+                if (b != 0) {
+                    entry.write(b);
+                    continue;
+                }
+                //"<mode> <type> <id> <size>\t<path>"，size 前有补齐空格
+                String line = new String(entry.toByteArray(), StandardCharsets.UTF_8);
+                entry.reset();
+                int tab = line.indexOf('\t');
+                String path = line.substring(tab + 1);
+                if (!path.equals(fileName) && !path.endsWith(suffix))
+                    continue;
+                String[] fields = line.substring(0, tab).trim().split(" +");
+                if (fields.length == 4 && fields[1].equals("blob"))
+                    blobs.put(path, new ObjectInfo(fields[2], fields[1], Long.parseLong(fields[3])));
+            }
+        }
+        try {
+            if (process.waitFor() != 0)
+                throw new IOException("git ls-tree " + commit + " 失败");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return blobs;
+    }
+
+    /**
+     * Look up an object by any name git understands, e.g. {@code <commit>:<path>}.
+     * @return The object, or {@code null} when it does not exist.
+     */
+    synchronized ObjectInfo stat(String name) throws IOException {
+        if (check == null)
+            check = new BatchProcess("--batch-check");
+        return check.request(name, false).info;
+    }
+
+    /**
+     * The content of an object, {@code null} when it does not exist.
+     */
+    synchronized byte[] read(String name) throws IOException {
+        if (batch == null)
+            batch = new BatchProcess("--batch");
+        return batch.request(name, true).content;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (check != null)
+            check.close();
+        if (batch != null)
+            batch.close();
+        check = null;
+        batch = null;
+    }
+
+    /**
+     * Id, type and size of an object.
+     */
+    static final class ObjectInfo {
+        private final String id;
+        private final String type;
+        private final long size;
+
+        ObjectInfo(String id, String type, long size) {
+            this.id = id;
+            this.type = type;
+            this.size = size;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getType() {
+            return type;
+        }
+
+        long getSize() {
+            return size;
+        }
+    }
+
+    private static final class Response {
+        private final ObjectInfo info;
+        private final byte[] content;
+
+        Response(ObjectInfo info, byte[] content) {
+            this.info = info;
+            this.content = content;
+        }
+    }
+
+    //每行一个对象名，输出 "<id> <type> <size>" 或 "<name> missing"，--batch 之后是内容和一个换行
+    private final class BatchProcess {
+        private final Process process;
+        private final OutputStream in;
+        private final InputStream out;
+
+        BatchProcess(String mode) throws IOException {
+            this.process = new ProcessBuilder(git, "-C", dir.toString(), "cat-file", mode)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            this.in = process.getOutputStream();
+            this.out = new BufferedInputStream(process.getInputStream(), 65536);
+        }
+
+        Response request(String name, boolean withContent) throws IOException {
+            if (name.indexOf('\n') >= 0)
+                return new Response(null, null);
+            in.write((name + "\n").getBytes(StandardCharsets.UTF_8));
+            in.flush();
+            String header = readLine();
+            String[] fields = header.split(" ");
+            if (fields.length != 3 || header.endsWith(" missing") || header.endsWith(" ambiguous"))
+                return new Response(null, null);
+            ObjectInfo info = new ObjectInfo(fields[0], fields[1], Long.parseLong(fields[2]));
+            if (!withContent)
+                return new Response(info, null);
+            byte[] content = new byte[Math.toIntExact(info.getSize())];
+            int read = 0;
+            while (read < content.length) {
+                int n = out.read(content, read, content.length - read);
+                if (n < 0)
+                    throw new EOFException("git cat-file 输出不完整");
+                read += n;
+            }
+            //内容之后的换行
+            out.read();
+            return new Response(info, content);
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+            int b;
+            while ((b = out.read()) != '\n') {
+                if (b < 0)
+                    throw new EOFException("git cat-file 已退出");
+                line.write(b);
+            }
+            return new String(line.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                //进程可能已退出
+            }
+            process.destroy();
+        }
+    }
+}
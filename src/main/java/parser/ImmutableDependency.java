@@ -0,0 +1,126 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable, interned counterpart of {@link Dependency}. Unlike {@code Dependency}, whose equality is by
+ * groupId:artifactId only, two instances are equal when every field is, and the hash is computed once,
+ * which makes them cheap to dedupe in sets and to use as map keys.
+ * @author i-Taozi
+ */
+public final class ImmutableDependency {
+
+    private static final Interner<ImmutableDependency> INTERNER = new Interner<>();
+
+    private final Coordinate coordinate;
+    private final String scope;
+    private final String type;
+    private final String classifier;
+    private final boolean optional;
+    private final List<String> exclusions;
+    private final int hash;
+
+    private ImmutableDependency(Coordinate coordinate, String scope, String type, String classifier, boolean optional,
+                                List<String> exclusions) {
+        this.coordinate = coordinate;
+        this.scope = scope;
+        this.type = type;
+        this.classifier = classifier;
+        this.optional = optional;
+        this.exclusions = exclusions;
+        int h = coordinate.hashCode();
+        h = h * 31 + scope.hashCode();
+        h = h * 31 + type.hashCode();
+        h = h * 31 + classifier.hashCode();
+        h = h * 31 + (optional ? 1 : 0);
+        this.hash = h * 31 + exclusions.hashCode();
+    }
+
+    /**
+     * The canonical instance for the current state of a dependency.
+     */
+    public static ImmutableDependency of(Dependency dependency) {
+        List<String> exclusions = dependency.getExclusions().isEmpty() ? Collections.<String>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(dependency.getExclusions()));
+        return INTERNER.intern(new ImmutableDependency(Coordinate.of(dependency),
+                Coordinate.nullToEmpty(dependency.getScope()), Coordinate.nullToEmpty(dependency.getType()),
+                Coordinate.nullToEmpty(dependency.getClassifier()), dependency.isOptional(), exclusions));
+    }
+
+    public static Interner<ImmutableDependency> getInterner() {
+        return INTERNER;
+    }
+
+    public Coordinate getCoordinate() {
+        return coordinate;
+    }
+
+    public String getGroupId() {
+        return coordinate.getGroupId();
+    }
+
+    public String getArtifactId() {
+        return coordinate.getArtifactId();
+    }
+
+    public String getVersion() {
+        return coordinate.getVersion();
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getClassifier() {
+        return classifier;
+    }
+
+    public boolean isOptional() {
+        return optional;
+    }
+
+    public List<String> getExclusions() {
+        return exclusions;
+    }
+
+    /**
+     * A mutable copy.
+     */
+    public Dependency toDependency() {
+        Dependency dependency = new Dependency(getGroupId(), getArtifactId(), getVersion());
+        dependency.setScope(scope);
+        dependency.setType(type);
+        dependency.setClassifier(classifier);
+        dependency.setOptional(optional);
+        dependency.setExclusions(new ArrayList<>(exclusions));
+        return dependency;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ImmutableDependency))
+            return false;
+        ImmutableDependency that = (ImmutableDependency) o;
+        return hash == that.hash && coordinate.equals(that.coordinate) && scope.equals(that.scope)
+                && type.equals(that.type) && classifier.equals(that.classifier) && optional == that.optional
+                && exclusions.equals(that.exclusions);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return coordinate + (scope.isEmpty() ? "" : ":" + scope);
+    }
+}
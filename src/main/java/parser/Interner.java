@@ -0,0 +1,45 @@
+package parser;
+
+import java.lang.ref.WeakReference;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of immutable values: equal values interned through the same interner are the same object.
+ * Like {@link StringPool} for strings. Thread-safe; values are held weakly and leave the interner once nothing
+ * else references them, so the process-wide interners behind {@link Coordinate#of} and
+ * {@link ImmutableDependency#of} do not grow with every corpus scanned.
+ * @author i-Taozi
+ */
+public class Interner<T> {
+
+    //与 StringPool 相同：键与值是同一个对象，值用弱引用，否则条目永远不会被回收
+    private final WeakHashMap<T, WeakReference<T>> pool = new WeakHashMap<>();
+
+    public T intern(T value) {
+        if (value == null)
+            return null;
+        synchronized (pool) {
+            WeakReference<T> ref = pool.get(value);
+            T canonical = ref == null ? null : ref.get();
+            if (canonical != null)
+                return canonical;
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    /**
+     * Number of interned values, including ones that are no longer referenced but not yet collected.
+     */
+    public int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (pool) {
+            pool.clear();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package parser;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A local Maven repository laid out as {@code groupId/as/path/artifactId/version/artifactId-version.pom},
+ * used to resolve POMs that are not part of a reactor, such as external parents and imported BOMs.
+ * <p>
+ * Resolved POMs live in one process-wide {@link BoundedCache} keyed by file path, so a parent shared by many
+ * repositories is parsed once. Cached POMs are shared between trees and must be treated as read-only.
+ * @author i-Taozi
+ */
+public class LocalRepository implements POMResolver {
+
+    private static final BoundedCache<String, POM> POM_CACHE = new BoundedCache<>(4096);
+
+    //链接父POM时持有，缓存的POM由多个线程共享
+    private static final Object LINK_LOCK = new Object();
+
+    private final File root;
+    private final POMParser pomParser;
+
+    public LocalRepository() {
+        this(defaultLocation());
+    }
+
+    public LocalRepository(String root) {
+        this.root = new File(root).getAbsoluteFile();
+        this.pomParser = new POMParser(POMParser.Mode.STAX);
+    }
+
+    /**
+     * {@code ~/.m2/repository}.
+     */
+    public static String defaultLocation() {
+        return Paths.get(System.getProperty("user.home"), ".m2", "repository").toString();
+    }
+
+    /**
+     * The process-wide cache of resolved POMs, for statistics or to release memory.
+     */
+    public static BoundedCache<String, POM> getPomCache() {
+        return POM_CACHE;
+    }
+
+    public String getRoot() {
+        return root.getPath();
+    }
+
+    public String pomPath(String groupId, String artifactId, String version) {
+        return Paths.get(root.getPath(), groupId.replace('.', File.separatorChar), artifactId, version,
+                artifactId + "-" + version + ".pom").toString();
+    }
+
+    /**
+     * The versions of an artifact present in this repository, oldest first.
+     */
+    public List<Version> getVersions(String groupId, String artifactId) {
+        File dir = Paths.get(root.getPath(), groupId.replace('.', File.separatorChar), artifactId).toFile();
+        String[] names = dir.list();
+        List<Version> versions = new ArrayList<>();
+        if (names == null)
+            return versions;
+        for (String name : names) {
+            if (new File(pomPath(groupId, artifactId, name)).isFile())
+                versions.add(Version.parse(name));
+        }
+        Collections.sort(versions);
+        return versions;
+    }
+
+    /**
+     * The newest version in this repository that a version specification allows; a plain version is returned as is.
+     * @return {@code null} when no version of the range is present or the specification is malformed.
+     */
+    public String resolveVersion(String groupId, String artifactId, String spec) {
+        if (!VersionRange.isRange(spec))
+            return spec;
+        try {
+            Version version = VersionRange.parse(spec).match(getVersions(groupId, artifactId));
+            return version == null ? null : version.getValue();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Resolve a POM and, recursively, its parents from this repository.
+     * @return The shared POM instance, or {@code null} when it is not in the repository or cannot be parsed.
+     */
+    @Override
+    public POM resolve(String groupId, String artifactId, String version) {
+        String path = existingPomPath(groupId, artifactId, version);
+        if (path == null)
+            return null;
+        //缓存只负责解析单个文件，加载时不会等待其他线程的加载；父POM链在缓存之外收集，成环时在此截断
+        List<POM> chain = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        while (path != null && seen.add(path)) {
+            POM pom = POM_CACHE.get(path, this::load);
+            if (pom == null)
+                break;
+            chain.add(pom);
+            //已链接的POM，其上的父POM链也已链接
+            if (pom.getParent() != null)
+                break;
+            path = existingPomPath(pom.getParentGroupId(), pom.getParentArtifactId(), pom.getParentVersion());
+        }
+        if (chain.isEmpty())
+            return null;
+        link(chain);
+        return chain.get(0);
+    }
+
+    //只链接还没有父POM的POM；继承声明成环时，跳过会使环闭合的那一条链接
+    private static void link(List<POM> chain) {
+        synchronized (LINK_LOCK) {
+            for (int i = 0; i < chain.size() - 1; i++) {
+                POM pom = chain.get(i);
+                POM parent = chain.get(i + 1);
+                if (pom.getParent() == null && !isAncestor(pom, parent))
+                    pom.setParent(parent);
+            }
+        }
+    }
+
+    private static boolean isAncestor(POM pom, POM of) {
+        for (POM current = of; current != null; current = current.getParent()) {
+            if (current == pom)
+                return true;
+        }
+        return false;
+    }
+
+    //可以从本仓库解析时返回路径，否则为 null
+    private String existingPomPath(String groupId, String artifactId, String version) {
+        if (isEmpty(groupId) || isEmpty(artifactId) || isEmpty(version) || version.contains("${"))
+            return null;
+        String path = pomPath(groupId, artifactId, version);
+        return new File(path).isFile() ? path : null;
+    }
+
+    private POM load(String path) {
+        try {
+            POM pom = this.pomParser.parse(path);
+            pom.setPomResolver(this);
+            return pom;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean isEmpty(String s) {
+        return s == null || s.equals("");
+    }
+}
@@ -0,0 +1,155 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * The effective dependencyManagement of a POM as a lookup table keyed by groupId:artifactId:type:classifier.
+ * <p>
+ * Entries declared along the parent chain come first (the child wins), imported BOMs only fill in
+ * keys that are still missing, in declaration order. A BOM's table is the one cached on the BOM's own
+ * {@link POM}, so a BOM shared through the reactor or the {@link LocalRepository} cache is flattened once.
+ * @author i-Taozi
+ */
+public final class ManagedVersions {
+
+    //正在计算的POM，防止 BOM 互相导入时无限递归
+    private static final ThreadLocal<Set<POM>> BUILDING =
+            ThreadLocal.withInitial(() -> Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    private final Map<String, Dependency> entries;
+    //找不到的 BOM，版本已插值
+    private final List<Dependency> unresolvedImports;
+
+    private ManagedVersions(Map<String, Dependency> entries, List<Dependency> unresolvedImports) {
+        this.entries = Collections.unmodifiableMap(entries);
+        this.unresolvedImports = Collections.unmodifiableList(unresolvedImports);
+    }
+
+    /**
+     * The managed entry for a dependency, matched on groupId, artifactId, type and classifier.
+     */
+    public Dependency get(Dependency dependency) {
+        return entries.get(key(dependency));
+    }
+
+    /**
+     * The managed entry for a jar without classifier.
+     */
+    public Dependency get(String groupId, String artifactId) {
+        return entries.get(key(groupId, artifactId, "", ""));
+    }
+
+    public String getVersion(String groupId, String artifactId) {
+        Dependency managed = get(groupId, artifactId);
+        return managed == null ? null : managed.getVersion();
+    }
+
+    public Collection<Dependency> getEntries() {
+        return entries.values();
+    }
+
+    public List<Dependency> getUnresolvedImports() {
+        return unresolvedImports;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //条目逐个转换后的副本，FrozenPOM 用它得到只读的条目
+    ManagedVersions map(UnaryOperator<Dependency> copy) {
+        LinkedHashMap<String, Dependency> mapped = new LinkedHashMap<>(entries.size() * 2);
+        for (Map.Entry<String, Dependency> item : entries.entrySet()) {
+            mapped.put(item.getKey(), copy.apply(item.getValue()));
+        }
+        List<Dependency> imports = new ArrayList<>(unresolvedImports.size());
+        for (Dependency bom : unresolvedImports) {
+            imports.add(copy.apply(bom));
+        }
+        return new ManagedVersions(mapped, imports);
+    }
+
+    static String key(Dependency dependency) {
+        return key(dependency.getGroupID(), dependency.getArtifactID(), dependency.getType(), dependency.getClassifier());
+    }
+
+    static String key(String groupId, String artifactId, String type, String classifier) {
+        if (type == null || type.equals(""))
+            type = "jar";
+        if (classifier == null || classifier.equals(""))
+            return groupId + ":" + artifactId + ":" + type;
+        return groupId + ":" + artifactId + ":" + type + ":" + classifier;
+    }
+
+    static ManagedVersions of(POM pom) {
+        List<Dependency> declared = new ArrayList<>();
+        for (POM current : PropertyInterpolator.parentChain(pom)) {
+            declared.addAll(current.getManagedDependencies());
+        }
+        return of(pom, declared, pom.effectiveProperties());
+    }
+
+    /**
+     * The table of a POM from its declared entries, nearest declaration first, e.g. with those of active profiles.
+     */
+    static ManagedVersions of(POM pom, List<Dependency> declared, Map<String, String> properties) {
+        Set<POM> building = BUILDING.get();
+        if (!building.add(pom))
+            return new ManagedVersions(new LinkedHashMap<>(), new ArrayList<>());
+        try {
+            LinkedHashMap<String, Dependency> entries = new LinkedHashMap<>();
+            List<Dependency> imports = new ArrayList<>();
+            //子POM在前，putIfAbsent 使子POM的声明覆盖父POM
+            for (Dependency item : declared) {
+                Dependency dependency = interpolate(item, properties);
+                if (isImport(dependency))
+                    imports.add(dependency);
+                else
+                    entries.putIfAbsent(key(dependency), dependency);
+            }
+
+            List<Dependency> unresolved = new ArrayList<>();
+            POMResolver resolver = pom.getPomResolver();
+            for (Dependency bom : imports) {
+                POM bomPom = resolver == null ? null
+                        : resolver.resolve(bom.getGroupID(), bom.getArtifactID(), bom.getVersion());
+                if (bomPom == null || building.contains(bomPom)) {
+                    unresolved.add(bom);
+                    continue;
+                }
+                for (Map.Entry<String, Dependency> item : bomPom.getManagedVersions().entries.entrySet()) {
+                    entries.putIfAbsent(item.getKey(), item.getValue());
+                }
+            }
+            return new ManagedVersions(entries, unresolved);
+        } finally {
+            building.remove(pom);
+        }
+    }
+
+    static boolean isImport(Dependency dependency) {
+        return dependency.getScope().equals("import") && dependency.getType().equals("pom");
+    }
+
+    //继承来的条目按当前POM的有效属性插值，与 Maven 先继承后插值的顺序一致
+    private static Dependency interpolate(Dependency dependency, Map<String, String> properties) {
+        String groupId = PropertyInterpolator.interpolate(dependency.getGroupID(), properties);
+        String artifactId = PropertyInterpolator.interpolate(dependency.getArtifactID(), properties);
+        String version = PropertyInterpolator.interpolate(dependency.getVersion(), properties);
+        if (groupId.equals(dependency.getGroupID()) && artifactId.equals(dependency.getArtifactID())
+                && version.equals(dependency.getVersion()))
+            return dependency;
+        Dependency copy = dependency.withVersion(version);
+        copy.setGroupID(groupId);
+        copy.setArtifactID(artifactId);
+        return copy;
+    }
+}
@@ -0,0 +1,63 @@
+package parser;
+
+/**
+ * Receives timings and counts from {@link POMParser} and {@link POMTree}.
+ * All methods have empty defaults, and with {@link #NONE} the parser and tree do not even read the clock.
+ * Implementations must be thread-safe, a parser may be used by several threads.
+ * @author i-Taozi
+ * @see MetricsRecorder
+ */
+public interface MetricsListener {
+
+    MetricsListener NONE = new MetricsListener() {
+    };
+
+    enum Phase {
+        /** DOM: reading the file and building the document. */
+        DOCUMENT,
+        /** DOM: serializing the document into {@code raw}, only when raw content is retained. */
+        SERIALIZE,
+        /** DOM: packaging, coordinates, parent, properties and modules. */
+        ATTRIBUTES,
+        /** DOM: dependencies and dependencyManagement. */
+        DEPENDENCIES,
+        /** DOM: build plugins, including the surefire test configurations. */
+        TEST_CONFIGURATIONS,
+        /** DOM: repository urls. */
+        REPOSITORIES,
+        /** StAX: the single streaming pass, reading included. */
+        STREAM,
+        /** Tree: parsing the whole aggregator tree. */
+        AGGREGATOR_TREE,
+        /** Tree: POM list, string pool and indexes. */
+        INDEX,
+        /** Tree: linking parents. */
+        INHERITANCE
+    }
+
+    /**
+     * One phase finished. {@code path} is the parsed file, or the root pom.xml for tree phases.
+     */
+    default void phase(Phase phase, String path, long nanos) {
+    }
+
+    /**
+     * A POM was returned by {@link POMParser#parse(String)}, from the cache or freshly parsed.
+     * @param bytes Bytes read to parse it, 0 when it came from a cache.
+     * @param nanos Wall time of the whole call.
+     */
+    default void parsed(String path, long bytes, POM pom, long nanos) {
+    }
+
+    default void cacheHit(String path) {
+    }
+
+    default void cacheMiss(String path) {
+    }
+
+    /**
+     * {@link POMTree#createPomTree()} finished.
+     */
+    default void treeBuilt(String path, int poms, long nanos) {
+    }
+}
@@ -0,0 +1,190 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MetricsListener} that sums up phases and counts and keeps the slowest files.
+ * <pre>
+ * MetricsRecorder metrics = new MetricsRecorder();
+ * parser.setMetrics(metrics);
+ * tree.setMetrics(metrics);
+ * tree.createPomTree();
+ * System.out.println(metrics);
+ * </pre>
+ * @author i-Taozi
+ */
+public class MetricsRecorder implements MetricsListener {
+
+    private final Map<Phase, LongAdder> phaseNanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, LongAdder> phaseCounts = new EnumMap<>(Phase.class);
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder dependencies = new LongAdder();
+    private final LongAdder properties = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder trees = new LongAdder();
+
+    private final int slowestLimit;
+    //最小堆，堆顶是已记录文件中最快的一个
+    private final PriorityQueue<FileTiming> slowest;
+
+    public MetricsRecorder() {
+        this(10);
+    }
+
+    /**
+     * @param slowestLimit Number of slowest files to keep.
+     */
+    public MetricsRecorder(int slowestLimit) {
+        this.slowestLimit = slowestLimit;
+        this.slowest = new PriorityQueue<>(Math.max(1, slowestLimit), (a, b) -> Long.compare(a.nanos, b.nanos));
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+            phaseCounts.put(phase, new LongAdder());
+        }
+    }
+
+    @Override
+    public void phase(Phase phase, String path, long nanos) {
+        phaseNanos.get(phase).add(nanos);
+        phaseCounts.get(phase).increment();
+    }
+
+    @Override
+    public void parsed(String path, long bytes, POM pom, long nanos) {
+        this.files.increment();
+        this.bytes.add(bytes);
+        this.dependencies.add(pom.getRawDependencies().size() + pom.getManagedDependencies().size());
+        this.properties.add(pom.getRawProperties().size());
+        if (slowestLimit <= 0)
+            return;
+        synchronized (slowest) {
+            if (slowest.size() < slowestLimit) {
+                slowest.add(new FileTiming(path, bytes, nanos));
+            } else if (slowest.peek().nanos < nanos) {
+                slowest.poll();
+                slowest.add(new FileTiming(path, bytes, nanos));
+            }
+        }
+    }
+
+    @Override
+    public void cacheHit(String path) {
+        cacheHits.increment();
+    }
+
+    @Override
+    public void cacheMiss(String path) {
+        cacheMisses.increment();
+    }
+
+    @Override
+    public void treeBuilt(String path, int poms, long nanos) {
+        trees.increment();
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos.get(phase).sum();
+    }
+
+    public long getPhaseCount(Phase phase) {
+        return phaseCounts.get(phase).sum();
+    }
+
+    public long getFiles() {
+        return files.sum();
+    }
+
+    /**
+     * Bytes actually parsed; files served from a cache add nothing.
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    public long getDependencies() {
+        return dependencies.sum();
+    }
+
+    public long getProperties() {
+        return properties.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public long getTrees() {
+        return trees.sum();
+    }
+
+    /**
+     * The slowest files, slowest first.
+     */
+    public List<FileTiming> getSlowest() {
+        List<FileTiming> list;
+        synchronized (slowest) {
+            list = new ArrayList<>(slowest);
+        }
+        list.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        return list;
+    }
+
+    public void reset() {
+        for (Phase phase : Phase.values()) {
+            phaseNanos.get(phase).reset();
+            phaseCounts.get(phase).reset();
+        }
+        files.reset();
+        bytes.reset();
+        dependencies.reset();
+        properties.reset();
+        cacheHits.reset();
+        cacheMisses.reset();
+        trees.reset();
+        synchronized (slowest) {
+            slowest.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("files=%d bytes=%d dependencies=%d properties=%d cacheHits=%d cacheMisses=%d trees=%d%n",
+                getFiles(), getBytes(), getDependencies(), getProperties(), getCacheHits(), getCacheMisses(), getTrees()));
+        for (Phase phase : Phase.values()) {
+            long count = getPhaseCount(phase);
+            if (count > 0)
+                sb.append(String.format("  %-20s %10.3f ms  (%d)%n", phase, getPhaseNanos(phase) / 1e6, count));
+        }
+        for (FileTiming timing : getSlowest()) {
+            sb.append(String.format("  slow %10.3f ms  %s%n", timing.nanos / 1e6, timing.path));
+        }
+        return sb.toString();
+    }
+
+    @Getter
+    public static final class FileTiming {
+        private final String path;
+        private final long bytes;
+        private final long nanos;
+
+        FileTiming(String path, long bytes, long nanos) {
+            this.path = path;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+    }
+}
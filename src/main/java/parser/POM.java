@@ -1,10 +1,10 @@
 package parser;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Supplier;
 /**
  * @author i-Taozi
  */
@@ -12,7 +12,16 @@ import java.util.regex.Pattern;
 @Setter
 public class POM {
 
+    static final int EFFECTIVE_MODEL_CACHE_SIZE = 16;
+
+    //为空时 getRaw() 按需从 path 读取文件，不常驻内存
+    @Getter(AccessLevel.NONE)
     private String raw;
+
+    //文件系统之外（如 git）解析出的POM，getRaw() 从这里读取，null 表示文件系统
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private POMSource source;
     private String groupId;
     private String artifactId;
     private String version;
@@ -31,22 +40,72 @@ public class POM {
 
     private HashMap<String, String> rawProperties = new HashMap<>();
 
-    private HashMap<String, String> properties;
+    //有效属性：沿继承链合并并完成插值，首次访问时计算并缓存；只读，对外返回副本
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Map<String, String> properties;
+
+    //插值后的依赖列表，与 properties 一起缓存与失效；只读，对外返回副本
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile List<Dependency> resolvedDependencies;
 
     private HashMap<String, String> testConfigurations = new HashMap<>();
 
     private ArrayList<Dependency> dependencies = new ArrayList<>();
 
+    //dependencyManagement 中声明的依赖，不包含在 dependencies 中
+    private ArrayList<Dependency> managedDependencies = new ArrayList<>();
+
+    //继承链与导入的 BOM 合并后的版本表，与 properties 一起缓存与失效
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ManagedVersions managedVersions;
+
+    //查找 import 的 BOM，由 POMTree 或 LocalRepository 设置
+    private POMResolver pomResolver;
+
     private ArrayList<String> modules = new ArrayList<>();
 
     private ArrayList<String> repositoryUrls = new ArrayList<>();
 
+    //profile 的依赖、属性与模块不合并到上面的字段中，按 ActivationContext 计算有效模型
+    private ArrayList<Profile> profiles = new ArrayList<>();
+
+    //每个 ActivationContext 的有效模型，首次请求时创建，与 properties 一起失效
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile BoundedCache<ActivationContext, EffectiveModel> effectiveModels;
+
+    //build/plugins 与 build/pluginManagement 中的插件，profile 中声明的按 Plugin.profile 区分
+    private ArrayList<Plugin> plugins = new ArrayList<>();
+    private ArrayList<Plugin> managedPlugins = new ArrayList<>();
+
     //存储子POM节点，POM之间的关系分聚合跟继承，所以存两棵子树, 聚合树自顶向下建立，继承树自底向上建立
     @Getter
     private List<POM> aggregatorPoms = new ArrayList<>();
     @Getter
     private List<POM> childrenPoms = new ArrayList<>();
 
+    /**
+     * The XML content of the pom.xml. Unless the parser retained it, it is read from {@code path} on every call,
+     * through the {@link POMSource} the POM was parsed from.
+     */
+    public String getRaw() {
+        String raw = this.raw;
+        if (raw == null && this.path != null)
+            return RawContent.load(this.source, this.path);
+        return raw;
+    }
+
+    POMSource getSource() {
+        return this.source;
+    }
+
+    void setSource(POMSource source) {
+        this.source = source == POMSource.FILES ? null : source;
+    }
+
     public void addAggregatorPom(POM aggregatorPom) {
         aggregatorPom.setParent(this);
         this.aggregatorPoms.add(aggregatorPom);
@@ -64,6 +123,7 @@ public class POM {
 
     public void addProperty(String name, String value) {
         this.rawProperties.put(name, value);
+        invalidateProperties();
     }
 
     public String getRawProperty(String name) {
@@ -76,89 +136,239 @@ public class POM {
 
     public void addDependency(Dependency dep) {
         dependencies.add(dep);
+        this.resolvedDependencies = null;
     }
 
-    public HashMap<String, String> getProperties() {
-        if (this.properties != null)
-            return this.properties;
+    public void addManagedDependency(Dependency dep) {
+        managedDependencies.add(dep);
+        invalidateProperties();
+    }
 
-        this.properties = new LinkedHashMap<>();
-        for (Map.Entry<String, String> item : this.rawProperties.entrySet()) {
-            if (item.getValue().contains("${")) {
+    public void setParent(POM parent) {
+        this.parent = parent;
+        invalidateProperties();
+    }
 
-            } else {
-                this.properties.put(item.getKey(), item.getValue());
-            }
+    //以下字段参与属性、版本表或依赖的计算，修改时丢弃缓存
+    public void setGroupId(String groupId) {
+        this.groupId = groupId;
+        invalidateProperties();
+    }
+
+    public void setArtifactId(String artifactId) {
+        this.artifactId = artifactId;
+        invalidateProperties();
+    }
+
+    public void setVersion(String version) {
+        this.version = version;
+        invalidateProperties();
+    }
+
+    public void setPackaging(String packaging) {
+        this.packaging = packaging;
+        invalidateProperties();
+    }
+
+    public void setParentGroupId(String parentGroupId) {
+        this.parentGroupId = parentGroupId;
+        invalidateProperties();
+    }
+
+    public void setParentArtifactId(String parentArtifactId) {
+        this.parentArtifactId = parentArtifactId;
+        invalidateProperties();
+    }
+
+    public void setParentVersion(String parentVersion) {
+        this.parentVersion = parentVersion;
+        invalidateProperties();
+    }
+
+    public void setRawProperties(HashMap<String, String> rawProperties) {
+        this.rawProperties = rawProperties;
+        invalidateProperties();
+    }
+
+    public void setDependencies(ArrayList<Dependency> dependencies) {
+        this.dependencies = dependencies;
+        invalidateProperties();
+    }
+
+    public void setManagedDependencies(ArrayList<Dependency> managedDependencies) {
+        this.managedDependencies = managedDependencies;
+        invalidateProperties();
+    }
+
+    public void setProfiles(ArrayList<Profile> profiles) {
+        this.profiles = profiles;
+        invalidateProperties();
+    }
+
+    public void setPomResolver(POMResolver pomResolver) {
+        this.pomResolver = pomResolver;
+        invalidateProperties();
+    }
+
+    /**
+     * Drop the cached effective properties, managed versions, dependencies and effective models of this POM,
+     * they are recomputed on next access. Descendants keep their own caches.
+     */
+    public void invalidateProperties() {
+        this.properties = null;
+        this.managedVersions = null;
+        this.resolvedDependencies = null;
+        this.effectiveModels = null;
+    }
+
+    /**
+     * The effective dependencyManagement: own and inherited entries plus imported BOMs. Computed once and cached.
+     */
+    public ManagedVersions getManagedVersions() {
+        ManagedVersions managedVersions = this.managedVersions;
+        if (managedVersions == null) {
+            managedVersions = ManagedVersions.of(this);
+            this.managedVersions = managedVersions;
+        }
+        return managedVersions;
+    }
+
+    /**
+     * The effective properties: own and inherited properties plus the {@code project.*} built-ins,
+     * with nested references resolved. Computed once and cached; every call returns a new copy.
+     */
+    public HashMap<String, String> getProperties() {
+        return new HashMap<>(effectiveProperties());
+    }
+
+    //缓存的有效属性，只读
+    Map<String, String> effectiveProperties() {
+        Map<String, String> properties = this.properties;
+        if (properties == null) {
+            properties = Collections.unmodifiableMap(PropertyInterpolator.effectiveProperties(this));
+            this.properties = properties;
         }
-        return this.rawProperties;
+        return properties;
     }
 
     //如果字符串包含$符号，进行插值替换
     public static String interpolateString(String s, POM pom) {
         if (!s.contains("$"))
             return s;
-        Pattern pattern = Pattern.compile("\\$\\{(.*?)}");
-        Matcher matcher = pattern.matcher(s);
-        while (matcher.find()) {
-            String value = findPropertyValue(matcher.group(1).trim(), pom);
-            if (value != null) {
-                s = s.replace(matcher.group(0), value);
-            }
-        }
-        return s;
+        return PropertyInterpolator.interpolate(s, pom.effectiveProperties());
     }
 
     public String getProperty(String name) {
-        if (this.properties == null)
-            getProperties();
-        return this.properties.get(name);
-    }
-
-    private static String findPropertyValue(String s, POM pom) {
-        //获取${xxx}变量的真实值，并且这个值已经确定不在该POM的property里面，那么应该在父POM里面
-        String value = null;
-        while (true) {
-            value = pom.getRawProperty(s);
-//            while (value != null && value.contains("${")) {
-//                String tempValue = pom.getRawProperty(value);
-//                if (tempValue == null) {
-//                    break;
-//                } else {
-//                    value = tempValue;
-//                }
-//            }
-            if ((value != null && !value.contains("${")) || !pom.hasParent()) {
-                break;
-            }
-            pom = pom.getParent();
-        }
-        return value;
+        return effectiveProperties().get(name);
     }
 
     public ArrayList<Dependency> getRawDependencies() {
         return dependencies;
     }
 
+    /**
+     * Dependencies with their version, scope and exclusions completed from the {@link #getManagedVersions()
+     * managed versions} and interpolated against the effective properties. Dependencies whose version is
+     * neither declared nor managed are left out. Cached until invalidated; every call returns a new list.
+     */
     public ArrayList<Dependency> getDependencies() {
-        ArrayList<Dependency> deps = new ArrayList<>();
-        Pattern pattern = Pattern.compile("\\$\\{(.*?)}");
-        //遍历父节点得到所有property定义
-        for (Dependency dep : this.dependencies) {
-            // resolve version if missing
+        return new ArrayList<>(resolvedDependencies());
+    }
+
+    //缓存的依赖列表，只读，供树与索引遍历时不复制
+    List<Dependency> resolvedDependencies() {
+        List<Dependency> deps = this.resolvedDependencies;
+        if (deps != null)
+            return deps;
+        deps = Collections.unmodifiableList(
+                resolveDependencies(this.dependencies, this::getManagedVersions, this::effectiveProperties));
+        this.resolvedDependencies = deps;
+        return deps;
+    }
+
+    //补全并插值依赖；版本表与属性来自POM本身或某个 ActivationContext 下的有效模型，用到时才计算
+    static ArrayList<Dependency> resolveDependencies(List<Dependency> declared, Supplier<ManagedVersions> managedVersions,
+                                                     Supplier<? extends Map<String, String>> properties) {
+        return resolveDependencies(declared, managedVersions, properties, false);
+    }
+
+    //keepUnversioned 为 true 时保留版本缺失的依赖，由调用方决定如何处理
+    static ArrayList<Dependency> resolveDependencies(List<Dependency> declared, Supplier<ManagedVersions> managedVersions,
+                                                     Supplier<? extends Map<String, String>> properties,
+                                                     boolean keepUnversioned) {
+        ArrayList<Dependency> deps = new ArrayList<>(declared.size());
+        for (Dependency dep : declared) {
+            // 版本缺失时从 dependencyManagement 补全
+            if (dep.getVersion().equals("") || dep.getScope().equals("")) {
+                Dependency managed = managedVersions.get().get(dep);
+                if (managed != null)
+                    dep = dep.withManagement(managed);
+            }
             if (!dep.getVersion().equals("")) {
                 if (dep.getVersion().contains("$")) {
-                    String version = dep.getVersion();
-                    version = interpolateString(version, this);
-                    Dependency dependency = new Dependency(dep.getGroupID(), dep.getArtifactID(), version);
-                    deps.add(dependency);
+                    String version = PropertyInterpolator.interpolate(dep.getVersion(), properties.get());
+                    deps.add(dep.withVersion(version));
                 } else {
                     deps.add(dep);
                 }
+            } else if (keepUnversioned) {
+                deps.add(dep);
             }
         }
         return deps;
     }
 
+    public void addProfile(Profile profile) {
+        profiles.add(profile);
+        invalidateProperties();
+    }
+
+    public Profile getProfile(String id) {
+        for (Profile profile : profiles) {
+            if (profile.getId().equals(id))
+                return profile;
+        }
+        return null;
+    }
+
+    /**
+     * The POM with the profiles active in the context applied, see {@link EffectiveModel}.
+     * Cached per context, the most recently used {@value #EFFECTIVE_MODEL_CACHE_SIZE} are kept.
+     */
+    public EffectiveModel getEffectiveModel(ActivationContext context) {
+        BoundedCache<ActivationContext, EffectiveModel> cache = this.effectiveModels;
+        if (cache == null) {
+            synchronized (this) {
+                cache = this.effectiveModels;
+                if (cache == null) {
+                    cache = new BoundedCache<>(EFFECTIVE_MODEL_CACHE_SIZE);
+                    this.effectiveModels = cache;
+                }
+            }
+        }
+        return cache.get(context, c -> EffectiveModel.of(this, c));
+    }
+
+    public void addPlugin(Plugin plugin) {
+        plugins.add(plugin);
+    }
+
+    public void addManagedPlugin(Plugin plugin) {
+        managedPlugins.add(plugin);
+    }
+
+    /**
+     * The plugin of the project's own build with the groupId:artifactId, see {@link Plugin#getKey()};
+     * {@code null} when it is not declared outside profiles.
+     */
+    public Plugin getPlugin(String key) {
+        for (Plugin plugin : plugins) {
+            if (!plugin.isInProfile() && plugin.getKey().equals(key))
+                return plugin;
+        }
+        return null;
+    }
+
     public void addModule(String module) {
         modules.add(module);
     }
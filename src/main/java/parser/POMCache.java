@@ -0,0 +1,304 @@
+package parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent cache of parsed {@link POM} models, one file per pom.xml path.
+ * <p>
+ * An entry is valid when the pom.xml still has the recorded size and either the same mtime or,
+ * when only the mtime changed (e.g. after a checkout), the same SHA-256 content hash.
+ * Entries are written to a temporary file and atomically renamed, so several JVMs may share a directory;
+ * eviction of the least recently used entries runs under a file lock once the directory exceeds its size bound.
+ * @author i-Taozi
+ */
+public class POMCache {
+
+    private static final int MAGIC = 0x504F4D43; // "POMC"
+    private static final String ENTRY_SUFFIX = ".pom";
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path dir;
+    private final long maxBytes;
+
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param dir Cache directory, created if missing.
+     * @param maxBytes Upper bound on the total size of the entries.
+     */
+    public POMCache(Path dir, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(dir);
+        this.bytes.set(scan(new ArrayList<>()));
+    }
+
+    /**
+     * Look up a cached POM for the given pom.xml.
+     * @return The cached model, or {@code null} on a miss. Its {@code raw} is not set and loads on demand.
+     */
+    public POM get(String path) {
+        Path entry = entryPath(path);
+        try {
+            Path file = Paths.get(path);
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            byte[] data = Files.readAllBytes(entry);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            if (in.readInt() != MAGIC || in.readInt() != POMCodec.FORMAT_VERSION
+                    || !path.equals(POMCodec.readString(in))) {
+                misses.incrementAndGet();
+                return null;
+            }
+            long size = in.readLong();
+            long mtime = in.readLong();
+            byte[] hash = new byte[32];
+            in.readFully(hash);
+            if (size != attrs.size()) {
+                misses.incrementAndGet();
+                return null;
+            }
+            //mtime 未变时不读取文件内容
+            if (mtime != attrs.lastModifiedTime().toMillis()
+                    && !Arrays.equals(hash, sha256(Files.readAllBytes(file)))) {
+                misses.incrementAndGet();
+                return null;
+            }
+            POM pom = POMCodec.read(in);
+            touch(entry);
+            hits.incrementAndGet();
+            return pom;
+        } catch (NoSuchFileException e) {
+            misses.incrementAndGet();
+            return null;
+        } catch (IOException e) {
+            //损坏或被并发淘汰的条目按未命中处理
+            misses.incrementAndGet();
+            long size = sizeQuietly(entry);
+            if (deleteQuietly(entry))
+                bytes.addAndGet(-size);
+            return null;
+        }
+    }
+
+    /**
+     * Record the size, mtime and content hash of a pom.xml before parsing it, see {@link #put(String, POM, Stamp)}.
+     */
+    public Stamp stamp(String path) throws IOException {
+        Path file = Paths.get(path);
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        byte[] content = Files.readAllBytes(file);
+        return new Stamp(content.length, attrs.lastModifiedTime().toMillis(), sha256(content));
+    }
+
+    /**
+     * Store a freshly parsed POM under the stamp taken before it was parsed. Nothing is written when the content
+     * changed in the meantime, since the model may then describe an older version of the file.
+     */
+    public void put(String path, POM pom, Stamp stamp) {
+        Path entry = entryPath(path);
+        Path tmp = null;
+        try {
+            //解析期间文件被修改时不写入，避免旧模型记在新内容的哈希下
+            if (!stamp.sameContent(stamp(path)))
+                return;
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(MAGIC);
+            out.writeInt(POMCodec.FORMAT_VERSION);
+            POMCodec.writeString(out, path);
+            out.writeLong(stamp.size);
+            out.writeLong(stamp.mtime);
+            out.write(stamp.hash);
+            POMCodec.write(pom, out);
+            out.flush();
+
+            tmp = Files.createTempFile(dir, "entry", ".tmp");
+            Files.write(tmp, buffer.toByteArray());
+            //替换已有条目时扣除旧条目的大小，避免估算值只增不减
+            long replaced = sizeQuietly(entry);
+            try {
+                Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            writes.incrementAndGet();
+            if (bytes.addAndGet(buffer.size() - replaced) > maxBytes)
+                evict();
+        } catch (IOException e) {
+            //缓存写失败不影响解析结果
+            if (tmp != null)
+                deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Delete least recently used entries until the directory is below 90% of its bound.
+     * Holds an exclusive lock on the directory so concurrent JVMs do not evict twice.
+     */
+    public synchronized void evict() throws IOException {
+        try (FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            //锁随 channel 关闭释放
+            channel.lock();
+            List<Entry> entries = new ArrayList<>();
+            long total = scan(entries);
+            long target = maxBytes / 10 * 9;
+            if (total > maxBytes) {
+                entries.sort((a, b) -> Long.compare(a.accessed, b.accessed));
+                for (Entry item : entries) {
+                    if (total <= target)
+                        break;
+                    if (deleteQuietly(item.path)) {
+                        total -= item.size;
+                        evictions.incrementAndGet();
+                    }
+                }
+            }
+            bytes.set(total);
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getWrites() {
+        return writes.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Approximate total size of the entries in bytes.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * The state of a pom.xml a model was parsed from.
+     */
+    public static final class Stamp {
+        private final long size;
+        private final long mtime;
+        private final byte[] hash;
+
+        Stamp(long size, long mtime, byte[] hash) {
+            this.size = size;
+            this.mtime = mtime;
+            this.hash = hash;
+        }
+
+        //mtime 不同而内容相同时仍可写入，get 会按哈希比较
+        boolean sameContent(Stamp other) {
+            return size == other.size && Arrays.equals(hash, other.hash);
+        }
+    }
+
+    private static final class Entry {
+        private final Path path;
+        private final long accessed;
+        private final long size;
+
+        Entry(Path path, long accessed, long size) {
+            this.path = path;
+            this.accessed = accessed;
+            this.size = size;
+        }
+    }
+
+    //返回条目总大小，并收集每个条目的最近访问时间
+    private long scan(List<Entry> entries) throws IOException {
+        long total = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + ENTRY_SUFFIX)) {
+            for (Path entry : stream) {
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                    total += attrs.size();
+                    entries.add(new Entry(entry, attrs.lastModifiedTime().toMillis(), attrs.size()));
+                } catch (IOException e) {
+                    //已被其他进程删除
+                }
+            }
+        }
+        return total;
+    }
+
+    private Path entryPath(String path) {
+        return dir.resolve(hex(sha256(path.getBytes(StandardCharsets.UTF_8))) + ENTRY_SUFFIX);
+    }
+
+    //用条目文件的 mtime 记录最近访问时间，供 LRU 淘汰使用
+    private static void touch(Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            //条目可能刚被淘汰
+        }
+    }
+
+    private static long sizeQuietly(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    static byte[] sha256(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
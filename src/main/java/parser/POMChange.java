@@ -0,0 +1,116 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What changed in a {@link POMTree} after one pom.xml was reloaded.
+ * Dependency, property and module differences compare the declarations of the reloaded file itself;
+ * {@code invalidatedPoms} lists every POM whose effective properties and dependencies were dropped from cache.
+ * @author i-Taozi
+ */
+@Getter
+public class POMChange {
+
+    public enum Type { MODIFIED, REMOVED }
+
+    private final Type type;
+    private final String path;
+    private final POM oldPom;
+    private final POM newPom;
+
+    private final List<Dependency> addedDependencies = new ArrayList<>();
+    private final List<Dependency> removedDependencies = new ArrayList<>();
+    //新值；被删除的属性不在这里，见 removedProperties
+    private final Map<String, String> changedProperties = new LinkedHashMap<>();
+    private final Set<String> removedProperties = new HashSet<>();
+    private final List<String> addedModules = new ArrayList<>();
+    private final List<String> removedModules = new ArrayList<>();
+
+    private final List<POM> addedPoms = new ArrayList<>();
+    private final List<POM> removedPoms = new ArrayList<>();
+    private final List<POM> invalidatedPoms = new ArrayList<>();
+
+    POMChange(Type type, String path, POM oldPom, POM newPom) {
+        this.type = type;
+        this.path = path;
+        this.oldPom = oldPom;
+        this.newPom = newPom;
+        if (newPom != null)
+            compare(oldPom, newPom);
+    }
+
+    private void compare(POM oldPom, POM newPom) {
+        Map<String, Dependency> oldDependencies = new HashMap<>();
+        for (Dependency dependency : oldPom.getRawDependencies()) {
+            oldDependencies.put(key(dependency), dependency);
+        }
+        for (Dependency dependency : newPom.getRawDependencies()) {
+            if (oldDependencies.remove(key(dependency)) == null)
+                addedDependencies.add(dependency);
+        }
+        removedDependencies.addAll(oldDependencies.values());
+
+        for (Map.Entry<String, String> item : newPom.getRawProperties().entrySet()) {
+            if (!item.getValue().equals(oldPom.getRawProperty(item.getKey())))
+                changedProperties.put(item.getKey(), item.getValue());
+        }
+        for (String name : oldPom.getRawProperties().keySet()) {
+            if (!newPom.getRawProperties().containsKey(name))
+                removedProperties.add(name);
+        }
+
+        for (String module : newPom.getModules()) {
+            if (!oldPom.getModules().contains(module))
+                addedModules.add(module);
+        }
+        for (String module : oldPom.getModules()) {
+            if (!newPom.getModules().contains(module))
+                removedModules.add(module);
+        }
+    }
+
+    private static String key(Dependency dependency) {
+        return dependency.getGroupID() + ":" + dependency.getArtifactID() + ":" + dependency.getVersion();
+    }
+
+    /**
+     * Whether the reloaded file changed anything visible to the tree.
+     */
+    public boolean isEmpty() {
+        return type == Type.MODIFIED && addedDependencies.isEmpty() && removedDependencies.isEmpty()
+                && changedProperties.isEmpty() && removedProperties.isEmpty()
+                && addedModules.isEmpty() && removedModules.isEmpty()
+                && sameCoordinates(oldPom, newPom);
+    }
+
+    private static boolean sameCoordinates(POM a, POM b) {
+        return a.getGroupId().equals(b.getGroupId()) && a.getArtifactId().equals(b.getArtifactId())
+                && a.getVersion().equals(b.getVersion()) && a.getPackaging().equals(b.getPackaging())
+                && a.getParentGroupId().equals(b.getParentGroupId())
+                && a.getParentArtifactId().equals(b.getParentArtifactId())
+                && a.getParentVersion().equals(b.getParentVersion());
+    }
+
+    @Override
+    public String toString() {
+        return "POMChange{" +
+                "type=" + type +
+                ", path='" + path + '\'' +
+                ", addedDependencies=" + addedDependencies.size() +
+                ", removedDependencies=" + removedDependencies.size() +
+                ", changedProperties=" + changedProperties.keySet() +
+                ", removedProperties=" + removedProperties +
+                ", addedModules=" + addedModules +
+                ", removedModules=" + removedModules +
+                ", invalidated=" + invalidatedPoms.size() +
+                '}';
+    }
+}
@@ -0,0 +1,271 @@
+package parser;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of the fields {@link POMParser} fills, links between POMs and {@code raw} are not stored.
+ * @author i-Taozi
+ */
+final class POMCodec {
+
+    static final int FORMAT_VERSION = 5;
+
+    private POMCodec() {
+    }
+
+    static void write(POM pom, DataOutput out) throws IOException {
+        writeString(out, pom.getPath());
+        writeString(out, pom.getPackaging());
+        writeString(out, pom.getGroupId());
+        writeString(out, pom.getArtifactId());
+        writeString(out, pom.getVersion());
+        writeString(out, pom.getParentGroupId());
+        writeString(out, pom.getParentArtifactId());
+        writeString(out, pom.getParentVersion());
+        writeMap(out, pom.getRawProperties());
+        writeMap(out, pom.getTestConfigurations());
+        writeDependencies(out, pom.getRawDependencies());
+        writeDependencies(out, pom.getManagedDependencies());
+        writeList(out, pom.getModules());
+        writeList(out, pom.getRepositoryUrls());
+        writePlugins(out, pom.getPlugins());
+        writePlugins(out, pom.getManagedPlugins());
+        writeProfiles(out, pom.getProfiles());
+    }
+
+    static POM read(DataInput in) throws IOException {
+        POM pom = new POM();
+        pom.setPath(readString(in));
+        pom.setPackaging(readString(in));
+        pom.setGroupId(readString(in));
+        pom.setArtifactId(readString(in));
+        pom.setVersion(readString(in));
+        pom.setParentGroupId(readString(in));
+        pom.setParentArtifactId(readString(in));
+        pom.setParentVersion(readString(in));
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            pom.addProperty(readString(in), readString(in));
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            pom.addTestConfigurations(readString(in), readString(in));
+        }
+        for (Dependency dependency : readDependencies(in)) {
+            pom.addDependency(dependency);
+        }
+        for (Dependency dependency : readDependencies(in)) {
+            pom.addManagedDependency(dependency);
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            pom.addModule(readString(in));
+        }
+        count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            pom.addRepositoryUrl(readString(in));
+        }
+        for (Plugin plugin : readPlugins(in)) {
+            pom.addPlugin(plugin);
+        }
+        for (Plugin plugin : readPlugins(in)) {
+            pom.addManagedPlugin(plugin);
+        }
+        for (Profile profile : readProfiles(in)) {
+            pom.addProfile(profile);
+        }
+        return pom;
+    }
+
+    private static void writeDependencies(DataOutput out, List<Dependency> dependencies) throws IOException {
+        out.writeInt(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            writeString(out, dependency.getGroupID());
+            writeString(out, dependency.getArtifactID());
+            writeString(out, dependency.getVersion());
+            writeString(out, dependency.getScope());
+            writeString(out, dependency.getType());
+            writeString(out, dependency.getClassifier());
+            out.writeBoolean(dependency.isOptional());
+            writeList(out, dependency.getExclusions());
+        }
+    }
+
+    private static List<Dependency> readDependencies(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<Dependency> dependencies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Dependency dependency = new Dependency(readString(in), readString(in), readString(in));
+            dependency.setScope(readString(in));
+            dependency.setType(readString(in));
+            dependency.setClassifier(readString(in));
+            dependency.setOptional(in.readBoolean());
+            int exclusions = in.readInt();
+            for (int j = 0; j < exclusions; j++) {
+                dependency.getExclusions().add(readString(in));
+            }
+            dependencies.add(dependency);
+        }
+        return dependencies;
+    }
+
+    //配置只存 XML 文本，读出后仍按需展开
+    private static void writePlugins(DataOutput out, List<Plugin> plugins) throws IOException {
+        out.writeInt(plugins.size());
+        for (Plugin plugin : plugins) {
+            writeString(out, plugin.getGroupId());
+            writeString(out, plugin.getArtifactId());
+            writeString(out, plugin.getVersion());
+            writeString(out, plugin.getProfile());
+            writeConfiguration(out, plugin.getConfiguration());
+            out.writeInt(plugin.getExecutions().size());
+            for (PluginExecution execution : plugin.getExecutions()) {
+                writeString(out, execution.getId());
+                writeString(out, execution.getPhase());
+                writeList(out, execution.getGoals());
+                writeConfiguration(out, execution.getConfiguration());
+            }
+        }
+    }
+
+    private static List<Plugin> readPlugins(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<Plugin> plugins = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Plugin plugin = new Plugin();
+            plugin.setGroupId(readString(in));
+            plugin.setArtifactId(readString(in));
+            plugin.setVersion(readString(in));
+            plugin.setProfile(readString(in));
+            plugin.setConfiguration(readConfiguration(in));
+            int executions = in.readInt();
+            for (int j = 0; j < executions; j++) {
+                PluginExecution execution = new PluginExecution();
+                execution.setId(readString(in));
+                execution.setPhase(readString(in));
+                int goals = in.readInt();
+                for (int k = 0; k < goals; k++) {
+                    execution.addGoal(readString(in));
+                }
+                execution.setConfiguration(readConfiguration(in));
+                plugin.addExecution(execution);
+            }
+            plugins.add(plugin);
+        }
+        return plugins;
+    }
+
+    //未声明的激活条件为 null
+    private static void writeProfiles(DataOutput out, List<Profile> profiles) throws IOException {
+        out.writeInt(profiles.size());
+        for (Profile profile : profiles) {
+            writeString(out, profile.getId());
+            ProfileActivation activation = profile.getActivation();
+            out.writeBoolean(activation.isActiveByDefault());
+            writeString(out, activation.getJdk());
+            writeString(out, activation.getOsName());
+            writeString(out, activation.getOsFamily());
+            writeString(out, activation.getOsArch());
+            writeString(out, activation.getOsVersion());
+            writeString(out, activation.getPropertyName());
+            writeString(out, activation.getPropertyValue());
+            writeString(out, activation.getFileExists());
+            writeString(out, activation.getFileMissing());
+            writeMap(out, profile.getRawProperties());
+            writeDependencies(out, profile.getDependencies());
+            writeDependencies(out, profile.getManagedDependencies());
+            writeList(out, profile.getModules());
+            writeList(out, profile.getRepositoryUrls());
+        }
+    }
+
+    private static List<Profile> readProfiles(DataInput in) throws IOException {
+        int count = in.readInt();
+        List<Profile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Profile profile = new Profile();
+            profile.setId(readString(in));
+            ProfileActivation activation = profile.getActivation();
+            activation.setActiveByDefault(in.readBoolean());
+            activation.setJdk(readString(in));
+            activation.setOsName(readString(in));
+            activation.setOsFamily(readString(in));
+            activation.setOsArch(readString(in));
+            activation.setOsVersion(readString(in));
+            activation.setPropertyName(readString(in));
+            activation.setPropertyValue(readString(in));
+            activation.setFileExists(readString(in));
+            activation.setFileMissing(readString(in));
+            int properties = in.readInt();
+            for (int j = 0; j < properties; j++) {
+                profile.addProperty(readString(in), readString(in));
+            }
+            for (Dependency dependency : readDependencies(in)) {
+                profile.addDependency(dependency);
+            }
+            for (Dependency dependency : readDependencies(in)) {
+                profile.addManagedDependency(dependency);
+            }
+            int modules = in.readInt();
+            for (int j = 0; j < modules; j++) {
+                profile.addModule(readString(in));
+            }
+            int urls = in.readInt();
+            for (int j = 0; j < urls; j++) {
+                profile.addRepositoryUrl(readString(in));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private static void writeConfiguration(DataOutput out, PluginConfiguration configuration) throws IOException {
+        writeString(out, configuration == null ? null : configuration.getXml());
+    }
+
+    private static PluginConfiguration readConfiguration(DataInput in) throws IOException {
+        String xml = readString(in);
+        return xml == null ? null : new PluginConfiguration(xml);
+    }
+
+    private static void writeMap(DataOutput out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> item : map.entrySet()) {
+            writeString(out, item.getKey());
+            writeString(out, item.getValue());
+        }
+    }
+
+    private static void writeList(DataOutput out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String item : list) {
+            writeString(out, item);
+        }
+    }
+
+    //长度为 -1 表示 null，不使用 writeUTF 以免超过 64KB 的属性值
+    static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,172 @@
+package parser;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds every pom.xml under a repository in one parallel NIO walk and parses them as they are found,
+ * instead of following {@code <modules>} from the root. The result is reconciled against the declared
+ * module graph, see {@link DiscoveryReport}. Directories matching an ignore pattern are not entered.
+ * @author i-Taozi
+ */
+public class POMDiscovery {
+
+    private static final String POM_FILE = "pom.xml";
+
+    public static final List<String> DEFAULT_IGNORES = Collections.unmodifiableList(
+            Arrays.asList("target", "node_modules", ".git"));
+
+    private final List<PathMatcher> ignores = new ArrayList<>();
+    private final List<String> ignorePatterns = new ArrayList<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public POMDiscovery() {
+        for (String pattern : DEFAULT_IGNORES) {
+            addIgnore(pattern);
+        }
+    }
+
+    /**
+     * Skip directories whose name or path relative to the repository matches the glob, e.g. {@code build}
+     * or {@code **}{@code /generated-sources}.
+     */
+    public POMDiscovery addIgnore(String glob) {
+        this.ignores.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        this.ignorePatterns.add(glob);
+        return this;
+    }
+
+    /**
+     * Drop all ignore patterns, including the defaults.
+     */
+    public POMDiscovery clearIgnores() {
+        this.ignores.clear();
+        this.ignorePatterns.clear();
+        return this;
+    }
+
+    public List<String> getIgnores() {
+        return Collections.unmodifiableList(ignorePatterns);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Number of threads walking directories and parsing, 1 discovers serially.
+     */
+    public POMDiscovery setParallelism(int parallelism) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public DiscoveryReport discover(String repoDir) throws Exception {
+        return discover(repoDir, new POMParser());
+    }
+
+    /**
+     * Walk the repository, parse every pom.xml found and reconcile them with the modules declared from
+     * the root pom.xml. Files that fail to parse are reported instead of aborting the walk.
+     * @param pomParser Shared by all walker threads, see {@link POMParser} for its thread-safety.
+     */
+    public DiscoveryReport discover(String repoDir, POMParser pomParser) throws Exception {
+        long start = System.nanoTime();
+        Path root = Paths.get(repoDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root))
+            throw new Exception("仓库目录" + root + "不存在");
+        Map<String, POM> poms = new ConcurrentHashMap<>();
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+        try {
+            pool.invoke(new WalkTask(root, root, pomParser, poms, failures));
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw e;
+        } finally {
+            pool.shutdown();
+        }
+        return new DiscoveryReport(root.resolve(POM_FILE).toString(), poms, failures, System.nanoTime() - start);
+    }
+
+    private boolean ignored(Path root, Path dir) {
+        Path name = dir.getFileName();
+        Path relative = root.relativize(dir);
+        for (PathMatcher matcher : ignores) {
+            if ((name != null && matcher.matches(name)) || matcher.matches(relative))
+                return true;
+        }
+        return false;
+    }
+
+    //每个目录一个任务：解析其中的 pom.xml，并为子目录派生任务
+    private class WalkTask extends RecursiveAction {
+        private final Path root;
+        private final Path dir;
+        private final POMParser pomParser;
+        private final Map<String, POM> poms;
+        private final Map<String, Exception> failures;
+
+        WalkTask(Path root, Path dir, POMParser pomParser, Map<String, POM> poms, Map<String, Exception> failures) {
+            this.root = root;
+            this.dir = dir;
+            this.pomParser = pomParser;
+            this.poms = poms;
+            this.failures = failures;
+        }
+
+        @Override
+        protected void compute() {
+            List<WalkTask> tasks = new ArrayList<>();
+            Path pomFile = null;
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                for (Path entry : entries) {
+                    //不跟随符号链接，避免目录环
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        if (!ignored(root, entry))
+                            tasks.add(new WalkTask(root, entry, pomParser, poms, failures));
+                    } else if (entry.getFileName().toString().equals(POM_FILE)) {
+                        pomFile = entry;
+                    }
+                }
+            } catch (IOException e) {
+                failures.put(dir.toString(), e);
+                return;
+            }
+            //先派生子目录任务，本线程在等待前解析当前目录的 pom.xml
+            for (WalkTask task : tasks) {
+                task.fork();
+            }
+            if (pomFile != null) {
+                String path = pomFile.toString();
+                try {
+                    poms.put(path, pomParser.parse(path));
+                } catch (Exception e) {
+                    failures.put(path, e);
+                }
+            }
+            for (WalkTask task : tasks) {
+                task.join();
+            }
+        }
+    }
+}
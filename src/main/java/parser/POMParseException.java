@@ -0,0 +1,90 @@
+package parser;
+
+import org.xml.sax.SAXParseException;
+
+import javax.xml.stream.Location;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * A pom.xml that could not be parsed, with the reason it was rejected and, when known, where.
+ * @author i-Taozi
+ */
+public class POMParseException extends Exception {
+
+    public enum Reason {
+        //超过 ParserConfig 的文件大小限制
+        TOO_LARGE,
+        //实体展开次数或大小超过限制
+        ENTITY_EXPANSION,
+        //元素嵌套深度超过限制
+        TOO_DEEP,
+        //不允许 DOCTYPE 时出现了 DOCTYPE
+        DOCTYPE,
+        //试图访问外部 DTD 或实体
+        EXTERNAL_ENTITY,
+        //其他 XML 语法错误
+        MALFORMED
+    }
+
+    private final String path;
+    private final Reason reason;
+    private final int line;
+    private final int column;
+
+    POMParseException(String path, Reason reason, String message, int line, int column, Throwable cause) {
+        super(path + ": " + message, cause);
+        this.path = path;
+        this.reason = reason;
+        this.line = line;
+        this.column = column;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Line of the error, -1 when unknown.
+     */
+    public int getLine() {
+        return line;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    static POMParseException of(String path, SAXParseException e) {
+        return new POMParseException(path, reason(e.getMessage()), e.getMessage(), e.getLineNumber(), e.getColumnNumber(), e);
+    }
+
+    static POMParseException of(String path, XMLStreamException e) {
+        Location location = e.getLocation();
+        //XMLStreamException 的消息带有 "ParseError at [row,col]" 前缀，只保留原始消息
+        String message = e.getMessage();
+        int i = message == null ? -1 : message.indexOf("Message: ");
+        if (i >= 0)
+            message = message.substring(i + "Message: ".length());
+        return new POMParseException(path, reason(message), message,
+                location == null ? -1 : location.getLineNumber(), location == null ? -1 : location.getColumnNumber(), e);
+    }
+
+    //JDK 的限制错误以 JAXP 代码标识
+    private static Reason reason(String message) {
+        if (message == null)
+            return Reason.MALFORMED;
+        if (message.contains("JAXP00010001") || message.contains("JAXP00010003") || message.contains("JAXP00010004"))
+            return Reason.ENTITY_EXPANSION;
+        if (message.contains("JAXP00010006"))
+            return Reason.TOO_DEEP;
+        if (message.contains("disallow-doctype-decl") || message.contains("DOCTYPE is disallowed"))
+            return Reason.DOCTYPE;
+        if (message.contains("accessExternal"))
+            return Reason.EXTERNAL_ENTITY;
+        return Reason.MALFORMED;
+    }
+}
@@ -1,8 +1,10 @@
 package parser;
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.SAXParseException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -11,18 +13,135 @@ import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.xpath.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
 /**
+ * Parses pom.xml files into {@link POM} instances.
+ * <p>
+ * A parser is thread-safe and meant to be reused: the XML factories are created once,
+ * document builders, transformers and the compiled XPath expressions are kept per thread,
+ * and all per-file state lives in a {@link Context} local to each call.
+ * The factories are hardened by a {@link ParserConfig}; files violating its limits fail with a {@link POMParseException}.
  * @author i-Taozi
  */
 public class POMParser {
 
-    private POM pom;
-    private Document doc;
-    private XPath xpath;
+    /**
+     * DOM parses the document once and extracts fields with precompiled XPath,
+     * STAX fills the same fields in a single streaming pass.
+     */
+    public enum Mode { DOM, STAX }
+
+    static final String SUREFIRE = "maven-surefire-plugin";
+
+    private final Mode mode;
+    private final ParserConfig config;
+    private final POMStaxParser staxParser;
+
+    private final DocumentBuilderFactory documentBuilderFactory;
+    private final TransformerFactory transformerFactory;
+    private final XPathFactory xPathFactory;
+
+    private final ThreadLocal<DocumentBuilder> documentBuilders;
+    private final ThreadLocal<Transformer> transformers;
+    private final ThreadLocal<Expressions> expressions;
+
+    //默认的错误处理器会把致命错误打印到 stderr，这里只抛出异常
+    private static final ErrorHandler ERROR_HANDLER = new ErrorHandler() {
+        @Override
+        public void warning(SAXParseException e) {
+        }
+
+        @Override
+        public void error(SAXParseException e) {
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXParseException {
+            throw e;
+        }
+    };
+
+    private volatile POMCache cache;
+
+    //内容标识（如 git blob id）-> 编码后的POM，跨提交复用未变化的文件
+    private final BoundedCache<String, byte[]> contents = new BoundedCache<>(16384);
+
+    private volatile boolean retainRaw;
+
+    private volatile MetricsListener metrics = MetricsListener.NONE;
+
+    public POMParser() {
+        this(Mode.DOM);
+    }
+
+    public POMParser(Mode mode) {
+        this(mode, ParserConfig.DEFAULT);
+    }
+
+    public POMParser(Mode mode, ParserConfig config) {
+        this.mode = mode;
+        this.config = config;
+        this.staxParser = mode == Mode.STAX ? new POMStaxParser(config) : null;
+        this.documentBuilderFactory = config.newDocumentBuilderFactory();
+        this.transformerFactory = config.newTransformerFactory();
+        this.xPathFactory = XPathFactory.newInstance();
+        this.documentBuilders = ThreadLocal.withInitial(this::newDocumentBuilder);
+        this.transformers = ThreadLocal.withInitial(this::newTransformer);
+        this.expressions = ThreadLocal.withInitial(this::newExpressions);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public ParserConfig getConfig() {
+        return config;
+    }
+
+    public POMCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Use a persistent parse cache, on a hit the file is not parsed at all. {@code null} disables caching.
+     */
+    public void setCache(POMCache cache) {
+        this.cache = cache;
+    }
+
+    public boolean isRetainRaw() {
+        return retainRaw;
+    }
+
+    /**
+     * Keep the XML text of every parsed POM in memory. Off by default: {@link POM#getRaw()}
+     * then reads the file on demand and the DOM mode skips serializing the document.
+     */
+    public void setRetainRaw(boolean retainRaw) {
+        this.retainRaw = retainRaw;
+    }
+
+    public MetricsListener getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Report phase timings, sizes and cache hits to a listener. {@code null} restores the no-op {@link MetricsListener#NONE}.
+     */
+    public void setMetrics(MetricsListener metrics) {
+        this.metrics = metrics == null ? MetricsListener.NONE : metrics;
+    }
 
     /**
      * Parse the content of a pom.xml file.
@@ -30,61 +149,239 @@ public class POMParser {
      * @return The POM instance.
      */
     public POM parse(String path) throws Exception {
-        this.pom = new POM();
-        String content = turnDocumentToString(path);
-        this.pom.setRaw(content);
-        this.pom.setPath(path);
-        if (!content.equals("")) {
-            this.doc = getDocument(content);
-            XPathFactory xPathfactory = XPathFactory.newInstance();
-            this.xpath = xPathfactory.newXPath();
-            addPackaging(); // 设置POM打包类型，聚合模块为pom
-            addProjectAttributes();//设置POM的三个坐标参数
-            addParentPOMInfo();
-            addProperties();
-            addModules();
-            addDependencies();
-            addTestConfigurations();
-            addRepositoryUrl();
-        }
-        return this.pom;
-    }
-
-    private Document getDocument(String content) throws Exception{
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        InputSource inputSource = new InputSource(new StringReader(content));
-        return builder.parse(inputSource);
-    }
-
-    private void addPackaging() throws XPathExpressionException {
-        String packaging = xpath.evaluate("/project/packaging", doc);
-        pom.setPackaging(packaging);
+        return parse(POMSource.FILES, path);
+    }
+
+    /**
+     * Parse a pom.xml read from a {@link POMSource}. When the source provides content ids, content parsed before
+     * by this parser is not parsed again; every call still returns a new POM instance.
+     * @param path The path of a pom.xml file.
+     * @return The POM instance.
+     */
+    public POM parse(POMSource source, String path) throws Exception {
+        MetricsListener metrics = this.metrics;
+        long start = metrics == MetricsListener.NONE ? 0 : System.nanoTime();
+        //实际读取的字节数，命中缓存时为0
+        long[] bytes = new long[1];
+        POM pom;
+        String contentId = source.contentId(path);
+        POMCache cache = source == POMSource.FILES ? this.cache : null;
+        if (contentId != null) {
+            pom = parseShared(source, path, contentId, metrics, bytes);
+        } else if (cache == null) {
+            pom = parseFile(source, path, metrics, this.retainRaw, bytes);
+        } else {
+            pom = cache.get(path);
+            if (pom == null) {
+                metrics.cacheMiss(path);
+                POMCache.Stamp stamp = cache.stamp(path);
+                pom = parseFile(source, path, metrics, this.retainRaw, bytes);
+                cache.put(path, pom, stamp);
+            } else {
+                metrics.cacheHit(path);
+                if (this.retainRaw)
+                    pom.setRaw(RawContent.load(path));
+            }
+        }
+        if (metrics != MetricsListener.NONE)
+            metrics.parsed(path, bytes[0], pom, System.nanoTime() - start);
+        return pom;
+    }
+
+    //相同内容只解析一次：缓存编码后的模型，每次解码出独立的实例，因为建树会修改POM
+    private POM parseShared(POMSource source, String path, String contentId, MetricsListener metrics,
+                            long[] bytes) throws Exception {
+        boolean[] parsed = new boolean[1];
+        byte[] encoded;
+        try {
+            encoded = this.contents.get(contentId, id -> {
+                parsed[0] = true;
+                try {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+                    POMCodec.write(parseFile(source, path, metrics, false, bytes), new DataOutputStream(buffer));
+                    return buffer.toByteArray();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception)
+                throw (Exception) e.getCause();
+            throw e;
+        }
+        if (parsed[0])
+            metrics.cacheMiss(path);
+        else
+            metrics.cacheHit(path);
+        POM pom = POMCodec.read(new DataInputStream(new ByteArrayInputStream(encoded)));
+        pom.setPath(path);
+        pom.setSource(source);
+        if (this.retainRaw)
+            pom.setRaw(RawContent.load(source, path));
+        return pom;
+    }
+
+    private POM parseFile(POMSource source, String path, MetricsListener metrics, boolean retainRaw,
+                          long[] bytes) throws Exception {
+        long t = metrics == MetricsListener.NONE ? 0 : System.nanoTime();
+        if (this.mode == Mode.STAX) {
+            POM pom = this.staxParser.parse(source, path, retainRaw, bytes);
+            lap(metrics, MetricsListener.Phase.STREAM, path, t);
+            return pom;
+        }
+        this.config.checkFileSize(source, path);
+        Context c = new Context(new POM(), this.expressions.get());
+        c.doc = getDocument(source, path, bytes);
+        t = lap(metrics, MetricsListener.Phase.DOCUMENT, path, t);
+        String content = null;
+        if (retainRaw) {
+            content = turnDocumentToString(c.doc);
+            c.pom.setRaw(content);
+            t = lap(metrics, MetricsListener.Phase.SERIALIZE, path, t);
+        }
+        c.pom.setPath(path);
+        c.pom.setSource(source);
+        if (content == null || !content.equals("")) {
+            addPackaging(c); // 设置POM打包类型，聚合模块为pom
+            addProjectAttributes(c);//设置POM的三个坐标参数
+            addParentPOMInfo(c);
+            addProperties(c);
+            addModules(c);
+            addProfiles(c);
+            t = lap(metrics, MetricsListener.Phase.ATTRIBUTES, path, t);
+            addDependencies(c);
+            t = lap(metrics, MetricsListener.Phase.DEPENDENCIES, path, t);
+            addPlugins(c);
+            t = lap(metrics, MetricsListener.Phase.TEST_CONFIGURATIONS, path, t);
+            addRepositoryUrl(c);
+            lap(metrics, MetricsListener.Phase.REPOSITORIES, path, t);
+        }
+        return c.pom;
+    }
+
+    //上报从 start 到现在的耗时，返回当前时间作为下一阶段的起点；未设置监听器时不读时钟
+    static long lap(MetricsListener metrics, MetricsListener.Phase phase, String path, long start) {
+        if (metrics == MetricsListener.NONE)
+            return 0;
+        long now = System.nanoTime();
+        metrics.phase(phase, path, now - start);
+        return now;
+    }
+
+    /**
+     * State of a single DOM parse.
+     */
+    private static final class Context {
+        private final POM pom;
+        private final Expressions x;
+        private Document doc;
+        //<profile> 节点 -> Profile，依赖按所在节点归入 POM 或 profile
+        private final Map<Node, Profile> profiles = new IdentityHashMap<>();
+
+        Context(POM pom, Expressions x) {
+            this.pom = pom;
+            this.x = x;
+        }
+    }
+
+    /**
+     * The fixed XPath expressions, compiled once per thread since neither XPath nor XPathExpression is thread-safe.
+     */
+    private static final class Expressions {
+        private final XPath xpath;
+        private final XPathExpression packaging;
+        private final XPathExpression groupId;
+        private final XPathExpression artifactId;
+        private final XPathExpression version;
+        private final XPathExpression parentGroupId;
+        private final XPathExpression parentArtifactId;
+        private final XPathExpression parentVersion;
+        private final XPathExpression properties;
+        private final XPathExpression modules;
+        private final XPathExpression dependencies;
+        private final XPathExpression plugins;
+        private final XPathExpression profiles;
+        private final XPathExpression repositoryUrls;
+
+        Expressions(XPath xpath) throws XPathExpressionException {
+            this.xpath = xpath;
+            this.packaging = xpath.compile("/project/packaging");
+            this.groupId = xpath.compile("/project/groupId");
+            this.artifactId = xpath.compile("/project/artifactId");
+            this.version = xpath.compile("/project/version");
+            this.parentGroupId = xpath.compile("/project/parent/groupId");
+            this.parentArtifactId = xpath.compile("/project/parent/artifactId");
+            this.parentVersion = xpath.compile("/project/parent/version");
+            this.properties = xpath.compile("/project/properties/*");
+            this.modules = xpath.compile("/project/modules/module");
+            this.dependencies = xpath.compile(
+                    "/project/dependencies/dependency|/project/dependencyManagement/dependencies/dependency"
+                            + "|/project/profiles/profile/dependencies/dependency"
+                            + "|/project/profiles/profile/dependencyManagement/dependencies/dependency");
+            //只访问声明插件的位置，不扫描整个文档
+            this.plugins = xpath.compile("/project/build/plugins/plugin"
+                    + "|/project/build/pluginManagement/plugins/plugin"
+                    + "|/project/profiles/profile/build/plugins/plugin"
+                    + "|/project/profiles/profile/build/pluginManagement/plugins/plugin");
+            this.repositoryUrls = xpath.compile("/project/repositories/repository/url");
+            this.profiles = xpath.compile("/project/profiles/profile");
+        }
+    }
+
+    private DocumentBuilder newDocumentBuilder() {
+        try {
+            DocumentBuilder builder = this.documentBuilderFactory.newDocumentBuilder();
+            builder.setErrorHandler(ERROR_HANDLER);
+            return builder;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Transformer newTransformer() {
+        try {
+            return this.transformerFactory.newTransformer();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Expressions newExpressions() {
+        try {
+            return new Expressions(this.xPathFactory.newXPath());
+        } catch (XPathExpressionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void addPackaging(Context c) throws XPathExpressionException {
+        String packaging = c.x.packaging.evaluate(c.doc);
+        c.pom.setPackaging(packaging);
         //System.out.println(s.equals(""));如果不存在这个属性的话，是个空值
     }
 
-    private void addRepositoryUrl() throws Exception {
-        for (Node node : getNodes("/project/repositories/repository/url")) {
+    private void addRepositoryUrl(Context c) throws Exception {
+        for (Node node : getNodes(c, c.x.repositoryUrls)) {
             String value = node.getTextContent();
             if (!value.endsWith("/"))
                 value = value + "/";
-            this.pom.addRepositoryUrl(value);
+            c.pom.addRepositoryUrl(value);
         }
-        this.pom.addRepositoryUrl("https://repo1.maven.org/maven2/");
+        c.pom.addRepositoryUrl("https://repo1.maven.org/maven2/");
     }
 
-    private String getProperty(String name) throws Exception {
+    private String getProperty(Context c, String name) throws Exception {
         String value;
         // A dot (.) notated path in the POM
         String path1 = "/" + name.replace('.', '/');
         if (name.equals("parent.version")){
             path1 =  "/project/parent/version";
         }
-        String path1Value = getValue(path1);
+        String path1Value = getValue(c, c.x.xpath.compile(path1));
 
         // Set within a <properties /> element in the POM
         String path2 = "/project/properties/" + name;
-        String path2Value = getValue(path2);
+        String path2Value = getValue(c, c.x.xpath.compile(path2));
 
         if (!path1Value.equals("")) {
             value = path1Value;
@@ -96,48 +393,48 @@ public class POMParser {
         return value;
     }
 
-    private void addProjectAttributes() throws Exception {
-        String groupId = getValue("/project/groupId");
+    private void addProjectAttributes(Context c) throws Exception {
+        String groupId = getValue(c, c.x.groupId);
         if(groupId.equals("")||groupId==null){
-            groupId = getValue("/project/parent/groupId");
+            groupId = getValue(c, c.x.parentGroupId);
         }
-        pom.setGroupId(groupId);
+        c.pom.setGroupId(groupId);
 
-        String artifactId = getValue("/project/artifactId");
+        String artifactId = getValue(c, c.x.artifactId);
         if(artifactId.equals("")||artifactId==null){
-            artifactId =  getValue("/project/parent/artifactId");
+            artifactId =  getValue(c, c.x.parentArtifactId);
         }
-        pom.setArtifactId(artifactId);
+        c.pom.setArtifactId(artifactId);
 
-        String version = getValue("/project/version");
+        String version = getValue(c, c.x.version);
         if(version.equals("")||version==null){
-            version =  getValue("/project/parent/version");
+            version =  getValue(c, c.x.parentVersion);
         }
-        pom.setVersion(version);
+        c.pom.setVersion(version);
     }
 
 
-    private void addParentPOMInfo() throws Exception {
-        String groupId = getValue("/project/parent/groupId");
-        pom.setParentGroupId(groupId);
-        String artifactId = getValue("/project/parent/artifactId");
-        pom.setParentArtifactId(artifactId);
-        String version = getValue("/project/parent/version");
-        pom.setParentVersion(version);
+    private void addParentPOMInfo(Context c) throws Exception {
+        String groupId = getValue(c, c.x.parentGroupId);
+        c.pom.setParentGroupId(groupId);
+        String artifactId = getValue(c, c.x.parentArtifactId);
+        c.pom.setParentArtifactId(artifactId);
+        String version = getValue(c, c.x.parentVersion);
+        c.pom.setParentVersion(version);
     }
 
-    private void addModules() throws Exception {
-        for (Node node : getNodes("/project/modules/module")) {
+    private void addModules(Context c) throws Exception {
+        for (Node node : getNodes(c, c.x.modules)) {
             String value = node.getTextContent();
-            pom.addModule(value);
+            c.pom.addModule(value);
         }
     }
 
-    private void addProperties() throws Exception{
-        for (Node node : getNodes("/project/properties/*")) {
+    private void addProperties(Context c) throws Exception{
+        for (Node node : getNodes(c, c.x.properties)) {
             String name = node.getNodeName();
             String value = node.getTextContent();
-            pom.addProperty(name, value);
+            c.pom.addProperty(name, value);
         }
         /*可能会出现这种情况，即一个property的value值，需要从另外一个property里面找
          * <cuda.version>9.1</cuda.version>
@@ -155,40 +452,215 @@ public class POMParser {
 
 
 
-    private void addTestConfigurations() throws Exception {
-        Node surefireNode = null;
-        for (Node node : getNodes("//plugin")) {
-            String artifactId = this.xpath.evaluate("artifactId", node);
-            if (artifactId.equals("maven-surefire-plugin")) {
-                surefireNode = node;
-                break;
+    //profile 的依赖在 addDependencies 中读取，插件在 addPlugins 中读取
+    private void addProfiles(Context c) throws Exception {
+        for (Node node : getNodes(c, c.x.profiles)) {
+            Profile profile = new Profile();
+            NodeList childNodes = node.getChildNodes();
+            for (int i = 0; i < childNodes.getLength(); i++) {
+                Node childNode = childNodes.item(i);
+                if (Node.ELEMENT_NODE != childNode.getNodeType())
+                    continue;
+                String tag = childNode.getNodeName();
+                if (tag.equals("id")) {
+                    profile.setId(childNode.getTextContent().trim());
+                } else if (tag.equals("activation")) {
+                    addActivation(profile.getActivation(), childNode);
+                } else if (tag.equals("properties")) {
+                    for (Node property : getChildElements(childNode)) {
+                        profile.addProperty(property.getNodeName(), property.getTextContent());
+                    }
+                } else if (tag.equals("modules")) {
+                    for (Node module : getChildElements(childNode)) {
+                        if (module.getNodeName().equals("module"))
+                            profile.addModule(module.getTextContent());
+                    }
+                } else if (tag.equals("repositories")) {
+                    for (Node repository : getChildElements(childNode)) {
+                        for (Node url : getChildElements(repository)) {
+                            if (!repository.getNodeName().equals("repository") || !url.getNodeName().equals("url"))
+                                continue;
+                            String value = url.getTextContent();
+                            profile.addRepositoryUrl(value.endsWith("/") ? value : value + "/");
+                        }
+                    }
+                }
+            }
+            c.profiles.put(node, profile);
+            c.pom.addProfile(profile);
+        }
+    }
+
+    //activeByDefault、jdk 在第一层，os、property、file 的条件在第二层，以 "os/family" 形式设置
+    private static void addActivation(ProfileActivation activation, Node node) {
+        for (Node condition : getChildElements(node)) {
+            String name = condition.getNodeName();
+            activation.set(name, condition.getTextContent().trim());
+            for (Node child : getChildElements(condition)) {
+                activation.set(name + "/" + child.getNodeName(), child.getTextContent().trim());
+            }
+        }
+    }
+
+    private static List<Node> getChildElements(Node node) {
+        List<Node> elements = new ArrayList<>();
+        NodeList childNodes = node.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            if (Node.ELEMENT_NODE == childNodes.item(i).getNodeType())
+                elements.add(childNodes.item(i));
+        }
+        return elements;
+    }
+
+    private void addPlugins(Context c) throws Exception {
+        boolean foundSurefire = false;
+        for (Node node : getNodes(c, c.x.plugins)) {
+            Plugin plugin = new Plugin();
+            PluginConfiguration.Writer configuration = null;
+            NodeList childNodes = node.getChildNodes();
+            for (int i = 0; i < childNodes.getLength(); i++) {
+                Node childNode = childNodes.item(i);
+                if (Node.ELEMENT_NODE != childNode.getNodeType())
+                    continue;
+                String tag = childNode.getNodeName();
+                if (tag.equals("groupId")) {
+                    plugin.setGroupId(childNode.getTextContent().trim());
+                } else if (tag.equals("artifactId")) {
+                    plugin.setArtifactId(childNode.getTextContent().trim());
+                } else if (tag.equals("version")) {
+                    plugin.setVersion(childNode.getTextContent().trim());
+                } else if (tag.equals("configuration") && plugin.getConfiguration() == null) {
+                    configuration = writeConfiguration(childNode);
+                    plugin.setConfiguration(configuration.build());
+                } else if (tag.equals("executions")) {
+                    addExecutions(plugin, childNode);
+                }
+            }
+            //plugin -> plugins -> build 或 pluginManagement，profile 中再向上一层或两层
+            Node section = node.getParentNode().getParentNode();
+            boolean managed = section.getNodeName().equals("pluginManagement");
+            Node owner = managed ? section.getParentNode().getParentNode() : section.getParentNode();
+            if (owner.getNodeName().equals("profile"))
+                plugin.setProfile(getChildText(owner, "id"));
+            if (managed)
+                c.pom.addManagedPlugin(plugin);
+            else
+                c.pom.addPlugin(plugin);
+            // 与原先 //plugin 的文档顺序一致：取第一个 surefire 插件
+            if (!foundSurefire && plugin.getArtifactId().equals(SUREFIRE)) {
+                foundSurefire = true;
+                if (configuration != null)
+                    addTestConfigurations(c.pom, configuration.getValues());
             }
         }
-        if (surefireNode == null)
-            return;
-        Node configurationNode = (Node) this.xpath.evaluate("configuration", surefireNode, XPathConstants.NODE);
-        NodeList configurationChildNodes = configurationNode.getChildNodes();
-        for (int j = 0; j < configurationChildNodes.getLength(); j++) {
-            //conItem是<configuration>的某个子结点
-            Node conItem = configurationChildNodes.item(j);
-            //如果conItem为ELEMENT_NODE，直接保存
-            if (Node.ELEMENT_NODE == conItem.getNodeType() && !conItem.getTextContent().trim().equals("")) {
-                System.out.println(conItem.getNodeName());
-                System.out.println(conItem.getTextContent());
-                this.pom.addTestConfigurations(conItem.getNodeName(), conItem.getTextContent().trim());
+    }
+
+    /**
+     * Surefire's top-level configuration values, recorded while its configuration was written, become the test
+     * configurations of a POM. The configuration itself is not expanded.
+     */
+    static void addTestConfigurations(POM pom, List<String> values) {
+        for (int i = 0; i < values.size(); i += 2) {
+            String value = values.get(i + 1);
+            if (!value.equals(""))
+                pom.addTestConfigurations(values.get(i), value);
+        }
+    }
+
+    private void addExecutions(Plugin plugin, Node executionsNode) {
+        NodeList executions = executionsNode.getChildNodes();
+        for (int i = 0; i < executions.getLength(); i++) {
+            Node node = executions.item(i);
+            if (Node.ELEMENT_NODE != node.getNodeType() || !node.getNodeName().equals("execution"))
+                continue;
+            PluginExecution execution = new PluginExecution();
+            NodeList fields = node.getChildNodes();
+            for (int j = 0; j < fields.getLength(); j++) {
+                Node field = fields.item(j);
+                if (Node.ELEMENT_NODE != field.getNodeType())
+                    continue;
+                String tag = field.getNodeName();
+                if (tag.equals("id")) {
+                    execution.setId(field.getTextContent().trim());
+                } else if (tag.equals("phase")) {
+                    execution.setPhase(field.getTextContent().trim());
+                } else if (tag.equals("configuration") && execution.getConfiguration() == null) {
+                    execution.setConfiguration(writeConfiguration(field).build());
+                } else if (tag.equals("goals")) {
+                    NodeList goals = field.getChildNodes();
+                    for (int k = 0; k < goals.getLength(); k++) {
+                        Node goal = goals.item(k);
+                        if (Node.ELEMENT_NODE == goal.getNodeType() && goal.getNodeName().equals("goal"))
+                            execution.addGoal(goal.getTextContent().trim());
+                    }
+                }
             }
+            plugin.addExecution(execution);
+        }
+    }
+
+    private static PluginConfiguration.Writer writeConfiguration(Node configuration) {
+        PluginConfiguration.Writer writer = new PluginConfiguration.Writer();
+        writeConfiguration(writer, configuration);
+        return writer;
+    }
+
+    //注释与处理指令不保留
+    private static void writeConfiguration(PluginConfiguration.Writer writer, Node element) {
+        TreeMap<String, String> attributes = null;
+        NamedNodeMap attrs = element.getAttributes();
+        for (int i = 0; attrs != null && i < attrs.getLength(); i++) {
+            Node attr = attrs.item(i);
+            String name = attr.getNodeName();
+            if (PluginConfiguration.isNamespaceDeclaration(name))
+                continue;
+            if (attributes == null)
+                attributes = new TreeMap<>();
+            attributes.put(name, attr.getNodeValue());
+        }
+        writer.startElement(element.getNodeName(), attributes, prefix -> namespaceOf(element, prefix));
+        NodeList childNodes = element.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node childNode = childNodes.item(i);
+            short type = childNode.getNodeType();
+            if (type == Node.ELEMENT_NODE)
+                writeConfiguration(writer, childNode);
+            else if (type == Node.TEXT_NODE || type == Node.CDATA_SECTION_NODE)
+                writer.text(childNode.getNodeValue());
         }
+        writer.endElement(element.getNodeName());
     }
 
-    private void addDependencies() throws Exception{
-        for (Node node : getNodes(
-                "/project/dependencies/dependency|/project/dependencyManagement/dependencies/dependency")) {
+    //Document 不识别命名空间，沿祖先查找前缀的声明
+    private static String namespaceOf(Node element, String prefix) {
+        String declaration = "xmlns:" + prefix;
+        for (Node node = element; node != null && node.getNodeType() == Node.ELEMENT_NODE; node = node.getParentNode()) {
+            Node attr = node.getAttributes().getNamedItem(declaration);
+            if (attr != null)
+                return attr.getNodeValue();
+        }
+        return null;
+    }
+
+    private static String getChildText(Node node, String name) {
+        NodeList childNodes = node.getChildNodes();
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node childNode = childNodes.item(i);
+            if (Node.ELEMENT_NODE == childNode.getNodeType() && childNode.getNodeName().equals(name))
+                return childNode.getTextContent().trim();
+        }
+        return "";
+    }
+
+    private void addDependencies(Context c) throws Exception{
+        for (Node node : getNodes(c, c.x.dependencies)) {
             NodeList childNodes = node.getChildNodes();
 
             String groupID = "";
             String artificatID = "";
             String version = "";
             String versionContent = "";
+            Dependency dependency = new Dependency(groupID, artificatID, version);
             for (int i=0; i < childNodes.getLength(); i++) {
                 Node childNode = childNodes.item(i);
                 if (Node.ELEMENT_NODE == childNode.getNodeType()) {
@@ -214,45 +686,96 @@ public class POMParser {
                             version = pom.getVersion();
                         }
                         version = replaceProperties(version);*/
+                    } else if (tag.equals("scope")) {
+                        dependency.setScope(childNode.getTextContent().trim());
+                    } else if (tag.equals("type")) {
+                        dependency.setType(childNode.getTextContent().trim());
+                    } else if (tag.equals("classifier")) {
+                        dependency.setClassifier(childNode.getTextContent().trim());
+                    } else if (tag.equals("optional")) {
+                        dependency.setOptional(childNode.getTextContent().trim().equals("true"));
+                    } else if (tag.equals("exclusions")) {
+                        addExclusions(dependency, childNode);
                     }
                 }
             }
 //            VersionSpecifier versionSpecifier = new VersionSpecifierParser().parse(version);
 //            versionSpecifier.setVersionContent(versionContent);
 
-            Dependency dependency = new Dependency(groupID, artificatID, version);
-            if (!groupID.contains("project.groupId") && !artificatID.contains("project.artifactId") && !version.contains("project.version") && !version.contains("project.parent.version"))
-                pom.addDependency(dependency);
+            dependency.setGroupID(groupID);
+            dependency.setArtifactID(artificatID);
+            dependency.setVersion(version);
+            //dependency -> dependencies -> dependencyManagement，BOM 中常用 ${project.version}，不过滤
+            Node container = node.getParentNode().getParentNode();
+            boolean managed = container.getNodeName().equals("dependencyManagement");
+            Profile profile = c.profiles.get(managed ? container.getParentNode() : container);
+            if (managed) {
+                if (profile != null)
+                    profile.addManagedDependency(dependency);
+                else
+                    c.pom.addManagedDependency(dependency);
+            } else if (!groupID.contains("project.groupId") && !artificatID.contains("project.artifactId") && !version.contains("project.version") && !version.contains("project.parent.version")) {
+                if (profile != null)
+                    profile.addDependency(dependency);
+                else
+                    c.pom.addDependency(dependency);
+            }
         }
     }
 
+    private void addExclusions(Dependency dependency, Node exclusionsNode) {
+        NodeList exclusions = exclusionsNode.getChildNodes();
+        for (int i = 0; i < exclusions.getLength(); i++) {
+            Node exclusion = exclusions.item(i);
+            if (Node.ELEMENT_NODE != exclusion.getNodeType() || !exclusion.getNodeName().equals("exclusion"))
+                continue;
+            String groupId = "";
+            String artifactId = "";
+            NodeList fields = exclusion.getChildNodes();
+            for (int j = 0; j < fields.getLength(); j++) {
+                Node field = fields.item(j);
+                if (field.getNodeName().equals("groupId"))
+                    groupId = field.getTextContent().trim();
+                else if (field.getNodeName().equals("artifactId"))
+                    artifactId = field.getTextContent().trim();
+            }
+            dependency.addExclusion(groupId, artifactId);
+        }
+    }
 
-    private String turnDocumentToString(String path) {
-        try {
-            // 读取 xml 文件
-            File fileinput = new File(path);
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(fileinput);
 
+    private Document getDocument(POMSource source, String path, long[] bytes) throws Exception {
+        // 读取 xml 文件，只解析一次，XPath 直接在这份 Document 上执行
+        try (CountingInputStream in = new CountingInputStream(source.open(path))) {
+            try {
+                return this.documentBuilders.get().parse(in, new File(path).toURI().toString());
+            } finally {
+                bytes[0] = in.getCount();
+            }
+        } catch (SAXParseException e) {
+            throw POMParseException.of(path, e);
+        }
+    }
+
+    private String turnDocumentToString(Document doc) {
+        try {
             DOMSource domSource = new DOMSource(doc);
             StringWriter writer = new StringWriter();
             StreamResult result = new StreamResult(writer);
-            TransformerFactory tf = TransformerFactory.newInstance();
-            Transformer transformer = tf.newTransformer();
+            Transformer transformer = this.transformers.get();
+            transformer.reset();
             transformer.transform(domSource, result);
 
 
             return writer.toString();
         } catch (Exception e) {
-            e.printStackTrace();
+            //序列化失败时不保留 raw，getRaw() 会从文件读取
             return null;
         }
     }
 
-    private ArrayList<Node> getNodes(String name) throws Exception {
-        XPathExpression expr = xpath.compile(name);
-        NodeList nodes = (NodeList) expr.evaluate(doc, XPathConstants.NODESET);
+    private ArrayList<Node> getNodes(Context c, XPathExpression expr) throws Exception {
+        NodeList nodes = (NodeList) expr.evaluate(c.doc, XPathConstants.NODESET);
         ArrayList<Node> result = new ArrayList<>();
 
         for (int i=0; i < nodes.getLength(); i++) {
@@ -264,9 +787,8 @@ public class POMParser {
         return result;
     }
 
-    private String getValue(String name) throws Exception {
+    private String getValue(Context c, XPathExpression expr) throws Exception {
         //System.out.println(name);
-        XPathExpression expr = xpath.compile(name);
-        return expr.evaluate(doc);
+        return expr.evaluate(c.doc);
     }
 }
@@ -0,0 +1,14 @@
+package parser;
+
+/**
+ * Looks up a POM by its coordinates, e.g. in a reactor or a {@link LocalRepository}.
+ * Used to find the BOMs named by {@code <scope>import</scope>} entries.
+ * @author i-Taozi
+ */
+public interface POMResolver {
+
+    /**
+     * @return The POM, or {@code null} when it cannot be found.
+     */
+    POM resolve(String groupId, String artifactId, String version);
+}
@@ -0,0 +1,34 @@
+package parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Where {@link POMParser} and {@link POMTree} read pom.xml files from. Paths keep their file system form
+ * (the repository directory joined with module names), a source maps them to its own storage.
+ * @author i-Taozi
+ */
+public interface POMSource {
+
+    /**
+     * The working tree, the default.
+     */
+    POMSource FILES = FilePOMSource.INSTANCE;
+
+    boolean exists(String path) throws IOException;
+
+    /**
+     * Size of the content in bytes, 0 when the path does not exist.
+     */
+    long size(String path) throws IOException;
+
+    InputStream open(String path) throws IOException;
+
+    /**
+     * An identifier that changes whenever the content does, such as a git blob id.
+     * POMs with the same identifier are parsed once and reused, {@code null} disables the reuse.
+     */
+    default String contentId(String path) throws IOException {
+        return null;
+    }
+}
@@ -0,0 +1,542 @@
+package parser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Streaming counterpart of the DOM/XPath pipeline in {@link POMParser}.
+ * It fills the same {@link POM} fields in one forward pass over the file,
+ * without building a DOM or serializing the document back to a String.
+ * The input factory is configured once in the constructor, after that an instance
+ * can be shared between threads since all per-file state lives in a {@code Handler}.
+ * Limits and hardening come from a {@link ParserConfig}, violations fail with a {@link POMParseException}.
+ * @author i-Taozi
+ */
+public class POMStaxParser {
+
+    private static final String CENTRAL = "https://repo1.maven.org/maven2/";
+    //os、property、file 下的条件，以 "os/family" 形式交给 ProfileActivation
+    private static final String ACTIVATION_PATH = "/project/profiles/profile/activation/";
+
+    private final ParserConfig config;
+    private final XMLInputFactory factory;
+
+    public POMStaxParser() {
+        this(ParserConfig.DEFAULT);
+    }
+
+    public POMStaxParser(ParserConfig config) {
+        this.config = config;
+        this.factory = config.newXMLInputFactory();
+        this.factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+    }
+
+    public ParserConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Parse the content of a pom.xml file without keeping its text in memory.
+     * @param path The path of a pom.xml file.
+     * @return The POM instance.
+     */
+    public POM parse(String path) throws Exception {
+        return parse(path, false);
+    }
+
+    /**
+     * Parse the content of a pom.xml file.
+     * @param path The path of a pom.xml file.
+     * @param retainRaw Keep the file content in {@code raw}, otherwise {@link POM#getRaw()} reads it on demand.
+     * @return The POM instance.
+     */
+    public POM parse(String path, boolean retainRaw) throws Exception {
+        return parse(POMSource.FILES, path, retainRaw);
+    }
+
+    /**
+     * Parse a pom.xml read from a {@link POMSource}.
+     */
+    public POM parse(POMSource source, String path, boolean retainRaw) throws Exception {
+        return parse(source, path, retainRaw, null);
+    }
+
+    //bytes 非空时记录实际读取的字节数
+    POM parse(POMSource source, String path, boolean retainRaw, long[] bytes) throws Exception {
+        this.config.checkFileSize(source, path);
+        POM pom = new POM();
+        pom.setPath(path);
+        pom.setSource(source);
+        try {
+            if (retainRaw) {
+                byte[] content = RawContent.read(source, path);
+                if (bytes != null)
+                    bytes[0] = content.length;
+                read(new ByteArrayInputStream(content), pom);
+                pom.setRaw(RawContent.decode(content));
+            } else {
+                try (CountingInputStream in = new CountingInputStream(source.open(path))) {
+                    try {
+                        read(in, pom);
+                    } finally {
+                        if (bytes != null)
+                            bytes[0] = in.getCount();
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw POMParseException.of(path, e);
+        }
+        return pom;
+    }
+
+    private void read(InputStream in, POM pom) throws Exception {
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+        try {
+            new Handler(pom, config.isAllowDoctype()).read(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private enum Field {
+        PACKAGING, GROUP_ID, ARTIFACT_ID, VERSION,
+        PARENT_GROUP_ID, PARENT_ARTIFACT_ID, PARENT_VERSION,
+        PROPERTY, MODULE,
+        DEPENDENCY_GROUP_ID, DEPENDENCY_ARTIFACT_ID, DEPENDENCY_VERSION,
+        DEPENDENCY_SCOPE, DEPENDENCY_TYPE, DEPENDENCY_CLASSIFIER, DEPENDENCY_OPTIONAL,
+        EXCLUSION_GROUP_ID, EXCLUSION_ARTIFACT_ID,
+        REPOSITORY_URL, PROFILE_ID, ACTIVATION,
+        PROFILE_PROPERTY, PROFILE_MODULE, PROFILE_REPOSITORY_URL,
+        PLUGIN_GROUP_ID, PLUGIN_ARTIFACT_ID, PLUGIN_VERSION,
+        EXECUTION_ID, EXECUTION_PHASE, EXECUTION_GOAL
+    }
+
+    /**
+     * An element whose text content is being collected. Captures may nest, they share one buffer.
+     */
+    private static final class Capture {
+        final Field field;
+        final String name;
+        final int depth;
+        final int start;
+
+        Capture(Field field, String name, int depth, int start) {
+            this.field = field;
+            this.name = name;
+            this.depth = depth;
+            this.start = start;
+        }
+    }
+
+    private static final class Handler {
+        private final POM pom;
+        private final boolean allowDoctype;
+        private final StringBuilder path = new StringBuilder();
+        private final ArrayDeque<Integer> pathLengths = new ArrayDeque<>();
+        private final StringBuilder text = new StringBuilder();
+        private final ArrayDeque<Capture> captures = new ArrayDeque<>();
+        private int depth;
+
+        private String packaging = "";
+        private String groupId = "";
+        private String artifactId = "";
+        private String version = "";
+        private String parentGroupId = "";
+        private String parentArtifactId = "";
+        private String parentVersion = "";
+
+        //正在读取的依赖，dependencyDepth 为 <dependency> 所在深度
+        private Dependency dependency;
+        private boolean dependencyManaged;
+        private int dependencyDepth;
+        private String[] exclusion;
+
+        //正在读取的插件与执行，pluginDepth 为 <plugin> 所在深度
+        private Plugin plugin;
+        private boolean pluginManaged;
+        private int pluginDepth;
+        private boolean inExecutions;
+        private PluginExecution execution;
+        private boolean inGoals;
+        //当前插件 <configuration> 的顶层值，以及第一个 surefire 插件的
+        private List<String> pluginValues;
+        private boolean foundSurefire;
+        private List<String> surefireValues;
+
+        //正在写出的 <configuration>，其下的元素不再按路径匹配
+        private PluginConfiguration.Writer configuration;
+        private int configurationDepth;
+
+        //正在读取的 profile 与其中的插件，profile 结束时设置插件的 id，因为 <id> 可能在 <build> 之后
+        private Profile profile;
+        private final List<Plugin> profilePlugins = new ArrayList<>();
+
+        Handler(POM pom, boolean allowDoctype) {
+            this.pom = pom;
+            this.allowDoctype = allowDoctype;
+        }
+
+        void read(XMLStreamReader reader) throws Exception {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        startElement(reader);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        endElement(reader);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if (configuration != null)
+                            configuration.text(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        else if (!captures.isEmpty())
+                            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case XMLStreamConstants.DTD:
+                        if (!allowDoctype)
+                            throw new XMLStreamException("DOCTYPE is disallowed", reader.getLocation());
+                        break;
+                    default:
+                        break;
+                }
+            }
+            finish();
+        }
+
+        private boolean at(String expected) {
+            return expected.contentEquals(path);
+        }
+
+        private boolean under(String parent) {
+            int length = pathLengths.peek();
+            return length == parent.length() && path.indexOf(parent) == 0;
+        }
+
+        private void startElement(XMLStreamReader reader) {
+            String name = reader.getLocalName();
+            int parentLength = path.length();
+            path.append('/').append(name);
+            pathLengths.push(parentLength);
+            depth++;
+
+            if (configuration != null) {
+                configuration.startElement(qualifiedName(reader), attributes(reader), namespaces(reader));
+                return;
+            }
+            if (plugin != null) {
+                startPluginElement(reader, name);
+                return;
+            }
+            if (dependency != null) {
+                if (depth == dependencyDepth + 1) {
+                    captureDependencyField(name);
+                } else if (depth == dependencyDepth + 2 && name.equals("exclusion")) {
+                    exclusion = new String[]{"", ""};
+                } else if (depth == dependencyDepth + 3 && exclusion != null) {
+                    if (name.equals("groupId")) capture(Field.EXCLUSION_GROUP_ID, name);
+                    else if (name.equals("artifactId")) capture(Field.EXCLUSION_ARTIFACT_ID, name);
+                }
+                return;
+            }
+
+            switch (depth) {
+                case 2:
+                    if (at("/project/packaging")) capture(Field.PACKAGING, name);
+                    else if (at("/project/groupId")) capture(Field.GROUP_ID, name);
+                    else if (at("/project/artifactId")) capture(Field.ARTIFACT_ID, name);
+                    else if (at("/project/version")) capture(Field.VERSION, name);
+                    break;
+                case 3:
+                    if (at("/project/parent/groupId")) capture(Field.PARENT_GROUP_ID, name);
+                    else if (at("/project/parent/artifactId")) capture(Field.PARENT_ARTIFACT_ID, name);
+                    else if (at("/project/parent/version")) capture(Field.PARENT_VERSION, name);
+                    else if (under("/project/properties")) capture(Field.PROPERTY, name);
+                    else if (at("/project/modules/module")) capture(Field.MODULE, name);
+                    else if (at("/project/dependencies/dependency")) startDependency(false);
+                    else if (at("/project/profiles/profile")) profile = new Profile();
+                    break;
+                case 4:
+                    if (at("/project/repositories/repository/url")) capture(Field.REPOSITORY_URL, name);
+                    else if (at("/project/dependencyManagement/dependencies/dependency")) startDependency(true);
+                    else if (at("/project/build/plugins/plugin")) startPlugin(false);
+                    else if (at("/project/profiles/profile/id")) capture(Field.PROFILE_ID, name);
+                    break;
+                case 5:
+                    if (at("/project/build/pluginManagement/plugins/plugin")) startPlugin(true);
+                    else if (under("/project/profiles/profile/activation")) capture(Field.ACTIVATION, name);
+                    else if (under("/project/profiles/profile/properties")) capture(Field.PROFILE_PROPERTY, name);
+                    else if (at("/project/profiles/profile/modules/module")) capture(Field.PROFILE_MODULE, name);
+                    else if (at("/project/profiles/profile/dependencies/dependency")) startDependency(false);
+                    break;
+                case 6:
+                    if (at("/project/profiles/profile/build/plugins/plugin")) startPlugin(false);
+                    else if (path.indexOf(ACTIVATION_PATH) == 0)
+                        capture(Field.ACTIVATION, path.substring(ACTIVATION_PATH.length()));
+                    else if (at("/project/profiles/profile/repositories/repository/url"))
+                        capture(Field.PROFILE_REPOSITORY_URL, name);
+                    else if (at("/project/profiles/profile/dependencyManagement/dependencies/dependency"))
+                        startDependency(true);
+                    break;
+                case 7:
+                    if (at("/project/profiles/profile/build/pluginManagement/plugins/plugin")) startPlugin(true);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private void startPluginElement(XMLStreamReader reader, String name) {
+            if (execution != null) {
+                int executionDepth = pluginDepth + 2;
+                if (depth == executionDepth + 1) {
+                    if (name.equals("id")) capture(Field.EXECUTION_ID, name);
+                    else if (name.equals("phase")) capture(Field.EXECUTION_PHASE, name);
+                    else if (name.equals("goals")) inGoals = true;
+                    else if (name.equals("configuration") && execution.getConfiguration() == null)
+                        startConfiguration(reader);
+                } else if (depth == executionDepth + 2 && inGoals && name.equals("goal")) {
+                    capture(Field.EXECUTION_GOAL, name);
+                }
+                return;
+            }
+            if (depth == pluginDepth + 1) {
+                if (name.equals("groupId")) capture(Field.PLUGIN_GROUP_ID, name);
+                else if (name.equals("artifactId")) capture(Field.PLUGIN_ARTIFACT_ID, name);
+                else if (name.equals("version")) capture(Field.PLUGIN_VERSION, name);
+                else if (name.equals("executions")) inExecutions = true;
+                else if (name.equals("configuration") && plugin.getConfiguration() == null)
+                    startConfiguration(reader);
+            } else if (depth == pluginDepth + 2 && inExecutions && name.equals("execution")) {
+                execution = new PluginExecution();
+            }
+        }
+
+        private void endElement(XMLStreamReader reader) {
+            String name = reader.getLocalName();
+            if (configuration != null) {
+                configuration.endElement(qualifiedName(reader));
+                if (depth == configurationDepth) {
+                    if (execution != null)
+                        execution.setConfiguration(configuration.build());
+                    else {
+                        plugin.setConfiguration(configuration.build());
+                        pluginValues = configuration.getValues();
+                    }
+                    configuration = null;
+                }
+                path.setLength(pathLengths.pop());
+                depth--;
+                return;
+            }
+
+            Capture capture = captures.peek();
+            if (capture != null && capture.depth == depth) {
+                captures.pop();
+                String value = text.substring(capture.start);
+                if (captures.isEmpty())
+                    text.setLength(0);
+                assign(capture, value);
+            }
+
+            if (plugin != null) {
+                if (depth == pluginDepth) {
+                    endPlugin();
+                } else if (execution != null && depth == pluginDepth + 2) {
+                    plugin.addExecution(execution);
+                    execution = null;
+                    inGoals = false;
+                } else if (depth == pluginDepth + 1 && name.equals("executions")) {
+                    inExecutions = false;
+                }
+            }
+
+            if (dependency != null) {
+                if (depth == dependencyDepth) {
+                    endDependency();
+                } else if (depth == dependencyDepth + 2 && exclusion != null) {
+                    dependency.addExclusion(exclusion[0], exclusion[1]);
+                    exclusion = null;
+                }
+            }
+
+            if (depth == 3 && at("/project/profiles/profile"))
+                endProfile();
+
+            path.setLength(pathLengths.pop());
+            depth--;
+        }
+
+        private void capture(Field field, String name) {
+            captures.push(new Capture(field, name, depth, text.length()));
+        }
+
+        private void captureDependencyField(String name) {
+            if (name.equals("groupId")) capture(Field.DEPENDENCY_GROUP_ID, name);
+            else if (name.equals("artifactId")) capture(Field.DEPENDENCY_ARTIFACT_ID, name);
+            else if (name.equals("version")) capture(Field.DEPENDENCY_VERSION, name);
+            else if (name.equals("scope")) capture(Field.DEPENDENCY_SCOPE, name);
+            else if (name.equals("type")) capture(Field.DEPENDENCY_TYPE, name);
+            else if (name.equals("classifier")) capture(Field.DEPENDENCY_CLASSIFIER, name);
+            else if (name.equals("optional")) capture(Field.DEPENDENCY_OPTIONAL, name);
+        }
+
+        private void assign(Capture capture, String value) {
+            switch (capture.field) {
+                case PACKAGING: packaging = value; break;
+                case GROUP_ID: groupId = value; break;
+                case ARTIFACT_ID: artifactId = value; break;
+                case VERSION: version = value; break;
+                case PARENT_GROUP_ID: parentGroupId = value; break;
+                case PARENT_ARTIFACT_ID: parentArtifactId = value; break;
+                case PARENT_VERSION: parentVersion = value; break;
+                case PROPERTY: pom.addProperty(capture.name, value); break;
+                case MODULE: pom.addModule(value); break;
+                case DEPENDENCY_GROUP_ID: dependency.setGroupID(value); break;
+                case DEPENDENCY_ARTIFACT_ID: dependency.setArtifactID(value); break;
+                case DEPENDENCY_VERSION: dependency.setVersion(value); break;
+                case DEPENDENCY_SCOPE: dependency.setScope(value.trim()); break;
+                case DEPENDENCY_TYPE: dependency.setType(value.trim()); break;
+                case DEPENDENCY_CLASSIFIER: dependency.setClassifier(value.trim()); break;
+                case DEPENDENCY_OPTIONAL: dependency.setOptional(value.trim().equals("true")); break;
+                case EXCLUSION_GROUP_ID: exclusion[0] = value.trim(); break;
+                case EXCLUSION_ARTIFACT_ID: exclusion[1] = value.trim(); break;
+                case REPOSITORY_URL:
+                    pom.addRepositoryUrl(value.endsWith("/") ? value : value + "/");
+                    break;
+                case PROFILE_ID: profile.setId(value.trim()); break;
+                case ACTIVATION: profile.getActivation().set(capture.name, value.trim()); break;
+                case PROFILE_PROPERTY: profile.addProperty(capture.name, value); break;
+                case PROFILE_MODULE: profile.addModule(value); break;
+                case PROFILE_REPOSITORY_URL:
+                    profile.addRepositoryUrl(value.endsWith("/") ? value : value + "/");
+                    break;
+                case PLUGIN_GROUP_ID: plugin.setGroupId(value.trim()); break;
+                case PLUGIN_ARTIFACT_ID: plugin.setArtifactId(value.trim()); break;
+                case PLUGIN_VERSION: plugin.setVersion(value.trim()); break;
+                case EXECUTION_ID: execution.setId(value.trim()); break;
+                case EXECUTION_PHASE: execution.setPhase(value.trim()); break;
+                case EXECUTION_GOAL: execution.addGoal(value.trim()); break;
+                default:
+                    break;
+            }
+        }
+
+        private void startDependency(boolean managed) {
+            dependency = new Dependency("", "", "");
+            dependencyManaged = managed;
+            dependencyDepth = depth;
+        }
+
+        private void endDependency() {
+            String groupID = dependency.getGroupID();
+            String artifactID = dependency.getArtifactID();
+            String version = dependency.getVersion();
+            if (dependencyManaged) {
+                if (profile != null)
+                    profile.addManagedDependency(dependency);
+                else
+                    pom.addManagedDependency(dependency);
+            } else if (!groupID.contains("project.groupId") && !artifactID.contains("project.artifactId")
+                    && !version.contains("project.version") && !version.contains("project.parent.version")) {
+                if (profile != null)
+                    profile.addDependency(dependency);
+                else
+                    pom.addDependency(dependency);
+            }
+            dependency = null;
+            exclusion = null;
+        }
+
+        private void startPlugin(boolean managed) {
+            plugin = new Plugin();
+            pluginManaged = managed;
+            pluginDepth = depth;
+            pluginValues = null;
+        }
+
+        private void endPlugin() {
+            if (pluginManaged)
+                pom.addManagedPlugin(plugin);
+            else
+                pom.addPlugin(plugin);
+            //profile 中的插件在第 6、7 层
+            if (depth >= 6)
+                profilePlugins.add(plugin);
+            // 与原先 //plugin 的文档顺序一致：取第一个 surefire 插件
+            if (!foundSurefire && plugin.getArtifactId().equals(POMParser.SUREFIRE)) {
+                foundSurefire = true;
+                surefireValues = pluginValues;
+            }
+            plugin = null;
+            inExecutions = false;
+            execution = null;
+        }
+
+        private void endProfile() {
+            for (Plugin item : profilePlugins) {
+                item.setProfile(profile.getId());
+            }
+            profilePlugins.clear();
+            pom.addProfile(profile);
+            profile = null;
+        }
+
+        private void startConfiguration(XMLStreamReader reader) {
+            configuration = new PluginConfiguration.Writer();
+            configurationDepth = depth;
+            configuration.startElement(qualifiedName(reader), attributes(reader), namespaces(reader));
+        }
+
+        //与 DOM 的 getNodeName() 一致，保留前缀
+        private static String qualifiedName(XMLStreamReader reader) {
+            String prefix = reader.getPrefix();
+            String name = reader.getLocalName();
+            return prefix == null || prefix.isEmpty() ? name : prefix + ":" + name;
+        }
+
+        //只在当前 START_ELEMENT 上调用
+        private static UnaryOperator<String> namespaces(XMLStreamReader reader) {
+            return prefix -> {
+                String uri = reader.getNamespaceURI(prefix);
+                return uri == null || uri.isEmpty() ? null : uri;
+            };
+        }
+
+        private static TreeMap<String, String> attributes(XMLStreamReader reader) {
+            int count = reader.getAttributeCount();
+            if (count == 0)
+                return null;
+            TreeMap<String, String> attributes = new TreeMap<>();
+            for (int i = 0; i < count; i++) {
+                String prefix = reader.getAttributePrefix(i);
+                String name = reader.getAttributeLocalName(i);
+                attributes.put(prefix == null || prefix.isEmpty() ? name : prefix + ":" + name, reader.getAttributeValue(i));
+            }
+            return attributes;
+        }
+
+        private void finish() {
+            pom.setPackaging(packaging);
+            pom.setGroupId(groupId.equals("") ? parentGroupId : groupId);
+            pom.setArtifactId(artifactId.equals("") ? parentArtifactId : artifactId);
+            pom.setVersion(version.equals("") ? parentVersion : version);
+            pom.setParentGroupId(parentGroupId);
+            pom.setParentArtifactId(parentArtifactId);
+            pom.setParentVersion(parentVersion);
+            if (surefireValues != null)
+                POMParser.addTestConfigurations(pom, surefireValues);
+            pom.addRepositoryUrl(CENTRAL);
+        }
+    }
+}
@@ -1,18 +1,30 @@
 package parser;
 
 import lombok.Getter;
+import lombok.Setter;
 
-import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 /**
  * @author i-Taozi
  */
-public class POMTree {
+public class POMTree implements POMResolver {
     @Getter
     private ArrayList<POM> pomList = new ArrayList<>();
 
@@ -21,9 +33,90 @@ public class POMTree {
 
     private POM rootPom = null;
 
+    //groupId:artifactId -> 反应堆中的POM，按 pomList 顺序
+    private Map<String, List<POM>> pomIndex = new HashMap<>();
+
+    //规范化的绝对路径 -> POM，以及每个POM所在的聚合POM，供 reload 增量更新使用
+    private Map<String, POM> pathIndex = new HashMap<>();
+    private Map<POM, POM> aggregators = new IdentityHashMap<>();
+
+    //只由 profile 声明、不在聚合树中的模块，getEffectiveModels 按需解析一次，reload 时清空
+    private final Map<String, POM> profileModules = new HashMap<>();
+
+    private final POMParser pomParser;
+
+    //读取 pom.xml 的来源，默认文件系统
+    private final POMSource source;
+
+    //最近一次 freeze() 的结果，发布后供其他线程无锁读取
+    private volatile FrozenPOMTree frozen;
+
+    /**
+     * Number of threads used to parse sibling modules concurrently, 1 builds the aggregator tree serially.
+     */
+    @Getter
+    @Setter
+    private int parallelism = 1;
+
+    /**
+     * Pool used to dedupe coordinate, version and property strings across the POMs of this tree.
+     * Share one pool between trees to dedupe across them, {@code null} keeps the parsed strings as they are.
+     */
+    @Getter
+    @Setter
+    private StringPool stringPool = new StringPool();
+
+    /**
+     * Where parents outside the reactor are resolved from, {@code null} leaves them unresolved.
+     */
+    @Getter
+    @Setter
+    private LocalRepository localRepository;
+
+    /**
+     * Build the aggregator tree from a one-pass discovery of every pom.xml instead of following {@code <modules>}
+     * file by file. Declared modules that are missing are skipped rather than failing the build, see
+     * {@link #getDiscoveryReport()}. {@code null} keeps the default module walk.
+     */
+    @Getter
+    @Setter
+    private POMDiscovery discovery;
+
+    //最近一次发现模式建树的结果
+    @Getter
+    private DiscoveryReport discoveryReport;
+
+    /**
+     * Receives the tree-building phases. Per-file phases come from the parser's own listener.
+     */
+    @Getter
+    private MetricsListener metrics = MetricsListener.NONE;
+
+    public void setMetrics(MetricsListener metrics) {
+        this.metrics = metrics == null ? MetricsListener.NONE : metrics;
+    }
+
     public POMTree(String repoDir) {
+        this(repoDir, new POMParser());
+    }
+
+    public POMTree(String repoDir, POMParser pomParser) {
+        this(repoDir, pomParser, POMSource.FILES);
+    }
+
+    /**
+     * A tree whose pom.xml files are read from a {@link POMSource}, e.g. a {@link GitPOMSource} for a commit.
+     * Paths are still formed from {@code repoDir}, the source maps them to its storage.
+     */
+    public POMTree(String repoDir, POMParser pomParser, POMSource source) {
         this.repoDir = repoDir;
         this.repoName = Paths.get(repoDir).getFileName().toString();
+        this.pomParser = pomParser;
+        this.source = source;
+    }
+
+    public POMSource getSource() {
+        return source;
     }
 
     public POM createPomTree() throws Exception {
@@ -31,52 +124,592 @@ public class POMTree {
             return this.rootPom;
 
         String rootPomFilePath = Paths.get(this.repoDir, "pom.xml").normalize().toString();
-        File file = new File(rootPomFilePath);
-        if (!file.exists()) {
+        if (!this.source.exists(rootPomFilePath)) {
             throw new Exception("根目录pom文件" + rootPomFilePath + "不存在");
         }
+        MetricsListener metrics = this.metrics;
+        long start = metrics == MetricsListener.NONE ? 0 : System.nanoTime();
+        long t = start;
         //生成聚合树
-        this.rootPom = createAggregatorTree(rootPomFilePath);
+        if (this.discovery != null) {
+            if (this.source != POMSource.FILES)
+                throw new Exception("发现模式只支持文件系统来源: " + this.source);
+            this.discoveryReport = this.discovery.discover(this.repoDir, this.pomParser);
+            if (this.discoveryReport.getRootPom() == null)
+                throw new Exception("根目录pom文件" + rootPomFilePath + "解析失败", this.discoveryReport.getFailures().get(this.discoveryReport.getRootPath()));
+            this.rootPom = this.discoveryReport.getRootPom();
+        } else if (this.parallelism > 1) {
+            ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+            try {
+                this.rootPom = createAggregatorTree(rootPomFilePath, this.pomParser, this.source, pool);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            this.rootPom = createAggregatorTree(rootPomFilePath, this.pomParser, this.source);
+        }
+
+        t = POMParser.lap(metrics, MetricsListener.Phase.AGGREGATOR_TREE, rootPomFilePath, t);
 
         setPomList(this.rootPom, this.pomList);
+        if (this.stringPool != null) {
+            for (POM pom : this.pomList) {
+                this.stringPool.intern(pom);
+            }
+        }
+        createIndexes();
+        t = POMParser.lap(metrics, MetricsListener.Phase.INDEX, rootPomFilePath, t);
         //生成继承树关系
-        createInheritanceTree(this.rootPom, this.pomList);
+        createInheritanceTree(this.pomIndex, this.pomList, this.localRepository);
+        POMParser.lap(metrics, MetricsListener.Phase.INHERITANCE, rootPomFilePath, t);
+        if (metrics != MetricsListener.NONE)
+            metrics.treeBuilt(rootPomFilePath, this.pomList.size(), System.nanoTime() - start);
 
         //setRelativePath(projectName);
         return rootPom;
     }
 
+    private void createIndexes() {
+        this.pomIndex = createPomIndex(this.pomList);
+        for (POM pom : this.pomList) {
+            this.pathIndex.put(pathKey(pom.getPath()), pom);
+            pom.setPomResolver(this);
+            for (POM module : pom.getAggregatorPoms()) {
+                this.aggregators.put(module, pom);
+            }
+        }
+    }
+
+    /**
+     * Adopt an already linked aggregator and inheritance tree, e.g. one loaded from a {@link POMTreeSnapshot}.
+     */
+    void restore(POM rootPom) {
+        this.rootPom = rootPom;
+        setPomList(rootPom, this.pomList);
+        createIndexes();
+    }
+
+    /**
+     * The root pom.xml of the reactor, {@code null} until the tree is built.
+     */
+    public POM getRootPom() {
+        return rootPom;
+    }
+
+    public String getRepoDir() {
+        return repoDir;
+    }
+
+    /**
+     * Build the tree if needed and take an immutable {@link FrozenPOMTree} of it, which also becomes
+     * the one returned by {@link #getFrozen()}. Call again after {@link #reload(String)} to swap in a new snapshot;
+     * readers holding the previous one are not affected.
+     */
+    public synchronized FrozenPOMTree freeze() throws Exception {
+        createPomTree();
+        FrozenPOMTree frozen = FrozenPOMTree.of(this.rootPom, this.pomList);
+        this.frozen = frozen;
+        return frozen;
+    }
+
+    /**
+     * The snapshot published by the last {@link #freeze()}, {@code null} if the tree was never frozen.
+     */
+    public FrozenPOMTree getFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Write the built tree to a {@link POMTreeSnapshot} file.
+     */
+    public void saveSnapshot(Path file) throws Exception {
+        createPomTree();
+        POMTreeSnapshot.write(this, file);
+    }
+
+    /**
+     * Load a tree saved with {@link #saveSnapshot(Path)} instead of parsing the repository.
+     */
+    public static POMTree loadSnapshot(Path file) throws Exception {
+        return POMTreeSnapshot.read(file);
+    }
+
     public static POM createAggregatorTree(String pomFilePath) throws Exception {
-        POMParser pomParser = new POMParser();
+        return createAggregatorTree(pomFilePath, new POMParser());
+    }
+
+    public static POM createAggregatorTree(String pomFilePath, POMParser pomParser) throws Exception {
+        return createAggregatorTree(pomFilePath, pomParser, POMSource.FILES);
+    }
+
+    public static POM createAggregatorTree(String pomFilePath, POMParser pomParser, POMSource source) throws Exception {
         //File file =
-        POM rootPom = pomParser.parse(pomFilePath);
+        POM rootPom = pomParser.parse(source, pomFilePath);
         if (rootPom.getPackaging().equals("pom") && rootPom.getModules().size() > 0) {
             for (String moduleName : rootPom.getModules()) {
-                String modulePath = Paths.get(Paths.get(pomFilePath).getParent().toString(), moduleName, "pom.xml").toString();
+                String modulePath = modulePath(pomFilePath, moduleName);
                 //System.out.println(modulePath);
-                POM modulePom = createAggregatorTree(modulePath);
+                POM modulePom = createAggregatorTree(modulePath, pomParser, source);
                 rootPom.addAggregatorPom(modulePom);
             }
         }
         return rootPom;
     }
 
+    /**
+     * Build the aggregator tree on the given pool, sibling modules are parsed concurrently.
+     * The parser must be thread-safe; modules keep their declared order in {@code aggregatorPoms}.
+     */
+    public static POM createAggregatorTree(String pomFilePath, POMParser pomParser, ForkJoinPool pool) throws Exception {
+        return createAggregatorTree(pomFilePath, pomParser, POMSource.FILES, pool);
+    }
+
+    public static POM createAggregatorTree(String pomFilePath, POMParser pomParser, POMSource source, ForkJoinPool pool) throws Exception {
+        try {
+            return pool.invoke(new AggregatorTask(pomFilePath, pomParser, source));
+        } catch (CompletionException e) {
+            //ForkJoinTask 在 join 时可能再包一层 CompletionException
+            Throwable cause = e;
+            while (cause instanceof CompletionException && cause.getCause() != null)
+                cause = cause.getCause();
+            if (cause instanceof Exception)
+                throw (Exception) cause;
+            throw e;
+        }
+    }
+
+    private static String modulePath(String pomFilePath, String moduleName) {
+        return Paths.get(Paths.get(pomFilePath).getParent().toString(), moduleName, "pom.xml").toString();
+    }
+
+    private static class AggregatorTask extends RecursiveTask<POM> {
+        private final String pomFilePath;
+        private final POMParser pomParser;
+        private final POMSource source;
+
+        AggregatorTask(String pomFilePath, POMParser pomParser, POMSource source) {
+            this.pomFilePath = pomFilePath;
+            this.pomParser = pomParser;
+            this.source = source;
+        }
+
+        @Override
+        protected POM compute() {
+            POM pom;
+            try {
+                pom = pomParser.parse(source, pomFilePath);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+            if (pom.getPackaging().equals("pom") && pom.getModules().size() > 0) {
+                List<AggregatorTask> tasks = new ArrayList<>();
+                for (String moduleName : pom.getModules()) {
+                    tasks.add(new AggregatorTask(modulePath(pomFilePath, moduleName), pomParser, source));
+                }
+                invokeAll(tasks);
+                //按声明顺序挂载子模块
+                for (AggregatorTask task : tasks) {
+                    pom.addAggregatorPom(task.join());
+                }
+            }
+            return pom;
+        }
+    }
+
     public static void createInheritanceTree(POM pom, List<POM> pomList) {
+        createInheritanceTree(createPomIndex(pomList), pomList);
+    }
+
+    /**
+     * Link every POM to its parent through the index, one lookup per POM.
+     * When several POMs share the parent's groupId:artifactId the one with the matching version wins,
+     * otherwise the first in {@code pomList} order.
+     */
+    public static void createInheritanceTree(Map<String, List<POM>> pomIndex, List<POM> pomList) {
+        createInheritanceTree(pomIndex, pomList, null);
+    }
+
+    /**
+     * Same as {@link #createInheritanceTree(Map, List)}, parents outside the reactor are resolved
+     * from the local repository when one is given.
+     */
+    public static void createInheritanceTree(Map<String, List<POM>> pomIndex, List<POM> pomList,
+                                             LocalRepository localRepository) {
         //对于每个pom，找到其父POM
         for (POM childPom : pomList) {
-            //如果该POM有父POM
-            if (childPom.hasParent()) {
-                //去PomList里面找到这个父POM，并覆盖之前的Parent POM变量
-                for (POM parentPom : pomList) {
-                    if (parentPom.getGroupId().equals(childPom.getParentGroupId()) && parentPom.getArtifactId().equals(childPom.getParentArtifactId())) {
-                        childPom.setParent(parentPom);
-                        parentPom.addChildPom(childPom);
+            linkParent(childPom, pomIndex, localRepository);
+        }
+    }
+
+    private static void linkParent(POM childPom, Map<String, List<POM>> pomIndex, LocalRepository localRepository) {
+        //如果该POM有父POM
+        if (childPom.hasParent()) {
+            POM parentPom = findPom(pomIndex, childPom.getParentGroupId(), childPom.getParentArtifactId(),
+                    childPom.getParentVersion());
+            if (parentPom != null && parentPom != childPom) {
+                childPom.setParent(parentPom);
+                parentPom.addChildPom(childPom);
+                return;
+            }
+        }
+        //反应堆之外的父POM：共享的缓存实例只设置 parent，不登记子POM
+        if (localRepository != null && !childPom.getParentGroupId().equals("")) {
+            POM parentPom = localRepository.resolve(childPom.getParentGroupId(), childPom.getParentArtifactId(),
+                    childPom.getParentVersion());
+            if (parentPom != null)
+                childPom.setParent(parentPom);
+        }
+    }
+
+    /**
+     * Index POMs by groupId:artifactId, keeping list order for duplicate coordinates.
+     */
+    public static Map<String, List<POM>> createPomIndex(List<POM> pomList) {
+        Map<String, List<POM>> index = new HashMap<>(pomList.size() * 2);
+        for (POM pom : pomList) {
+            index.computeIfAbsent(indexKey(pom.getGroupId(), pom.getArtifactId()), k -> new ArrayList<>(1)).add(pom);
+        }
+        return index;
+    }
+
+    static String indexKey(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    private static POM findPom(Map<String, List<POM>> pomIndex, String groupId, String artifactId, String version) {
+        List<POM> poms = pomIndex.get(indexKey(groupId, artifactId));
+        if (poms == null)
+            return null;
+        if (version != null) {
+            for (POM pom : poms) {
+                if (version.equals(pom.getVersion()))
+                    return pom;
+            }
+        }
+        return poms.get(0);
+    }
+
+    /**
+     * Find a POM of this tree by coordinates, {@code null} when it is not part of the reactor.
+     */
+    public POM findPom(String groupId, String artifactId) {
+        return findPom(this.pomIndex, groupId, artifactId, null);
+    }
+
+    /**
+     * Find a POM of this tree by coordinates, preferring the one with the given version.
+     */
+    public POM findPom(String groupId, String artifactId, String version) {
+        return findPom(this.pomIndex, groupId, artifactId, version);
+    }
+
+    /**
+     * Resolve a POM in the reactor first, then in the {@link #getLocalRepository() local repository}.
+     * Only an exact version match is taken from the reactor.
+     */
+    @Override
+    public POM resolve(String groupId, String artifactId, String version) {
+        POM pom = findPom(this.pomIndex, groupId, artifactId, version);
+        if (pom != null && pom.getVersion().equals(version))
+            return pom;
+        return this.localRepository == null ? null : this.localRepository.resolve(groupId, artifactId, version);
+    }
+
+
+    /**
+     * Re-parse one pom.xml of the tree and re-link only the affected part of the aggregator and inheritance trees.
+     * Unchanged modules keep their POM instances; cached properties and dependencies are dropped only for the
+     * reloaded POM and the POMs that inherit from it or were re-linked.
+     * A path that is not part of the tree yet is picked up when an aggregator declares it as a module.
+     * @param path The path of a pom.xml file that was modified, created or deleted.
+     * @return The change, or {@code null} when the path does not belong to this tree.
+     */
+    public synchronized POMChange reload(String path) throws Exception {
+        if (this.rootPom == null)
+            createPomTree();
+        this.profileModules.clear();
+        String key = pathKey(path);
+        POM old = this.pathIndex.get(key);
+        if (old == null) {
+            POM aggregator = findDeclaringAggregator(key);
+            return aggregator == null ? null : reload(aggregator.getPath());
+        }
+        POM aggregator = this.aggregators.get(old);
+        Set<POM> relink = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        if (!this.source.exists(old.getPath())) {
+            if (aggregator == null)
+                throw new Exception("根目录pom文件" + old.getPath() + "不存在");
+            POMChange change = new POMChange(POMChange.Type.REMOVED, old.getPath(), old, null);
+            aggregator.getAggregatorPoms().removeIf(p -> p == old);
+            removeSubtree(old, change.getRemovedPoms(), relink);
+            relinkAll(relink, change);
+            rebuildPomList();
+            return change;
+        }
+
+        POM pom = this.pomParser.parse(this.source, old.getPath());
+        if (this.stringPool != null)
+            this.stringPool.intern(pom);
+        POMChange change = new POMChange(POMChange.Type.MODIFIED, old.getPath(), old, pom);
+        Set<String> touched = new HashSet<>();
+
+        //聚合树：沿用未变化的子模块，解析新增的子模块，移除删除的子模块
+        Map<String, POM> oldModules = new HashMap<>();
+        for (POM module : old.getAggregatorPoms()) {
+            oldModules.put(pathKey(module.getPath()), module);
+        }
+        if (pom.getPackaging().equals("pom")) {
+            for (String moduleName : pom.getModules()) {
+                String modulePath = modulePath(pom.getPath(), moduleName);
+                POM module = oldModules.remove(pathKey(modulePath));
+                if (module != null) {
+                    pom.getAggregatorPoms().add(module);
+                    this.aggregators.put(module, pom);
+                    if (module.getParent() == old)
+                        relink.add(module);
+                } else if (this.source.exists(modulePath)) {
+                    module = createAggregatorTree(modulePath, this.pomParser, this.source);
+                    pom.addAggregatorPom(module);
+                    List<POM> added = new ArrayList<>();
+                    setPomList(module, added);
+                    for (POM p : added) {
+                        if (this.stringPool != null)
+                            this.stringPool.intern(p);
+                        addToIndex(p, touched);
+                        for (POM child : p.getAggregatorPoms()) {
+                            this.aggregators.put(child, p);
+                        }
                     }
+                    this.aggregators.put(module, pom);
+                    change.getAddedPoms().addAll(added);
+                    relink.addAll(added);
+                }
+            }
+        }
+        for (POM module : oldModules.values()) {
+            removeSubtree(module, change.getRemovedPoms(), relink);
+        }
+
+        //替换聚合树与索引中的旧POM
+        if (aggregator != null) {
+            List<POM> siblings = aggregator.getAggregatorPoms();
+            for (int i = 0; i < siblings.size(); i++) {
+                if (siblings.get(i) == old)
+                    siblings.set(i, pom);
+            }
+            this.aggregators.put(pom, aggregator);
+        } else {
+            this.rootPom = pom;
+        }
+        this.aggregators.remove(old);
+        removeFromIndex(old);
+        addToIndex(pom, touched);
+        rebuildPomList();
+        reindex(touched);
+
+        //继承树：旧POM的子POM、新POM本身，坐标变化时还包括所有声明了新旧坐标为父POM的POM
+        if (old.getParent() != null)
+            old.getParent().getChildrenPoms().removeIf(p -> p == old);
+        relink.add(pom);
+        relink.addAll(old.getChildrenPoms());
+        if (!pom.getGroupId().equals(old.getGroupId()) || !pom.getArtifactId().equals(old.getArtifactId())
+                || !pom.getVersion().equals(old.getVersion())) {
+            for (POM p : this.pomList) {
+                if (declaresParent(p, old) || declaresParent(p, pom))
+                    relink.add(p);
+            }
+        }
+        relinkAll(relink, change);
+        invalidateImporters(old, pom, change);
+        return change;
+    }
+
+    //导入了该 BOM 的POM及其子POM的版本表已过期
+    private void invalidateImporters(POM old, POM pom, POMChange change) {
+        if (old.getManagedDependencies().isEmpty() && pom.getManagedDependencies().isEmpty())
+            return;
+        Set<POM> invalidated = Collections.newSetFromMap(new IdentityHashMap<>());
+        invalidated.addAll(change.getInvalidatedPoms());
+        for (POM p : this.pomList) {
+            for (Dependency managed : p.getManagedDependencies()) {
+                if (ManagedVersions.isImport(managed) && (imports(managed, old) || imports(managed, pom))) {
+                    invalidateDescendants(p, invalidated);
+                    break;
                 }
             }
         }
+        invalidated.removeAll(change.getInvalidatedPoms());
+        change.getInvalidatedPoms().addAll(invalidated);
+    }
+
+    private static boolean imports(Dependency managed, POM bom) {
+        return managed.getGroupID().equals(bom.getGroupId()) && managed.getArtifactID().equals(bom.getArtifactId());
+    }
+
+    private POM findDeclaringAggregator(String key) {
+        for (POM pom : this.pomList) {
+            if (!pom.getPackaging().equals("pom"))
+                continue;
+            for (String moduleName : pom.getModules()) {
+                if (pathKey(modulePath(pom.getPath(), moduleName)).equals(key))
+                    return pom;
+            }
+        }
+        return null;
+    }
+
+    private void removeSubtree(POM module, List<POM> removed, Set<POM> relink) {
+        List<POM> subtree = new ArrayList<>();
+        setPomList(module, subtree);
+        for (POM p : subtree) {
+            removeFromIndex(p);
+            this.aggregators.remove(p);
+            if (p.getParent() != null)
+                p.getParent().getChildrenPoms().removeIf(c -> c == p);
+        }
+        removed.addAll(subtree);
+        relink.removeAll(subtree);
+        //子树之外继承自被删除POM的POM需要重新找父POM
+        Set<POM> gone = Collections.newSetFromMap(new IdentityHashMap<>());
+        gone.addAll(subtree);
+        for (POM p : subtree) {
+            for (POM child : p.getChildrenPoms()) {
+                if (!gone.contains(child))
+                    relink.add(child);
+            }
+        }
+    }
+
+    private void relinkAll(Set<POM> relink, POMChange change) {
+        for (POM pom : relink) {
+            if (this.pathIndex.get(pathKey(pom.getPath())) != pom)
+                continue;
+            POM current = pom.getParent();
+            if (current != null)
+                current.getChildrenPoms().removeIf(c -> c == pom);
+            //与首次建树一致：先以聚合POM为父，再按声明的父坐标在反应堆中查找
+            pom.setParent(this.aggregators.get(pom));
+            linkParent(pom, this.pomIndex, this.localRepository);
+        }
+        Set<POM> invalidated = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (POM pom : relink) {
+            invalidateDescendants(pom, invalidated);
+        }
+        change.getInvalidatedPoms().addAll(invalidated);
+    }
+
+    //parent 字段指向继承父POM（在其 childrenPoms 中）或聚合POM（在其 aggregatorPoms 中）
+    private static void invalidateDescendants(POM pom, Set<POM> visited) {
+        if (!visited.add(pom))
+            return;
+        pom.invalidateProperties();
+        for (POM child : pom.getChildrenPoms()) {
+            invalidateDescendants(child, visited);
+        }
+        for (POM module : pom.getAggregatorPoms()) {
+            if (module.getParent() == pom)
+                invalidateDescendants(module, visited);
+        }
+    }
+
+    private static boolean declaresParent(POM child, POM parent) {
+        return child.getParentGroupId().equals(parent.getGroupId())
+                && child.getParentArtifactId().equals(parent.getArtifactId());
+    }
+
+    private void addToIndex(POM pom, Set<String> touched) {
+        String key = indexKey(pom.getGroupId(), pom.getArtifactId());
+        this.pomIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(pom);
+        this.pathIndex.put(pathKey(pom.getPath()), pom);
+        pom.setPomResolver(this);
+        touched.add(key);
+    }
+
+    //按 pomList 顺序重建新增过POM的索引项，重复坐标的取舍与首次建树一致
+    private void reindex(Set<String> keys) {
+        for (String key : keys) {
+            this.pomIndex.remove(key);
+        }
+        for (POM pom : this.pomList) {
+            String key = indexKey(pom.getGroupId(), pom.getArtifactId());
+            if (keys.contains(key))
+                this.pomIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(pom);
+        }
+    }
+
+    private void removeFromIndex(POM pom) {
+        String key = indexKey(pom.getGroupId(), pom.getArtifactId());
+        List<POM> poms = this.pomIndex.get(key);
+        if (poms != null) {
+            poms.removeIf(p -> p == pom);
+            if (poms.isEmpty())
+                this.pomIndex.remove(key);
+        }
+        this.pathIndex.remove(pathKey(pom.getPath()), pom);
+    }
+
+    /**
+     * The effective models of the reactor under a context, in aggregator order from the root. The modules of
+     * active profiles are followed and those of inactive ones are not, so the list can differ from
+     * {@link #getPomList()}. Modules only profiles declare are parsed once on first use and linked to their
+     * parents, without becoming part of the tree.
+     */
+    public List<EffectiveModel> getEffectiveModels(ActivationContext context) throws Exception {
+        if (this.rootPom == null)
+            createPomTree();
+        List<EffectiveModel> models = new ArrayList<>();
+        collectEffectiveModels(this.rootPom, context, models, Collections.newSetFromMap(new IdentityHashMap<>()));
+        return models;
+    }
+
+    private void collectEffectiveModels(POM pom, ActivationContext context, List<EffectiveModel> models,
+                                        Set<POM> visited) throws Exception {
+        if (!visited.add(pom))
+            return;
+        EffectiveModel model = pom.getEffectiveModel(context);
+        models.add(model);
+        if (!pom.getPackaging().equals("pom"))
+            return;
+        for (String moduleName : model.getModules()) {
+            POM module = effectiveModule(pom, modulePath(pom.getPath(), moduleName));
+            if (module != null)
+                collectEffectiveModels(module, context, models, visited);
+        }
+    }
+
+    private synchronized POM effectiveModule(POM aggregator, String path) throws Exception {
+        String key = pathKey(path);
+        POM module = this.pathIndex.get(key);
+        if (module == null)
+            module = this.profileModules.get(key);
+        if (module != null || !this.source.exists(path))
+            return module;
+        module = this.pomParser.parse(this.source, path);
+        if (this.stringPool != null)
+            this.stringPool.intern(module);
+        module.setPomResolver(this);
+        //与 linkParent 相同的查找顺序，但不登记为父POM的子POM，树本身保持不变
+        module.setParent(aggregator);
+        POM parentPom = module.hasParent() ? findPom(this.pomIndex, module.getParentGroupId(),
+                module.getParentArtifactId(), module.getParentVersion()) : null;
+        if (parentPom == null && this.localRepository != null && !module.getParentGroupId().equals(""))
+            parentPom = this.localRepository.resolve(module.getParentGroupId(), module.getParentArtifactId(),
+                    module.getParentVersion());
+        if (parentPom != null && parentPom != module)
+            module.setParent(parentPom);
+        this.profileModules.put(key, module);
+        return module;
+    }
+
+    private void rebuildPomList() {
+        this.pomList.clear();
+        setPomList(this.rootPom, this.pomList);
     }
 
+    static String pathKey(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
 
     public List<Dependency> getRawDependencies() {
         List<Dependency> list = new ArrayList<>();
@@ -94,28 +727,106 @@ public class POMTree {
     public List<Dependency> getDependencies() {
         List<Dependency> list = new ArrayList<>();
         for (POM pom : pomList) {
-            List<Dependency> dependencies = pom.getDependencies();
-            list.addAll(dependencies);
+            list.addAll(pom.resolvedDependencies());
         }
         return list;
     }
 
     public List<Dependency> getDynamicDependencies() {
-        List<Dependency> dependencies = getDependencies();
-        List<Dependency> list = new ArrayList<>();
-        for (Dependency dependency : dependencies) {
+        return dependencies(DependencyFilter.all().dynamicVersion()).collect(Collectors.toList());
+    }
+
+    /**
+     * The effective dependencies of all POMs in tree order, resolved lazily per POM as the stream is consumed.
+     */
+    public Stream<Dependency> dependencies() {
+        return dependencies(DependencyFilter.all(), false);
+    }
+
+    public Stream<Dependency> dependencies(DependencyFilter filter) {
+        return dependencies(filter, false);
+    }
+
+    /**
+     * The effective dependencies matching {@code filter}. POMs whose declared dependencies cannot match are skipped
+     * without resolving them, and nothing is collected beyond what the caller does with the stream.
+     * @param parallel Spread the POMs over the common fork-join pool.
+     */
+    public Stream<Dependency> dependencies(DependencyFilter filter, boolean parallel) {
+        Stream<POM> poms = parallel ? this.pomList.parallelStream() : this.pomList.stream();
+        return poms.filter(filter::mayMatch)
+                .flatMap(pom -> pom.resolvedDependencies().stream())
+                .filter(filter);
+    }
+
+    /**
+     * Visit the effective dependencies matching {@code filter} in tree order, until the visitor returns {@code false}.
+     * @return Number of dependencies visited.
+     */
+    public int visitDependencies(DependencyFilter filter, DependencyVisitor visitor) {
+        int visited = 0;
+        for (POM pom : this.pomList) {
+            if (!filter.mayMatch(pom))
+                continue;
+            //按下标遍历，不创建迭代器
+            List<Dependency> dependencies = pom.resolvedDependencies();
+            for (int i = 0; i < dependencies.size(); i++) {
+                Dependency dependency = dependencies.get(i);
+                if (!filter.test(dependency))
+                    continue;
+                visited++;
+                if (!visitor.visit(pom, dependency))
+                    return visited;
+            }
+        }
+        return visited;
+    }
+
+    public long countDependencies(DependencyFilter filter) {
+        return visitDependencies(filter, (pom, dependency) -> true);
+    }
+
+    /**
+     * The newest version of every artifact (groupId:artifactId) used in the tree, by Maven version ordering.
+     * Ranges and versions with unresolved properties are not counted.
+     */
+    public Map<String, Version> getNewestVersions() {
+        return getNewestVersions(DependencyFilter.all());
+    }
+
+    public Map<String, Version> getNewestVersions(DependencyFilter filter) {
+        Map<String, Version> newest = new TreeMap<>();
+        visitDependencies(filter, (pom, dependency) -> {
             String version = dependency.getVersion();
-            if (version.equals("RELEASE") ||version.equals("LATEST") || version.endsWith("SNAPSHOT")) {
-                list.add(dependency);
+            if (VersionRange.isRange(version) || version.contains("${"))
+                return true;
+            newest.merge(indexKey(dependency.getGroupID(), dependency.getArtifactID()), Version.parse(version),
+                    (a, b) -> b.isNewerThan(a) ? b : a);
+            return true;
+        });
+        return newest;
+    }
+
+    /**
+     * The distinct effective dependencies of the tree as interned values, in first-seen order.
+     */
+    public Set<ImmutableDependency> getDistinctDependencies() {
+        Set<ImmutableDependency> distinct = new LinkedHashSet<>();
+        for (POM pom : pomList) {
+            for (Dependency dependency : pom.resolvedDependencies()) {
+                distinct.add(ImmutableDependency.of(dependency));
             }
         }
-        return list;
+        return distinct;
     }
 
+    /**
+     * The effective dependencies of each POM by path. The lists are the POMs' cached ones and read-only.
+     */
     public Map<String, List<Dependency>> getDependenciesMap() {
         Map<String, List<Dependency>> map = new LinkedHashMap<>();
         for (POM pom : this.pomList) {
-            map.put(pom.getPath(), pom.getDependencies());
+            map.put(pom.getPath(), pom.resolvedDependencies());
         }
         return map;
     }
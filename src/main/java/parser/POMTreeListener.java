@@ -0,0 +1,17 @@
+package parser;
+
+/**
+ * Receives the changes a {@link POMTreeWatcher} applies to its tree.
+ * @author i-Taozi
+ */
+public interface POMTreeListener {
+
+    void onChange(POMChange change);
+
+    /**
+     * A changed pom.xml could not be reloaded, the tree keeps its previous state for that file.
+     * Also receives what {@link #onChange(POMChange)} throws, with the path of the change.
+     */
+    default void onError(String path, Exception e) {
+    }
+}
@@ -0,0 +1,719 @@
+package parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A whole {@link POMTree} in one binary file: every POM with its properties, dependencies, modules and
+ * repository urls, plus the aggregator and inheritance links between them.
+ * <p>
+ * Layout: a fixed header, a string table (each distinct string once, referenced by index), a fixed-size
+ * index with the offset, path and coordinates of every POM record, then the records.
+ * Files are read through a memory-mapped buffer, and {@link #open(Path)} decodes only the strings and
+ * records that are actually asked for, so single POMs can be read without loading the whole snapshot.
+ * <p>
+ * The {@link POMSource} of the tree is recorded: a tree of a {@link GitPOMSource} reads its raw content and
+ * reloads from the same commit after loading. Trees of other sources cannot be written.
+ * Offsets are ints, a snapshot is limited to 2 GB like the buffer it is mapped into.
+ * @author i-Taozi
+ */
+public final class POMTreeSnapshot implements Closeable {
+
+    private static final int MAGIC = 0x504F4D54; // "POMT"
+    static final int FORMAT_VERSION = 4;
+
+    //magic, version, POM 数、根POM、字符串数、repoDir、git 仓库目录、提交、三段偏移，各一个 int
+    private static final int HEADER_SIZE = 11 * 4;
+    //记录偏移，路径、groupId、artifactId，各一个 int
+    private static final int INDEX_ENTRY_SIZE = 4 * 4;
+
+    private static final int NONE = -1;
+    //继承父POM不在反应堆中
+    private static final int EXTERNAL = -2;
+
+    private final ByteBuffer buffer;
+    private final int pomCount;
+    private final int rootIndex;
+    private final int stringCount;
+    private final String repoDir;
+    //来源为 GitPOMSource 时的仓库目录与提交，来源为文件系统时为 null
+    private final String gitDir;
+    private final String commit;
+    private final int stringsOffset;
+    private final int indexOffset;
+    private final int recordsOffset;
+
+    //按需解码的字符串，同一下标始终返回同一个实例
+    private final String[] strings;
+    private final Map<Integer, POM> read = new HashMap<>();
+    //读出的POM的来源
+    private POMSource source = POMSource.FILES;
+    //open 时为快照打开的 git 仓库，close 时关闭；read 将其交给树
+    private GitRepository ownedRepository;
+
+    private POMTreeSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+            throw new IOException("不是POM快照文件");
+        if (buffer.getInt(4) != FORMAT_VERSION)
+            throw new IOException("不支持的快照版本 " + buffer.getInt(4));
+        this.pomCount = buffer.getInt(8);
+        this.rootIndex = buffer.getInt(12);
+        this.stringCount = buffer.getInt(16);
+        this.stringsOffset = buffer.getInt(32);
+        this.indexOffset = buffer.getInt(36);
+        this.recordsOffset = buffer.getInt(40);
+        if (pomCount < 0 || stringCount < 0 || stringsOffset < HEADER_SIZE || indexOffset < stringsOffset
+                || recordsOffset < indexOffset || recordsOffset > buffer.limit()
+                || (long) pomCount * INDEX_ENTRY_SIZE != recordsOffset - indexOffset
+                || ((long) stringCount + 1) * 4 > indexOffset - stringsOffset)
+            throw new IOException("POM快照文件已损坏");
+        this.strings = new String[stringCount];
+        this.repoDir = string(buffer.getInt(20));
+        this.gitDir = string(buffer.getInt(24));
+        this.commit = string(buffer.getInt(28));
+    }
+
+    /**
+     * Map a snapshot file for lazy reading. Nothing but the header is decoded until asked for.
+     * A snapshot of a {@link GitPOMSource} tree opens the repository it was taken from, which is closed with
+     * the snapshot.
+     */
+    public static POMTreeSnapshot open(Path file) throws IOException {
+        return open(file, null);
+    }
+
+    /**
+     * Map a snapshot file for lazy reading.
+     * @param repository The repository a snapshot of a {@link GitPOMSource} tree reads its commit from, it must
+     *                   be the one the snapshot was taken from. {@code null} opens one on the recorded directory.
+     */
+    public static POMTreeSnapshot open(Path file, GitRepository repository) throws IOException {
+        POMTreeSnapshot snapshot;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("POM快照文件超过 2GB: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            snapshot = new POMTreeSnapshot(buffer);
+        }
+        if (snapshot.commit != null) {
+            Path dir = Paths.get(snapshot.gitDir);
+            if (repository == null) {
+                repository = new GitRepository(dir);
+                snapshot.ownedRepository = repository;
+            } else if (!repository.getDir().equals(dir)) {
+                throw new IOException("快照取自 " + dir + "，而不是 " + repository.getDir());
+            }
+            snapshot.source = new GitPOMSource(repository, snapshot.commit);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Load a whole tree with a default parser for later reloads.
+     */
+    public static POMTree read(Path file) throws IOException {
+        return read(file, new POMParser(), null);
+    }
+
+    /**
+     * Load a whole tree.
+     * @param pomParser Parser the tree uses for {@link POMTree#reload(String) reloads}.
+     * @param localRepository Where parents outside the reactor are re-resolved from, may be {@code null}.
+     */
+    public static POMTree read(Path file, POMParser pomParser, LocalRepository localRepository) throws IOException {
+        return read(file, pomParser, localRepository, null);
+    }
+
+    /**
+     * Load a whole tree. A tree of a {@link GitPOMSource} reads and reloads from the recorded commit;
+     * a repository opened for it is owned by the tree and not closed.
+     * @param repository See {@link #open(Path, GitRepository)}.
+     */
+    public static POMTree read(Path file, POMParser pomParser, LocalRepository localRepository,
+                               GitRepository repository) throws IOException {
+        try (POMTreeSnapshot snapshot = open(file, repository)) {
+            snapshot.ownedRepository = null;
+            POM[] poms = new POM[snapshot.pomCount];
+            for (int i = 0; i < poms.length; i++) {
+                poms[i] = snapshot.decode(i);
+            }
+            for (int i = 0; i < poms.length; i++) {
+                snapshot.link(i, poms, localRepository);
+            }
+            POMTree tree = new POMTree(snapshot.repoDir, pomParser, snapshot.source);
+            tree.setLocalRepository(localRepository);
+            tree.restore(poms[snapshot.rootIndex]);
+            return tree;
+        }
+    }
+
+    public int size() {
+        return pomCount;
+    }
+
+    public String getRepoDir() {
+        return repoDir;
+    }
+
+    /**
+     * Where the POMs were parsed from: {@link POMSource#FILES}, or a {@link GitPOMSource} of the recorded commit.
+     */
+    public POMSource getSource() {
+        return source;
+    }
+
+    public String getPath(int index) {
+        return string(buffer.getInt(indexEntry(index) + 4));
+    }
+
+    /**
+     * Index of the POM with the given path as it was stored, or -1.
+     */
+    public int indexOf(String path) {
+        for (int i = 0; i < pomCount; i++) {
+            if (path.equals(getPath(i)))
+                return i;
+        }
+        return NONE;
+    }
+
+    /**
+     * Index of the first POM with the given coordinates, or -1. Only the index and the strings it compares are read.
+     */
+    public int indexOf(String groupId, String artifactId) {
+        for (int i = 0; i < pomCount; i++) {
+            int entry = indexEntry(i);
+            if (artifactId.equals(string(buffer.getInt(entry + 12))) && groupId.equals(string(buffer.getInt(entry + 8))))
+                return i;
+        }
+        return NONE;
+    }
+
+    /**
+     * Read one POM with its reactor parents attached, so that its properties and dependencies resolve.
+     * Aggregator links and children are not set. Repeated calls return the same instance.
+     */
+    public synchronized POM get(int index) {
+        POM pom = read.get(index);
+        if (pom != null)
+            return pom;
+        pom = decode(index);
+        read.put(index, pom);
+        int parent = buffer.getInt(recordLinks(index));
+        if (parent >= 0 && parent != index)
+            pom.setParent(get(parent));
+        return pom;
+    }
+
+    @Override
+    public synchronized void close() {
+        //映射的缓冲区由 GC 释放
+        read.clear();
+        if (ownedRepository != null)
+            ownedRepository.close();
+    }
+
+    // ---------------------------------------------------------------- 写入
+
+    /**
+     * Write a built tree, replacing {@code file} atomically.
+     * @throws IOException When the tree was read from a source other than files or a {@link GitPOMSource}, or
+     *                     the snapshot would exceed 2 GB.
+     */
+    public static void write(POMTree tree, Path file) throws IOException {
+        POMSource source = tree.getSource();
+        if (source != POMSource.FILES && !(source instanceof GitPOMSource))
+            throw new IOException("无法为来源 " + source + " 的POM树写快照");
+        List<POM> poms = tree.getPomList();
+        Map<POM, Integer> ids = new IdentityHashMap<>(poms.size() * 2);
+        for (POM pom : poms) {
+            ids.put(pom, ids.size());
+        }
+        StringTable table = new StringTable();
+        int repoDirId = table.id(tree.getRepoDir());
+        int gitDirId = NONE;
+        int commitId = NONE;
+        if (source instanceof GitPOMSource) {
+            GitPOMSource git = (GitPOMSource) source;
+            gitDirId = table.id(git.getRepository().getDir().toString());
+            commitId = table.id(git.getCommit());
+        }
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream(poms.size() * 256);
+        DataOutputStream out = new DataOutputStream(records);
+        ByteBuffer index = ByteBuffer.allocate(poms.size() * INDEX_ENTRY_SIZE);
+        for (POM pom : poms) {
+            index.putInt(out.size());
+            index.putInt(table.id(pom.getPath()));
+            index.putInt(table.id(pom.getGroupId()));
+            index.putInt(table.id(pom.getArtifactId()));
+            writeRecord(out, pom, ids, table);
+        }
+        out.flush();
+
+        byte[] strings = table.toBytes();
+        if ((long) HEADER_SIZE + strings.length + index.capacity() + records.size() > Integer.MAX_VALUE)
+            throw new IOException("POM快照超过 2GB");
+        int stringsOffset = HEADER_SIZE;
+        int indexOffset = stringsOffset + strings.length;
+        int recordsOffset = indexOffset + index.capacity();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(poms.size()).putInt(ids.get(tree.getRootPom()))
+                .putInt(table.size()).putInt(repoDirId).putInt(gitDirId).putInt(commitId)
+                .putInt(stringsOffset).putInt(indexOffset).putInt(recordsOffset);
+
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "snapshot", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                header.flip();
+                index.flip();
+                ByteBuffer[] parts = {header, ByteBuffer.wrap(strings), index,
+                        ByteBuffer.wrap(records.toByteArray(), 0, records.size())};
+                long remaining = recordsOffset + records.size();
+                while (remaining > 0) {
+                    remaining -= channel.write(parts);
+                }
+            }
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, POM pom, Map<POM, Integer> ids, StringTable table)
+            throws IOException {
+        out.writeInt(table.id(pom.getPath()));
+        out.writeInt(table.id(pom.getRelativePath()));
+        out.writeInt(pom.getRelativeLens());
+        out.writeInt(table.id(pom.getPackaging()));
+        out.writeInt(table.id(pom.getGroupId()));
+        out.writeInt(table.id(pom.getArtifactId()));
+        out.writeInt(table.id(pom.getVersion()));
+        out.writeInt(table.id(pom.getParentGroupId()));
+        out.writeInt(table.id(pom.getParentArtifactId()));
+        out.writeInt(table.id(pom.getParentVersion()));
+        writeMap(out, pom.getRawProperties(), table);
+        writeMap(out, pom.getTestConfigurations(), table);
+        writeDependencies(out, pom.getRawDependencies(), table);
+        writeDependencies(out, pom.getManagedDependencies(), table);
+        writeList(out, pom.getModules(), table);
+        writeList(out, pom.getRepositoryUrls(), table);
+        writePlugins(out, pom.getPlugins(), table);
+        writePlugins(out, pom.getManagedPlugins(), table);
+        writeProfiles(out, pom.getProfiles(), table);
+
+        //链接放在记录末尾：parent 指向继承父POM，没有时指向聚合POM
+        POM parent = pom.getParent();
+        Integer parentId = parent == null ? null : ids.get(parent);
+        out.writeInt(parentId != null ? parentId : parent != null ? EXTERNAL : NONE);
+        writeLinks(out, pom.getAggregatorPoms(), ids);
+        writeLinks(out, pom.getChildrenPoms(), ids);
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map, StringTable table) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> item : map.entrySet()) {
+            out.writeInt(table.id(item.getKey()));
+            out.writeInt(table.id(item.getValue()));
+        }
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list, StringTable table) throws IOException {
+        out.writeInt(list.size());
+        for (String item : list) {
+            out.writeInt(table.id(item));
+        }
+    }
+
+    private static void writeDependencies(DataOutputStream out, List<Dependency> dependencies, StringTable table)
+            throws IOException {
+        out.writeInt(dependencies.size());
+        for (Dependency dependency : dependencies) {
+            out.writeInt(table.id(dependency.getGroupID()));
+            out.writeInt(table.id(dependency.getArtifactID()));
+            out.writeInt(table.id(dependency.getVersion()));
+            out.writeInt(table.id(dependency.getScope()));
+            out.writeInt(table.id(dependency.getType()));
+            out.writeInt(table.id(dependency.getClassifier()));
+            out.writeBoolean(dependency.isOptional());
+            writeList(out, dependency.getExclusions(), table);
+        }
+    }
+
+    private static void writePlugins(DataOutputStream out, List<Plugin> plugins, StringTable table)
+            throws IOException {
+        out.writeInt(plugins.size());
+        for (Plugin plugin : plugins) {
+            out.writeInt(table.id(plugin.getGroupId()));
+            out.writeInt(table.id(plugin.getArtifactId()));
+            out.writeInt(table.id(plugin.getVersion()));
+            out.writeInt(table.id(plugin.getProfile()));
+            out.writeInt(table.id(xml(plugin.getConfiguration())));
+            out.writeInt(plugin.getExecutions().size());
+            for (PluginExecution execution : plugin.getExecutions()) {
+                out.writeInt(table.id(execution.getId()));
+                out.writeInt(table.id(execution.getPhase()));
+                out.writeInt(table.id(xml(execution.getConfiguration())));
+                writeList(out, execution.getGoals(), table);
+            }
+        }
+    }
+
+    private static void writeProfiles(DataOutputStream out, List<Profile> profiles, StringTable table)
+            throws IOException {
+        out.writeInt(profiles.size());
+        for (Profile profile : profiles) {
+            ProfileActivation activation = profile.getActivation();
+            out.writeInt(table.id(profile.getId()));
+            out.writeBoolean(activation.isActiveByDefault());
+            out.writeInt(table.id(activation.getJdk()));
+            out.writeInt(table.id(activation.getOsName()));
+            out.writeInt(table.id(activation.getOsFamily()));
+            out.writeInt(table.id(activation.getOsArch()));
+            out.writeInt(table.id(activation.getOsVersion()));
+            out.writeInt(table.id(activation.getPropertyName()));
+            out.writeInt(table.id(activation.getPropertyValue()));
+            out.writeInt(table.id(activation.getFileExists()));
+            out.writeInt(table.id(activation.getFileMissing()));
+            writeMap(out, profile.getRawProperties(), table);
+            writeDependencies(out, profile.getDependencies(), table);
+            writeDependencies(out, profile.getManagedDependencies(), table);
+            writeList(out, profile.getModules(), table);
+            writeList(out, profile.getRepositoryUrls(), table);
+        }
+    }
+
+    private static String xml(PluginConfiguration configuration) {
+        return configuration == null ? null : configuration.getXml();
+    }
+
+    private static void writeLinks(DataOutputStream out, List<POM> poms, Map<POM, Integer> ids) throws IOException {
+        int count = 0;
+        for (POM pom : poms) {
+            if (ids.containsKey(pom))
+                count++;
+        }
+        out.writeInt(count);
+        for (POM pom : poms) {
+            Integer id = ids.get(pom);
+            if (id != null)
+                out.writeInt(id);
+        }
+    }
+
+    /**
+     * Assigns each distinct string an index in first-use order.
+     */
+    private static final class StringTable {
+        private final LinkedHashMap<String, Integer> ids = new LinkedHashMap<>();
+
+        int id(String s) {
+            if (s == null)
+                return NONE;
+            Integer id = ids.get(s);
+            if (id == null) {
+                id = ids.size();
+                ids.put(s, id);
+            }
+            return id;
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        //count+1 个结束偏移，之后是所有字符串的 UTF-8 字节
+        byte[] toBytes() {
+            List<byte[]> encoded = new ArrayList<>(ids.size());
+            int total = 0;
+            for (String s : ids.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                total += bytes.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((encoded.size() + 1) * 4 + total);
+            int end = 0;
+            buffer.putInt(end);
+            for (byte[] bytes : encoded) {
+                end += bytes.length;
+                buffer.putInt(end);
+            }
+            for (byte[] bytes : encoded) {
+                buffer.put(bytes);
+            }
+            return buffer.array();
+        }
+    }
+
+    // ---------------------------------------------------------------- 读取
+
+    private int indexEntry(int index) {
+        if (index < 0 || index >= pomCount)
+            throw new IndexOutOfBoundsException("POM " + index + " / " + pomCount);
+        return indexOffset + index * INDEX_ENTRY_SIZE;
+    }
+
+    private int recordStart(int index) {
+        return recordsOffset + buffer.getInt(indexEntry(index));
+    }
+
+    private String string(int id) {
+        if (id == NONE)
+            return null;
+        String s = strings[id];
+        if (s == null) {
+            int table = stringsOffset + 4 * id;
+            int start = buffer.getInt(table);
+            int end = buffer.getInt(table + 4);
+            byte[] bytes = new byte[end - start];
+            ByteBuffer b = buffer.duplicate();
+            b.position(stringsOffset + (stringCount + 1) * 4 + start);
+            b.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = s;
+        }
+        return s;
+    }
+
+    private POM decode(int index) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(recordStart(index));
+        POM pom = new POM();
+        pom.setSource(source);
+        pom.setPath(string(b.getInt()));
+        pom.setRelativePath(string(b.getInt()));
+        pom.setRelativeLens(b.getInt());
+        pom.setPackaging(string(b.getInt()));
+        pom.setGroupId(string(b.getInt()));
+        pom.setArtifactId(string(b.getInt()));
+        pom.setVersion(string(b.getInt()));
+        pom.setParentGroupId(string(b.getInt()));
+        pom.setParentArtifactId(string(b.getInt()));
+        pom.setParentVersion(string(b.getInt()));
+        int count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            pom.addProperty(string(b.getInt()), string(b.getInt()));
+        }
+        count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            pom.addTestConfigurations(string(b.getInt()), string(b.getInt()));
+        }
+        for (Dependency dependency : readDependencies(b)) {
+            pom.addDependency(dependency);
+        }
+        for (Dependency dependency : readDependencies(b)) {
+            pom.addManagedDependency(dependency);
+        }
+        count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            pom.addModule(string(b.getInt()));
+        }
+        count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            pom.addRepositoryUrl(string(b.getInt()));
+        }
+        for (Plugin plugin : readPlugins(b)) {
+            pom.addPlugin(plugin);
+        }
+        for (Plugin plugin : readPlugins(b)) {
+            pom.addManagedPlugin(plugin);
+        }
+        for (Profile profile : readProfiles(b)) {
+            pom.addProfile(profile);
+        }
+        return pom;
+    }
+
+    private List<Dependency> readDependencies(ByteBuffer b) {
+        int count = b.getInt();
+        List<Dependency> dependencies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Dependency dependency = new Dependency(string(b.getInt()), string(b.getInt()), string(b.getInt()));
+            dependency.setScope(string(b.getInt()));
+            dependency.setType(string(b.getInt()));
+            dependency.setClassifier(string(b.getInt()));
+            dependency.setOptional(b.get() != 0);
+            int exclusions = b.getInt();
+            for (int j = 0; j < exclusions; j++) {
+                dependency.getExclusions().add(string(b.getInt()));
+            }
+            dependencies.add(dependency);
+        }
+        return dependencies;
+    }
+
+    private List<Plugin> readPlugins(ByteBuffer b) {
+        int count = b.getInt();
+        List<Plugin> plugins = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Plugin plugin = new Plugin();
+            plugin.setGroupId(string(b.getInt()));
+            plugin.setArtifactId(string(b.getInt()));
+            plugin.setVersion(string(b.getInt()));
+            plugin.setProfile(string(b.getInt()));
+            plugin.setConfiguration(configuration(b.getInt()));
+            int executions = b.getInt();
+            for (int j = 0; j < executions; j++) {
+                PluginExecution execution = new PluginExecution();
+                execution.setId(string(b.getInt()));
+                execution.setPhase(string(b.getInt()));
+                execution.setConfiguration(configuration(b.getInt()));
+                int goals = b.getInt();
+                for (int k = 0; k < goals; k++) {
+                    execution.addGoal(string(b.getInt()));
+                }
+                plugin.addExecution(execution);
+            }
+            plugins.add(plugin);
+        }
+        return plugins;
+    }
+
+    private List<Profile> readProfiles(ByteBuffer b) {
+        int count = b.getInt();
+        List<Profile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Profile profile = new Profile();
+            ProfileActivation activation = profile.getActivation();
+            profile.setId(string(b.getInt()));
+            activation.setActiveByDefault(b.get() != 0);
+            activation.setJdk(string(b.getInt()));
+            activation.setOsName(string(b.getInt()));
+            activation.setOsFamily(string(b.getInt()));
+            activation.setOsArch(string(b.getInt()));
+            activation.setOsVersion(string(b.getInt()));
+            activation.setPropertyName(string(b.getInt()));
+            activation.setPropertyValue(string(b.getInt()));
+            activation.setFileExists(string(b.getInt()));
+            activation.setFileMissing(string(b.getInt()));
+            int properties = b.getInt();
+            for (int j = 0; j < properties; j++) {
+                profile.addProperty(string(b.getInt()), string(b.getInt()));
+            }
+            for (Dependency dependency : readDependencies(b)) {
+                profile.addDependency(dependency);
+            }
+            for (Dependency dependency : readDependencies(b)) {
+                profile.addManagedDependency(dependency);
+            }
+            int modules = b.getInt();
+            for (int j = 0; j < modules; j++) {
+                profile.addModule(string(b.getInt()));
+            }
+            int urls = b.getInt();
+            for (int j = 0; j < urls; j++) {
+                profile.addRepositoryUrl(string(b.getInt()));
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private PluginConfiguration configuration(int id) {
+        String xml = string(id);
+        return xml == null ? null : new PluginConfiguration(xml);
+    }
+
+    //跳过记录中的字段，返回链接部分的位置
+    private int recordLinks(int index) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(recordStart(index) + 10 * 4);
+        skip(b, 2);
+        skip(b, 2);
+        skipDependencies(b);
+        skipDependencies(b);
+        skip(b, 1);
+        skip(b, 1);
+        skipPlugins(b);
+        skipPlugins(b);
+        skipProfiles(b);
+        return b.position();
+    }
+
+    private static void skip(ByteBuffer b, int intsPerItem) {
+        int count = b.getInt();
+        b.position(b.position() + count * intsPerItem * 4);
+    }
+
+    private static void skipDependencies(ByteBuffer b) {
+        int count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            b.position(b.position() + 6 * 4 + 1);
+            skip(b, 1);
+        }
+    }
+
+    private static void skipPlugins(ByteBuffer b) {
+        int count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            b.position(b.position() + 5 * 4);
+            int executions = b.getInt();
+            for (int j = 0; j < executions; j++) {
+                b.position(b.position() + 3 * 4);
+                skip(b, 1);
+            }
+        }
+    }
+
+    //id、activeByDefault 与九个激活条件之后是属性、依赖、模块与仓库
+    private static void skipProfiles(ByteBuffer b) {
+        int count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            b.position(b.position() + 4 + 1 + 9 * 4);
+            skip(b, 2);
+            skipDependencies(b);
+            skipDependencies(b);
+            skip(b, 1);
+            skip(b, 1);
+        }
+    }
+
+    private void link(int index, POM[] poms, LocalRepository localRepository) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(recordLinks(index));
+        POM pom = poms[index];
+        int parent = b.getInt();
+        int count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            POM module = poms[b.getInt()];
+            pom.getAggregatorPoms().add(module);
+        }
+        count = b.getInt();
+        for (int i = 0; i < count; i++) {
+            pom.getChildrenPoms().add(poms[b.getInt()]);
+        }
+        if (parent >= 0) {
+            pom.setParent(poms[parent]);
+        } else if (parent == EXTERNAL && localRepository != null) {
+            POM external = localRepository.resolve(pom.getParentGroupId(), pom.getParentArtifactId(),
+                    pom.getParentVersion());
+            if (external != null)
+                pom.setParent(external);
+        }
+    }
+}
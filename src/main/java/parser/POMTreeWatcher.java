@@ -0,0 +1,207 @@
+package parser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link POMTree} live: watches the directories of its pom.xml files and
+ * {@link POMTree#reload(String) reloads} only the files that changed, then notifies listeners.
+ * Events arriving within the debounce window are coalesced so an editor's save burst reloads a file once.
+ * @author i-Taozi
+ */
+public class POMTreeWatcher implements Closeable {
+
+    private static final String POM_FILE = "pom.xml";
+
+    private final POMTree tree;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+    private final List<POMTreeListener> listeners = new CopyOnWriteArrayList<>();
+    private final long debounceMillis;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public POMTreeWatcher(POMTree tree) throws Exception {
+        this(tree, 200);
+    }
+
+    public POMTreeWatcher(POMTree tree, long debounceMillis) throws Exception {
+        this.tree = tree;
+        this.debounceMillis = debounceMillis;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        tree.createPomTree();
+        for (POM pom : tree.getPomList()) {
+            register(pom);
+        }
+    }
+
+    public POMTree getTree() {
+        return tree;
+    }
+
+    public void addListener(POMTreeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(POMTreeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Process events on a daemon thread until {@link #close()}.
+     */
+    public synchronized void start() {
+        if (running)
+            return;
+        running = true;
+        thread = new Thread(this::run, "pom-tree-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        watchService.close();
+        Thread t = thread;
+        if (t != null && t != Thread.currentThread())
+            t.interrupt();
+    }
+
+    /**
+     * Wait up to {@code timeout} for changes and apply them on the calling thread; for callers driving their own loop.
+     * @return Number of changes delivered to listeners.
+     */
+    public int poll(long timeout, TimeUnit unit) throws InterruptedException {
+        WatchKey key = watchService.poll(timeout, unit);
+        if (key == null)
+            return 0;
+        return process(key);
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                process(watchService.take());
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //close() 结束监听
+        }
+    }
+
+    private int process(WatchKey first) throws InterruptedException {
+        Set<String> changed = new LinkedHashSet<>();
+        collect(first, changed);
+        if (debounceMillis > 0) {
+            Thread.sleep(debounceMillis);
+        }
+        WatchKey key;
+        while ((key = watchService.poll()) != null) {
+            collect(key, changed);
+        }
+        List<POMChange> changes = new ArrayList<>();
+        for (String path : changed) {
+            try {
+                POMChange change = tree.reload(path);
+                if (change == null || change.isEmpty())
+                    continue;
+                for (POM pom : change.getAddedPoms()) {
+                    register(pom);
+                }
+                if (change.getNewPom() != null)
+                    register(change.getNewPom());
+                changes.add(change);
+            } catch (Exception e) {
+                for (POMTreeListener listener : listeners) {
+                    listener.onError(path, e);
+                }
+            }
+        }
+        //树曾被冻结时，在通知监听器之前发布新的快照
+        if (!changes.isEmpty() && tree.getFrozen() != null) {
+            try {
+                tree.freeze();
+            } catch (Exception e) {
+                for (POMTreeListener listener : listeners) {
+                    listener.onError(tree.getRepoDir(), e);
+                }
+            }
+        }
+        //监听器抛出的异常交给 onError，不中断后台线程与其余变更的通知
+        for (POMChange change : changes) {
+            for (POMTreeListener listener : listeners) {
+                try {
+                    listener.onChange(change);
+                } catch (RuntimeException e) {
+                    listener.onError(change.getPath(), e);
+                }
+            }
+        }
+        return changes.size();
+    }
+
+    private void collect(WatchKey key, Set<String> changed) {
+        Path dir;
+        synchronized (keys) {
+            dir = keys.get(key);
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW)
+                continue;
+            Path path = dir.resolve((Path) event.context());
+            if (path.getFileName().toString().equals(POM_FILE)) {
+                changed.add(path.toString());
+            } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                //新建的模块目录，pom.xml 可能稍后才出现
+                registerDirectory(path);
+                Path pom = path.resolve(POM_FILE);
+                if (Files.exists(pom))
+                    changed.add(pom.toString());
+            }
+        }
+        if (!key.reset()) {
+            synchronized (keys) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private void register(POM pom) {
+        File dir = new File(POMTree.pathKey(pom.getPath())).getParentFile();
+        if (dir != null)
+            registerDirectory(dir.toPath());
+    }
+
+    private void registerDirectory(Path dir) {
+        try {
+            WatchKey key = Paths.get(dir.toString()).register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            synchronized (keys) {
+                keys.put(key, dir);
+            }
+        } catch (IOException | ClosedWatchServiceException e) {
+            //目录已被删除或监听已关闭
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package parser;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.transform.TransformerFactory;
+
+/**
+ * Limits and XML hardening applied by {@link POMParser} and {@link POMStaxParser}.
+ * External DTDs and entities are never fetched, so a POM with a DOCTYPE parses offline;
+ * entity expansion, element depth and file size are capped and a violation fails fast with a {@link POMParseException}.
+ * Instances are immutable, the {@code with} methods return modified copies.
+ * @author i-Taozi
+ */
+public final class ParserConfig {
+
+    public static final ParserConfig DEFAULT = new ParserConfig(16L * 1024 * 1024, 10000, 256, true);
+
+    private static final String ENTITY_EXPANSION_LIMIT = "http://www.oracle.com/xml/jaxp/properties/entityExpansionLimit";
+    private static final String MAX_ELEMENT_DEPTH = "http://www.oracle.com/xml/jaxp/properties/maxElementDepth";
+
+    private final long maxFileSize;
+    private final int entityExpansionLimit;
+    private final int maxElementDepth;
+    private final boolean allowDoctype;
+
+    private ParserConfig(long maxFileSize, int entityExpansionLimit, int maxElementDepth, boolean allowDoctype) {
+        this.maxFileSize = maxFileSize;
+        this.entityExpansionLimit = entityExpansionLimit;
+        this.maxElementDepth = maxElementDepth;
+        this.allowDoctype = allowDoctype;
+    }
+
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Files larger than this are rejected before they are read, 0 disables the check.
+     */
+    public ParserConfig withMaxFileSize(long maxFileSize) {
+        return new ParserConfig(maxFileSize, entityExpansionLimit, maxElementDepth, allowDoctype);
+    }
+
+    public int getEntityExpansionLimit() {
+        return entityExpansionLimit;
+    }
+
+    /**
+     * Maximum number of entity expansions in one document, 0 means no limit.
+     */
+    public ParserConfig withEntityExpansionLimit(int entityExpansionLimit) {
+        return new ParserConfig(maxFileSize, entityExpansionLimit, maxElementDepth, allowDoctype);
+    }
+
+    public int getMaxElementDepth() {
+        return maxElementDepth;
+    }
+
+    /**
+     * Maximum nesting depth of elements, 0 means no limit.
+     */
+    public ParserConfig withMaxElementDepth(int maxElementDepth) {
+        return new ParserConfig(maxFileSize, entityExpansionLimit, maxElementDepth, allowDoctype);
+    }
+
+    public boolean isAllowDoctype() {
+        return allowDoctype;
+    }
+
+    /**
+     * Whether a DOCTYPE declaration is accepted at all. Even when it is, external DTDs are not loaded.
+     */
+    public ParserConfig withAllowDoctype(boolean allowDoctype) {
+        return new ParserConfig(maxFileSize, entityExpansionLimit, maxElementDepth, allowDoctype);
+    }
+
+    void checkFileSize(POMSource source, String path) throws Exception {
+        if (maxFileSize <= 0)
+            return;
+        long length = source.size(path);
+        if (length > maxFileSize)
+            throw new POMParseException(path, POMParseException.Reason.TOO_LARGE,
+                    "文件大小 " + length + " 超过限制 " + maxFileSize, -1, -1, null);
+    }
+
+    DocumentBuilderFactory newDocumentBuilderFactory() {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        try {
+            factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", !allowDoctype);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("XML 实现不支持安全配置", e);
+        }
+        factory.setXIncludeAware(false);
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+        factory.setAttribute(ENTITY_EXPANSION_LIMIT, String.valueOf(entityExpansionLimit));
+        factory.setAttribute(MAX_ELEMENT_DEPTH, String.valueOf(maxElementDepth));
+        return factory;
+    }
+
+    XMLInputFactory newXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.TRUE);
+        factory.setProperty("http://java.sun.com/xml/stream/properties/ignore-external-dtd", Boolean.TRUE);
+        factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setProperty(ENTITY_EXPANSION_LIMIT, String.valueOf(entityExpansionLimit));
+        factory.setProperty(MAX_ELEMENT_DEPTH, String.valueOf(maxElementDepth));
+        return factory;
+    }
+
+    TransformerFactory newTransformerFactory() {
+        TransformerFactory factory = TransformerFactory.newInstance();
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+        factory.setAttribute(XMLConstants.ACCESS_EXTERNAL_STYLESHEET, "");
+        return factory;
+    }
+
+    @Override
+    public String toString() {
+        return "ParserConfig{" +
+                "maxFileSize=" + maxFileSize +
+                ", entityExpansionLimit=" + entityExpansionLimit +
+                ", maxElementDepth=" + maxElementDepth +
+                ", allowDoctype=" + allowDoctype +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package parser;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * A build plugin declared under {@code <build><plugins>} or {@code <build><pluginManagement>},
+ * of the project itself or of one of its profiles.
+ * @author i-Taozi
+ */
+@Getter
+@Setter
+public class Plugin {
+
+    /**
+     * The groupId Maven assumes when a plugin does not declare one.
+     */
+    public static final String DEFAULT_GROUP_ID = "org.apache.maven.plugins";
+
+    //未声明时为空字符串，见 getKey()
+    private String groupId = "";
+    private String artifactId = "";
+    private String version = "";
+    //所在 profile 的 id，项目本身的 build 中为空字符串
+    private String profile = "";
+    //没有 <configuration> 时为 null
+    private PluginConfiguration configuration;
+    private List<PluginExecution> executions = new ArrayList<>();
+
+    public void addExecution(PluginExecution execution) {
+        this.executions.add(execution);
+    }
+
+    /**
+     * groupId:artifactId, with {@link #DEFAULT_GROUP_ID} for an undeclared groupId.
+     */
+    public String getKey() {
+        return (groupId.equals("") ? DEFAULT_GROUP_ID : groupId) + ":" + artifactId;
+    }
+
+    public boolean isInProfile() {
+        return !profile.equals("");
+    }
+
+    /**
+     * A copy that shares the immutable configurations.
+     */
+    public Plugin copy() {
+        Plugin copy = new Plugin();
+        copy.groupId = this.groupId;
+        copy.artifactId = this.artifactId;
+        copy.version = this.version;
+        copy.profile = this.profile;
+        copy.configuration = this.configuration;
+        for (PluginExecution execution : this.executions) {
+            copy.executions.add(execution.copy());
+        }
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "Plugin{" +
+                "key='" + getKey() + '\'' +
+                ", version='" + version + '\'' +
+                (profile.equals("") ? "" : ", profile='" + profile + '\'') +
+                '}';
+    }
+}
@@ -0,0 +1,271 @@
+package parser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * The {@code <configuration>} of a plugin or an execution. The parsers keep it as compact XML text
+ * (elements, attributes and text; comments dropped) and the tree is only built on the first {@link #getRoot()}.
+ * Element and attribute names keep their prefix as written in the POM; each prefix is declared on the outermost
+ * element of the text that uses it.
+ * Instances are immutable apart from that cached tree, and safe to share between threads.
+ * @author i-Taozi
+ */
+public final class PluginConfiguration {
+
+    //展开时使用，内容由解析器生成，不含 DTD 与实体；不识别命名空间，名称按原样保留前缀
+    private static volatile XMLInputFactory factory;
+
+    private final String xml;
+    private volatile ConfigNode root;
+
+    public PluginConfiguration(String xml) {
+        this.xml = xml;
+    }
+
+    /**
+     * The configuration element as XML, the root element is {@code <configuration>}.
+     */
+    public String getXml() {
+        return xml;
+    }
+
+    public boolean isExpanded() {
+        return root != null;
+    }
+
+    /**
+     * The {@code <configuration>} element, built from the XML on first access and cached.
+     * @throws IllegalStateException When the XML is not well-formed, which only happens for hand-made instances.
+     */
+    public ConfigNode getRoot() {
+        ConfigNode root = this.root;
+        if (root == null) {
+            root = expand(xml);
+            this.root = root;
+        }
+        return root;
+    }
+
+    /**
+     * The trimmed text of the element at a slash separated path below {@code <configuration>},
+     * e.g. {@code "archive/manifest/mainClass"}. {@code null} when it does not exist.
+     */
+    public String getValue(String path) {
+        ConfigNode node = getRoot();
+        for (String name : path.split("/")) {
+            node = node.getChild(name);
+            if (node == null)
+                return null;
+        }
+        return node.getValue();
+    }
+
+    private static ConfigNode expand(String xml) {
+        try {
+            XMLStreamReader reader = factory().createXMLStreamReader(new StringReader(xml));
+            try {
+                ArrayDeque<Map<String, String>> attributes = new ArrayDeque<>();
+                ArrayDeque<List<Object>> contents = new ArrayDeque<>();
+                ArrayDeque<String> names = new ArrayDeque<>();
+                ConfigNode root = null;
+                while (reader.hasNext()) {
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            Map<String, String> attrs = new LinkedHashMap<>();
+                            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                                //不识别命名空间时属性的前缀仍单独给出
+                                String prefix = reader.getAttributePrefix(i);
+                                String name = prefix == null || prefix.isEmpty() ? reader.getAttributeLocalName(i)
+                                        : prefix + ":" + reader.getAttributeLocalName(i);
+                                if (!isNamespaceDeclaration(name))
+                                    attrs.put(name, reader.getAttributeValue(i));
+                            }
+                            names.push(reader.getLocalName());
+                            attributes.push(attrs);
+                            contents.push(new ArrayList<>());
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            ConfigNode node = new ConfigNode(names.pop(), attributes.pop(), contents.pop());
+                            if (contents.isEmpty())
+                                root = node;
+                            else
+                                contents.peek().add(node);
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            if (!contents.isEmpty())
+                                contents.peek().add(reader.getText());
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                return root;
+            } finally {
+                reader.close();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("无法展开插件配置: " + e.getMessage(), e);
+        }
+    }
+
+    private static XMLInputFactory factory() {
+        XMLInputFactory f = factory;
+        if (f == null) {
+            f = ParserConfig.DEFAULT.newXMLInputFactory();
+            f.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            f.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+            factory = f;
+        }
+        return f;
+    }
+
+    static boolean isNamespaceDeclaration(String name) {
+        return name.equals("xmlns") || name.startsWith("xmlns:");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof PluginConfiguration && xml.equals(((PluginConfiguration) o).xml);
+    }
+
+    @Override
+    public int hashCode() {
+        return xml.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return xml;
+    }
+
+    /**
+     * Writes the compact XML of a configuration while a parser walks it. Both parsers go through here,
+     * so the same element yields the same text: attributes sorted by name, the default namespace left out and a
+     * prefix declared where the text first uses it. Also records the trimmed text of each top-level element,
+     * which is what the surefire test configurations are made of.
+     */
+    static final class Writer {
+        private final StringBuilder xml = new StringBuilder(256);
+        //已在文本中声明的前缀，按元素嵌套记录，元素结束时移除
+        private final Set<String> bound = new HashSet<>();
+        private final ArrayDeque<List<String>> declared = new ArrayDeque<>();
+        private int depth;
+        //顶层子元素的名称与文本，依次成对存放
+        private final List<String> values = new ArrayList<>();
+        private StringBuilder value;
+
+        /**
+         * @param namespaces The namespace URI a prefix is bound to at this element in the POM, {@code null} if none.
+         */
+        void startElement(String name, TreeMap<String, String> attributes, UnaryOperator<String> namespaces) {
+            List<String> prefixes = new ArrayList<>(1);
+            declare(name, namespaces, prefixes);
+            if (attributes != null) {
+                for (String attribute : attributes.keySet()) {
+                    declare(attribute, namespaces, prefixes);
+                }
+            }
+            if (!prefixes.isEmpty()) {
+                attributes = attributes == null ? new TreeMap<>() : new TreeMap<>(attributes);
+                for (String prefix : prefixes) {
+                    attributes.put("xmlns:" + prefix, namespaces.apply(prefix));
+                }
+            }
+            bound.addAll(prefixes);
+            declared.push(prefixes);
+            depth++;
+            if (depth == 2)
+                value = new StringBuilder();
+            xml.append('<').append(name);
+            if (attributes != null) {
+                for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                    xml.append(' ').append(attribute.getKey()).append("=\"");
+                    escape(attribute.getValue(), true);
+                    xml.append('"');
+                }
+            }
+            xml.append('>');
+        }
+
+        //前缀尚未在文本中声明且在POM中有绑定时，在当前元素上声明
+        private void declare(String name, UnaryOperator<String> namespaces, List<String> prefixes) {
+            int colon = name.indexOf(':');
+            if (colon <= 0)
+                return;
+            String prefix = name.substring(0, colon);
+            if (prefix.equals("xml") || bound.contains(prefix) || prefixes.contains(prefix))
+                return;
+            if (namespaces.apply(prefix) != null)
+                prefixes.add(prefix);
+        }
+
+        void text(char[] chars, int start, int length) {
+            for (int i = start; i < start + length; i++) {
+                escape(chars[i], false);
+            }
+            if (depth >= 2)
+                value.append(chars, start, length);
+        }
+
+        void text(String s) {
+            escape(s, false);
+            if (depth >= 2)
+                value.append(s);
+        }
+
+        void endElement(String name) {
+            xml.append("</").append(name).append('>');
+            if (depth == 2) {
+                values.add(name);
+                values.add(value.toString().trim());
+                value = null;
+            }
+            depth--;
+            bound.removeAll(declared.pop());
+        }
+
+        PluginConfiguration build() {
+            return new PluginConfiguration(xml.toString());
+        }
+
+        /**
+         * Names and trimmed text of the top-level elements, in pairs.
+         */
+        List<String> getValues() {
+            return values;
+        }
+
+        private void escape(String s, boolean attribute) {
+            for (int i = 0; i < s.length(); i++) {
+                escape(s.charAt(i), attribute);
+            }
+        }
+
+        private void escape(char c, boolean attribute) {
+            switch (c) {
+                case '&': xml.append("&amp;"); break;
+                case '<': xml.append("&lt;"); break;
+                case '>': xml.append("&gt;"); break;
+                case '"': xml.append(attribute ? "&quot;" : "\""); break;
+                case '\n': xml.append(attribute ? "&#10;" : "\n"); break;
+                case '\r': xml.append("&#13;"); break;
+                case '\t': xml.append(attribute ? "&#9;" : "\t"); break;
+                default: xml.append(c); break;
+            }
+        }
+    }
+}
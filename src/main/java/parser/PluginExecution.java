@@ -0,0 +1,43 @@
+package parser;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+/**
+ * An {@code <execution>} of a {@link Plugin}.
+ * @author i-Taozi
+ */
+@Getter
+@Setter
+public class PluginExecution {
+
+    //未声明时为空字符串，Maven 按 default 处理
+    private String id = "";
+    private String phase = "";
+    private List<String> goals = new ArrayList<>();
+    //没有 <configuration> 时为 null
+    private PluginConfiguration configuration;
+
+    public void addGoal(String goal) {
+        this.goals.add(goal);
+    }
+
+    public PluginExecution copy() {
+        PluginExecution copy = new PluginExecution();
+        copy.id = this.id;
+        copy.phase = this.phase;
+        copy.goals = new ArrayList<>(this.goals);
+        copy.configuration = this.configuration;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return "PluginExecution{" +
+                "id='" + id + '\'' +
+                ", phase='" + phase + '\'' +
+                ", goals=" + goals +
+                '}';
+    }
+}
@@ -0,0 +1,54 @@
+package parser;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+/**
+ * A {@code <profile>} of a POM: its activation and what it contributes when active. Its build plugins are kept
+ * with the POM's, see {@link Plugin#getProfile()}. Which profiles are active is decided per
+ * {@link ActivationContext}, see {@link POM#getEffectiveModel(ActivationContext)}.
+ * @author i-Taozi
+ */
+@Getter
+@Setter
+public class Profile {
+
+    private String id = "";
+    private ProfileActivation activation = new ProfileActivation();
+
+    private HashMap<String, String> rawProperties = new HashMap<>();
+    private ArrayList<Dependency> dependencies = new ArrayList<>();
+    private ArrayList<Dependency> managedDependencies = new ArrayList<>();
+    private ArrayList<String> modules = new ArrayList<>();
+    private ArrayList<String> repositoryUrls = new ArrayList<>();
+
+    public void addProperty(String name, String value) {
+        rawProperties.put(name, value);
+    }
+
+    public void addDependency(Dependency dependency) {
+        dependencies.add(dependency);
+    }
+
+    public void addManagedDependency(Dependency dependency) {
+        managedDependencies.add(dependency);
+    }
+
+    public void addModule(String module) {
+        modules.add(module);
+    }
+
+    public void addRepositoryUrl(String url) {
+        if (!repositoryUrls.contains(url))
+            repositoryUrls.add(url);
+    }
+
+    @Override
+    public String toString() {
+        return "Profile{" +
+                "id='" + id + '\'' +
+                ", activation=" + activation +
+                '}';
+    }
+}
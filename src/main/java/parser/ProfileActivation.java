@@ -0,0 +1,172 @@
+package parser;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.File;
+/**
+ * The {@code <activation>} of a {@link Profile}. Absent conditions are {@code null}; a profile with conditions
+ * is active when all of them match, as in Maven 3.2.2 and later.
+ * @author i-Taozi
+ */
+@Getter
+@Setter
+public class ProfileActivation {
+
+    private boolean activeByDefault;
+    private String jdk;
+    private String osName;
+    private String osFamily;
+    private String osArch;
+    private String osVersion;
+    private String propertyName;
+    private String propertyValue;
+    private String fileExists;
+    private String fileMissing;
+
+    /**
+     * Set a condition by its path below {@code <activation>}, e.g. {@code jdk} or {@code os/family}.
+     * Unknown paths are ignored.
+     */
+    public void set(String path, String value) {
+        switch (path) {
+            case "activeByDefault": activeByDefault = value.equals("true"); break;
+            case "jdk": jdk = value; break;
+            case "os/name": osName = value; break;
+            case "os/family": osFamily = value; break;
+            case "os/arch": osArch = value; break;
+            case "os/version": osVersion = value; break;
+            case "property/name": propertyName = value; break;
+            case "property/value": propertyValue = value; break;
+            case "file/exists": fileExists = value; break;
+            case "file/missing": fileMissing = value; break;
+            default: break;
+        }
+    }
+
+    public boolean hasConditions() {
+        return jdk != null || osName != null || osFamily != null || osArch != null || osVersion != null
+                || propertyName != null || fileExists != null || fileMissing != null;
+    }
+
+    /**
+     * Whether every declared condition holds in the context, {@code false} when there are none.
+     * @param pom The POM declaring the profile, file paths are relative to its directory.
+     */
+    boolean matches(ActivationContext context, POM pom) {
+        if (!hasConditions())
+            return false;
+        if (jdk != null && !matchesJdk(context.getJdkVersion()))
+            return false;
+        if (osName != null && !matchesNegatable(osName, context.getOsName()))
+            return false;
+        if (osFamily != null && !matchesFamily(context.getOsName()))
+            return false;
+        if (osArch != null && !matchesNegatable(osArch, context.getOsArch()))
+            return false;
+        if (osVersion != null && !matchesNegatable(osVersion, context.getOsVersion()))
+            return false;
+        if (propertyName != null && !matchesProperty(context))
+            return false;
+        if (fileExists != null && !context.exists(resolve(fileExists, pom), pom.getSource()))
+            return false;
+        return fileMissing == null || !context.exists(resolve(fileMissing, pom), pom.getSource());
+    }
+
+    //"1.8" 按前缀匹配，"[1.8,11)" 按版本范围，"!" 取反
+    private boolean matchesJdk(String version) {
+        if (version == null)
+            return false;
+        String spec = jdk.trim();
+        boolean negated = spec.startsWith("!");
+        if (negated)
+            spec = spec.substring(1).trim();
+        boolean matched;
+        if (VersionRange.isRange(spec)) {
+            try {
+                matched = VersionRange.parse(spec).containsVersion(version.replace('_', '.'));
+            } catch (IllegalArgumentException e) {
+                matched = false;
+            }
+        } else {
+            matched = version.startsWith(spec);
+        }
+        return matched != negated;
+    }
+
+    //ActivationContext 中的系统信息已转为小写
+    private static boolean matchesNegatable(String spec, String actual) {
+        if (actual == null)
+            return false;
+        spec = spec.trim().toLowerCase();
+        boolean negated = spec.startsWith("!");
+        if (negated)
+            spec = spec.substring(1);
+        return actual.equals(spec) != negated;
+    }
+
+    private boolean matchesFamily(String name) {
+        if (name == null)
+            return false;
+        String spec = osFamily.trim().toLowerCase();
+        boolean negated = spec.startsWith("!");
+        if (negated)
+            spec = spec.substring(1);
+        boolean windows = name.contains("windows");
+        boolean matched;
+        switch (spec) {
+            case "windows":
+            case "dos":
+                matched = windows;
+                break;
+            case "mac":
+                matched = name.contains("mac");
+                break;
+            case "unix":
+                matched = !windows && !name.contains("os/2") && !name.contains("openvms")
+                        && (!name.contains("mac") || name.endsWith("x"));
+                break;
+            default:
+                matched = name.contains(spec);
+                break;
+        }
+        return matched != negated;
+    }
+
+    //"name" 要求属性存在，"!name" 要求不存在；value 可用 "!" 取反
+    private boolean matchesProperty(ActivationContext context) {
+        String name = propertyName.trim();
+        boolean negated = name.startsWith("!");
+        if (negated)
+            name = name.substring(1).trim();
+        String actual = context.getProperty(name);
+        if (negated)
+            return actual == null;
+        if (propertyValue == null)
+            return actual != null;
+        if (actual == null)
+            return false;
+        String value = propertyValue.trim();
+        if (value.startsWith("!"))
+            return !actual.equals(value.substring(1));
+        return actual.equals(value);
+    }
+
+    private static String resolve(String file, POM pom) {
+        File dir = pom.getPath() == null ? new File(".") : new File(pom.getPath()).getAbsoluteFile().getParentFile();
+        String path = file.trim().replace("${project.basedir}", dir.getPath()).replace("${basedir}", dir.getPath());
+        File resolved = new File(path);
+        return resolved.isAbsolute() ? resolved.getPath() : new File(dir, path).getPath();
+    }
+
+    @Override
+    public String toString() {
+        return "ProfileActivation{" +
+                (activeByDefault ? "activeByDefault" : "") +
+                (jdk == null ? "" : " jdk=" + jdk) +
+                (osName == null && osFamily == null ? "" : " os=" + osName + "/" + osFamily) +
+                (propertyName == null ? "" : " property=" + propertyName + "=" + propertyValue) +
+                (fileExists == null ? "" : " exists=" + fileExists) +
+                (fileMissing == null ? "" : " missing=" + fileMissing) +
+                '}';
+    }
+}
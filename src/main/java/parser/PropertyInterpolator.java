@@ -0,0 +1,139 @@
+package parser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the effective properties of a POM: raw properties merged along the parent chain
+ * (the child wins), the {@code project.*} built-ins, and nested {@code ${...}} references.
+ * References that cannot be resolved, or that are part of a cycle, are left as they are.
+ * @author i-Taozi
+ */
+final class PropertyInterpolator {
+
+    static final Pattern PROPERTY_PATTERN = Pattern.compile("\\$\\{(.*?)}");
+
+    private PropertyInterpolator() {
+    }
+
+    static LinkedHashMap<String, String> effectiveProperties(POM pom) {
+        Map<String, String> raw = new HashMap<>();
+        List<POM> chain = parentChain(pom);
+        //从最顶层的父POM开始合并，子POM覆盖父POM
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            raw.putAll(chain.get(i).getRawProperties());
+        }
+        return resolveAll(pom, raw);
+    }
+
+    /**
+     * Add the {@code project.*} built-ins of the POM to already merged raw properties and resolve them all.
+     */
+    static LinkedHashMap<String, String> resolveAll(POM pom, Map<String, String> raw) {
+        addBuiltIns(pom, raw);
+
+        LinkedHashMap<String, String> resolved = new LinkedHashMap<>(raw.size() * 2);
+        Set<String> inProgress = new HashSet<>();
+        for (String name : raw.keySet()) {
+            resolve(name, raw, resolved, inProgress);
+        }
+        return resolved;
+    }
+
+    /**
+     * Replace every {@code ${name}} in {@code s} found in the resolved properties.
+     */
+    static String interpolate(String s, Map<String, String> properties) {
+        if (s == null || !s.contains("${"))
+            return s;
+        Matcher matcher = PROPERTY_PATTERN.matcher(s);
+        StringBuilder sb = null;
+        int last = 0;
+        while (matcher.find()) {
+            String value = properties.get(matcher.group(1).trim());
+            if (value == null)
+                continue;
+            if (sb == null)
+                sb = new StringBuilder(s.length() + 16);
+            sb.append(s, last, matcher.start()).append(value);
+            last = matcher.end();
+        }
+        if (sb == null)
+            return s;
+        return sb.append(s, last, s.length()).toString();
+    }
+
+    private static String resolve(String name, Map<String, String> raw, Map<String, String> resolved, Set<String> inProgress) {
+        String value = resolved.get(name);
+        if (value != null)
+            return value;
+        value = raw.get(name);
+        if (value == null || !inProgress.add(name))
+            return null;
+        if (value.contains("${")) {
+            Matcher matcher = PROPERTY_PATTERN.matcher(value);
+            StringBuilder sb = new StringBuilder(value.length() + 16);
+            int last = 0;
+            while (matcher.find()) {
+                String nested = resolve(matcher.group(1).trim(), raw, resolved, inProgress);
+                sb.append(value, last, matcher.start()).append(nested != null ? nested : matcher.group(0));
+                last = matcher.end();
+            }
+            value = sb.append(value, last, value.length()).toString();
+        }
+        inProgress.remove(name);
+        resolved.put(name, value);
+        return value;
+    }
+
+    /**
+     * The POM followed by its parents, nearest first, stopping at a cycle.
+     */
+    static List<POM> parentChain(POM pom) {
+        List<POM> chain = new ArrayList<>();
+        Map<POM, Boolean> seen = new IdentityHashMap<>();
+        POM current = pom;
+        while (current != null && seen.put(current, Boolean.TRUE) == null) {
+            chain.add(current);
+            current = current.hasParent() ? current.getParent() : null;
+        }
+        return chain;
+    }
+
+    private static void addBuiltIns(POM pom, Map<String, String> raw) {
+        putIfPresent(raw, "project.groupId", pom.getGroupId());
+        putIfPresent(raw, "project.artifactId", pom.getArtifactId());
+        putIfPresent(raw, "project.version", pom.getVersion());
+        String packaging = pom.getPackaging();
+        putIfPresent(raw, "project.packaging", packaging == null || packaging.equals("") ? "jar" : packaging);
+        putIfPresent(raw, "project.parent.groupId", pom.getParentGroupId());
+        putIfPresent(raw, "project.parent.artifactId", pom.getParentArtifactId());
+        putIfPresent(raw, "project.parent.version", pom.getParentVersion());
+        putIfPresent(raw, "parent.version", pom.getParentVersion());
+        //Maven 2 的旧写法
+        putIfPresent(raw, "pom.groupId", pom.getGroupId());
+        putIfPresent(raw, "pom.artifactId", pom.getArtifactId());
+        putIfPresent(raw, "pom.version", pom.getVersion());
+        if (pom.getPath() != null) {
+            File dir = new File(pom.getPath()).getAbsoluteFile().getParentFile();
+            if (dir != null) {
+                putIfPresent(raw, "project.basedir", dir.getPath());
+                putIfPresent(raw, "basedir", dir.getPath());
+            }
+        }
+    }
+
+    private static void putIfPresent(Map<String, String> raw, String name, String value) {
+        if (value != null && !value.equals(""))
+            raw.put(name, value);
+    }
+}
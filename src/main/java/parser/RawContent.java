@@ -0,0 +1,83 @@
+package parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loads the text of a pom.xml on demand, for POMs that do not keep {@code raw} in memory.
+ * POMs from another {@link POMSource} are read through that source.
+ * @author i-Taozi
+ */
+final class RawContent {
+
+    private static final Pattern ENCODING = Pattern.compile("<\\?xml[^>]*encoding\\s*=\\s*[\"']([A-Za-z0-9._-]+)[\"']");
+
+    private RawContent() {
+    }
+
+    //不使用内存映射：映射在回收前一直存在，Windows 上会阻止修改或删除 pom.xml
+    static String load(String path) {
+        try {
+            return decode(Files.readAllBytes(Paths.get(path)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot load raw content of " + path, e);
+        }
+    }
+
+    static String load(POMSource source, String path) {
+        if (source == null || source == POMSource.FILES)
+            return load(path);
+        try {
+            return decode(read(source, path));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot load raw content of " + path, e);
+        }
+    }
+
+    static byte[] read(POMSource source, String path) throws IOException {
+        if (source == POMSource.FILES)
+            return Files.readAllBytes(Paths.get(path));
+        try (InputStream in = source.open(path)) {
+            ByteArrayOutputStream content = new ByteArrayOutputStream(8192);
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                content.write(buffer, 0, n);
+            }
+            return content.toByteArray();
+        }
+    }
+
+    static String decode(byte[] content) {
+        return decode(ByteBuffer.wrap(content));
+    }
+
+    private static String decode(ByteBuffer buffer) {
+        return charset(buffer).decode(buffer).toString();
+    }
+
+    //只看 XML 声明里的 encoding，缺省 UTF-8
+    private static Charset charset(ByteBuffer buffer) {
+        int length = Math.min(buffer.remaining(), 128);
+        byte[] head = new byte[length];
+        buffer.duplicate().get(head);
+        Matcher matcher = ENCODING.matcher(new String(head, StandardCharsets.ISO_8859_1));
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (Exception e) {
+                return StandardCharsets.UTF_8;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
@@ -0,0 +1,127 @@
+package parser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds a {@link POMTree} for each of many checked-out repositories with bounded concurrency.
+ * Trees are handed to a {@link ScanListener} as each repository finishes and failures are collected
+ * per repository instead of aborting the scan. Runs on virtual threads when the JVM has them.
+ * @author i-Taozi
+ */
+public class RepositoryScanner {
+
+    private final POMParser pomParser;
+    private final int concurrency;
+    private StringPool stringPool;
+    private LocalRepository localRepository;
+
+    /**
+     * @param pomParser Shared by all workers, see {@link POMParser} for its thread-safety.
+     * @param concurrency Maximum number of repositories processed at the same time.
+     */
+    public RepositoryScanner(POMParser pomParser, int concurrency) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("concurrency must be positive: " + concurrency);
+        this.pomParser = pomParser;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Share one string pool between all scanned trees, {@code null} gives every tree its own.
+     */
+    public void setStringPool(StringPool stringPool) {
+        this.stringPool = stringPool;
+    }
+
+    /**
+     * Resolve parents outside each reactor from a local repository, see {@link POMTree#setLocalRepository}.
+     */
+    public void setLocalRepository(LocalRepository localRepository) {
+        this.localRepository = localRepository;
+    }
+
+    /**
+     * Scan every direct sub-directory of {@code rootDir} as a repository.
+     */
+    public ScanReport scan(String rootDir, ScanListener listener) throws InterruptedException {
+        File[] dirs = new File(rootDir).listFiles(File::isDirectory);
+        List<String> repoDirs = new ArrayList<>();
+        if (dirs != null) {
+            Arrays.sort(dirs);
+            for (File dir : dirs) {
+                repoDirs.add(dir.getPath());
+            }
+        }
+        return scan(repoDirs, listener);
+    }
+
+    public ScanReport scan(List<String> repoDirs, ScanListener listener) throws InterruptedException {
+        long start = System.nanoTime();
+        Map<String, Exception> failures = new ConcurrentHashMap<>();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicLong poms = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(repoDirs.size());
+        Semaphore permits = new Semaphore(this.concurrency);
+        ExecutorService executor = newExecutor();
+        try {
+            for (String repoDir : repoDirs) {
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        POMTree tree = new POMTree(repoDir, this.pomParser);
+                        if (this.stringPool != null)
+                            tree.setStringPool(this.stringPool);
+                        tree.setLocalRepository(this.localRepository);
+                        tree.createPomTree();
+                        //监听器抛出异常时只计为失败，成功数与失败数之和等于仓库数
+                        listener.onTree(repoDir, tree);
+                        poms.addAndGet(tree.getPomList().size());
+                        succeeded.incrementAndGet();
+                    } catch (Exception e) {
+                        failures.put(repoDir, e);
+                        listener.onFailure(repoDir, e);
+                    } finally {
+                        permits.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            executor.shutdown();
+        }
+        //按输入顺序整理失败列表
+        Map<String, Exception> ordered = new LinkedHashMap<>();
+        for (String repoDir : repoDirs) {
+            Exception e = failures.get(repoDir);
+            if (e != null)
+                ordered.put(repoDir, e);
+        }
+        return new ScanReport(repoDirs.size(), succeeded.get(), poms.get(), System.nanoTime() - start, ordered);
+    }
+
+    //Java 21+ 使用虚拟线程，并发度仍由信号量限制；否则使用固定大小线程池
+    private ExecutorService newExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(this.concurrency, r -> {
+                Thread thread = new Thread(r, "repository-scanner");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
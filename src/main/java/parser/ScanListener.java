@@ -0,0 +1,17 @@
+package parser;
+
+/**
+ * Receives the trees of a {@link RepositoryScanner} as each repository finishes.
+ * Called from the scanner's worker threads, implementations must be thread-safe.
+ * @author i-Taozi
+ */
+public interface ScanListener {
+
+    /**
+     * A repository was built. An exception thrown here makes the repository count as failed, see {@link #onFailure}.
+     */
+    void onTree(String repoDir, POMTree tree);
+
+    default void onFailure(String repoDir, Exception e) {
+    }
+}
@@ -0,0 +1,48 @@
+package parser;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a {@link RepositoryScanner} run: counts, per-repository failures and throughput.
+ * @author i-Taozi
+ */
+@Getter
+public class ScanReport {
+
+    private final int repositories;
+    private final int succeeded;
+    private final long poms;
+    private final long elapsedNanos;
+    private final Map<String, Exception> failures;
+
+    ScanReport(int repositories, int succeeded, long poms, long elapsedNanos, Map<String, Exception> failures) {
+        this.repositories = repositories;
+        this.succeeded = succeeded;
+        this.poms = poms;
+        this.elapsedNanos = elapsedNanos;
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    public double getReposPerSecond() {
+        return perSecond(repositories);
+    }
+
+    public double getPomsPerSecond() {
+        return perSecond(poms);
+    }
+
+    private double perSecond(long count) {
+        return elapsedNanos == 0 ? 0 : count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ScanReport{repositories=%d, succeeded=%d, failed=%d, poms=%d, %.1f repos/s, %.1f POMs/s}",
+                repositories, succeeded, failures.size(), poms, getReposPerSecond(), getPomsPerSecond());
+    }
+}
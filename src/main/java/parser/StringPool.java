@@ -0,0 +1,113 @@
+package parser;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances for the strings that repeat across the POMs of a tree: coordinates, versions,
+ * property names and values, repository URLs. Thread-safe; share one pool between trees to dedupe across them.
+ * Strings are held weakly and leave the pool once no POM references them, so a pool shared by a long-running
+ * scan does not keep every string it has seen.
+ * @author i-Taozi
+ */
+public class StringPool {
+
+    //键与值是同一个字符串，值用弱引用，否则 WeakHashMap 的条目永远不会被回收
+    private final WeakHashMap<String, WeakReference<String>> pool = new WeakHashMap<>();
+
+    public String intern(String s) {
+        if (s == null)
+            return null;
+        synchronized (pool) {
+            WeakReference<String> ref = pool.get(s);
+            String canonical = ref == null ? null : ref.get();
+            if (canonical != null)
+                return canonical;
+            pool.put(s, new WeakReference<>(s));
+            return s;
+        }
+    }
+
+    /**
+     * Number of pooled strings, including ones that are no longer referenced but not yet collected.
+     */
+    public int size() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (pool) {
+            pool.clear();
+        }
+    }
+
+    /**
+     * Replace the strings held by a parsed POM with their pooled instances.
+     */
+    public void intern(POM pom) {
+        pom.setGroupId(intern(pom.getGroupId()));
+        pom.setArtifactId(intern(pom.getArtifactId()));
+        pom.setVersion(intern(pom.getVersion()));
+        pom.setPackaging(intern(pom.getPackaging()));
+        pom.setParentGroupId(intern(pom.getParentGroupId()));
+        pom.setParentArtifactId(intern(pom.getParentArtifactId()));
+        pom.setParentVersion(intern(pom.getParentVersion()));
+        pom.setRawProperties(intern(pom.getRawProperties()));
+        pom.setTestConfigurations(intern(pom.getTestConfigurations()));
+        intern(pom.getRawDependencies());
+        intern(pom.getManagedDependencies());
+        pom.getModules().replaceAll(this::intern);
+        pom.getRepositoryUrls().replaceAll(this::intern);
+        internPlugins(pom.getPlugins());
+        internPlugins(pom.getManagedPlugins());
+        for (Profile profile : pom.getProfiles()) {
+            profile.setId(intern(profile.getId()));
+            profile.setRawProperties(intern(profile.getRawProperties()));
+            intern(profile.getDependencies());
+            intern(profile.getManagedDependencies());
+            profile.getModules().replaceAll(this::intern);
+            profile.getRepositoryUrls().replaceAll(this::intern);
+        }
+        pom.invalidateProperties();
+    }
+
+    //配置文本通常各不相同，不放入池中
+    private void internPlugins(List<Plugin> plugins) {
+        for (Plugin plugin : plugins) {
+            plugin.setGroupId(intern(plugin.getGroupId()));
+            plugin.setArtifactId(intern(plugin.getArtifactId()));
+            plugin.setVersion(intern(plugin.getVersion()));
+            plugin.setProfile(intern(plugin.getProfile()));
+            for (PluginExecution execution : plugin.getExecutions()) {
+                execution.setId(intern(execution.getId()));
+                execution.setPhase(intern(execution.getPhase()));
+                execution.getGoals().replaceAll(this::intern);
+            }
+        }
+    }
+
+    private void intern(List<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            dependency.setGroupID(intern(dependency.getGroupID()));
+            dependency.setArtifactID(intern(dependency.getArtifactID()));
+            dependency.setVersion(intern(dependency.getVersion()));
+            dependency.setScope(intern(dependency.getScope()));
+            dependency.setType(intern(dependency.getType()));
+            dependency.setClassifier(intern(dependency.getClassifier()));
+            dependency.getExclusions().replaceAll(this::intern);
+        }
+    }
+
+    private HashMap<String, String> intern(HashMap<String, String> map) {
+        HashMap<String, String> interned = new HashMap<>(Math.max(4, map.size() * 4 / 3 + 1));
+        for (Map.Entry<String, String> item : map.entrySet()) {
+            interned.put(intern(item.getKey()), intern(item.getValue()));
+        }
+        return interned;
+    }
+}
@@ -0,0 +1,343 @@
+package parser;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A Maven version with Maven's ordering (the rules of {@code ComparableVersion}):
+ * versions are split into numbers and qualifiers at '.', '-' and digit/letter transitions,
+ * trailing zeros and "final"/"ga"/"release" are ignored, and qualifiers order as
+ * alpha &lt; beta &lt; milestone &lt; rc &lt; snapshot &lt; (release) &lt; sp &lt; unknown qualifiers (alphabetically).
+ * <p>
+ * {@link #parse(String)} returns interned instances from a bounded cache, parsing each distinct string once.
+ * @author i-Taozi
+ */
+public final class Version implements Comparable<Version> {
+
+    private static final BoundedCache<String, Version> CACHE = new BoundedCache<>(65536);
+
+    private final String value;
+    private final ListItem items;
+    private final String canonical;
+
+    private Version(String value) {
+        this.value = value;
+        this.items = parseItems(value);
+        this.canonical = items.toString();
+    }
+
+    public static Version parse(String version) {
+        return CACHE.get(version, Version::new);
+    }
+
+    public static BoundedCache<String, Version> getCache() {
+        return CACHE;
+    }
+
+    /**
+     * The version string as written.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * A normalized form, equal for versions that compare as equal, e.g. "1.0" and "1" and "1-ga".
+     */
+    public String getCanonical() {
+        return canonical;
+    }
+
+    public boolean isSnapshot() {
+        return value.endsWith("SNAPSHOT");
+    }
+
+    @Override
+    public int compareTo(Version other) {
+        return items.compareTo(other.items);
+    }
+
+    public boolean isNewerThan(Version other) {
+        return compareTo(other) > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Version && canonical.equals(((Version) o).canonical);
+    }
+
+    @Override
+    public int hashCode() {
+        return canonical.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    // ---------------------------------------------------------------- 解析
+
+    private static ListItem parseItems(String version) {
+        ListItem items = new ListItem();
+        version = version.toLowerCase(Locale.ENGLISH);
+        ListItem list = items;
+        Deque<ListItem> stack = new ArrayDeque<>();
+        stack.push(list);
+        boolean isDigit = false;
+        int start = 0;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+            if (c == '.') {
+                list.add(i == start ? NumberItem.ZERO : parseItem(isDigit, version.substring(start, i)));
+                start = i + 1;
+            } else if (c == '-') {
+                list.add(i == start ? NumberItem.ZERO : parseItem(isDigit, version.substring(start, i)));
+                start = i + 1;
+                list.add(list = new ListItem());
+                stack.push(list);
+            } else if (Character.isDigit(c)) {
+                //字母转数字：1.0alpha1 等价于 1.0-alpha-1
+                if (!isDigit && i > start) {
+                    list.add(new StringItem(version.substring(start, i), true));
+                    start = i;
+                    list.add(list = new ListItem());
+                    stack.push(list);
+                }
+                isDigit = true;
+            } else {
+                if (isDigit && i > start) {
+                    list.add(parseItem(true, version.substring(start, i)));
+                    start = i;
+                    list.add(list = new ListItem());
+                    stack.push(list);
+                }
+                isDigit = false;
+            }
+        }
+        if (version.length() > start)
+            list.add(parseItem(isDigit, version.substring(start)));
+        while (!stack.isEmpty()) {
+            stack.pop().normalize();
+        }
+        return items;
+    }
+
+    private static Item parseItem(boolean isDigit, String buf) {
+        return isDigit ? new NumberItem(buf) : new StringItem(buf, false);
+    }
+
+    private interface Item {
+        int NUMBER = 0;
+        int STRING = 1;
+        int LIST = 2;
+
+        int type();
+
+        boolean isNull();
+
+        //other 为 null 表示与缺失的部分比较
+        int compareTo(Item other);
+    }
+
+    private static final class NumberItem implements Item {
+        static final NumberItem ZERO = new NumberItem("0");
+
+        //不超过 18 位时使用 long，否则使用 BigInteger
+        private final long value;
+        private final BigInteger big;
+
+        NumberItem(String digits) {
+            int i = 0;
+            while (i < digits.length() - 1 && digits.charAt(i) == '0') {
+                i++;
+            }
+            digits = digits.substring(i);
+            if (digits.length() <= 18) {
+                this.value = Long.parseLong(digits);
+                this.big = null;
+            } else {
+                this.value = -1;
+                this.big = new BigInteger(digits);
+            }
+        }
+
+        @Override
+        public int type() {
+            return NUMBER;
+        }
+
+        @Override
+        public boolean isNull() {
+            return big == null && value == 0;
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            if (other == null)
+                return isNull() ? 0 : 1;
+            if (other.type() != NUMBER)
+                return 1;
+            NumberItem that = (NumberItem) other;
+            if (big == null && that.big == null)
+                return Long.compare(value, that.value);
+            return toBig().compareTo(that.toBig());
+        }
+
+        private BigInteger toBig() {
+            return big != null ? big : BigInteger.valueOf(value);
+        }
+
+        @Override
+        public String toString() {
+            return big != null ? big.toString() : Long.toString(value);
+        }
+    }
+
+    private static final class StringItem implements Item {
+        private static final List<String> QUALIFIERS = Arrays.asList("alpha", "beta", "milestone", "rc", "snapshot", "", "sp");
+        private static final String RELEASE_VERSION_INDEX = String.valueOf(QUALIFIERS.indexOf(""));
+
+        private final String value;
+
+        StringItem(String value, boolean followedByDigit) {
+            if (followedByDigit && value.length() == 1) {
+                switch (value.charAt(0)) {
+                    case 'a':
+                        value = "alpha";
+                        break;
+                    case 'b':
+                        value = "beta";
+                        break;
+                    case 'm':
+                        value = "milestone";
+                        break;
+                    default:
+                }
+            }
+            switch (value) {
+                case "ga":
+                case "final":
+                case "release":
+                    value = "";
+                    break;
+                case "cr":
+                    value = "rc";
+                    break;
+                default:
+            }
+            this.value = value;
+        }
+
+        //已知限定符按列表顺序，未知限定符排在所有已知限定符之后并按字母序
+        private static String comparableQualifier(String qualifier) {
+            int i = QUALIFIERS.indexOf(qualifier);
+            return i == -1 ? (QUALIFIERS.size() + "-" + qualifier) : String.valueOf(i);
+        }
+
+        @Override
+        public int type() {
+            return STRING;
+        }
+
+        @Override
+        public boolean isNull() {
+            return value.isEmpty();
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            if (other == null)
+                return comparableQualifier(value).compareTo(RELEASE_VERSION_INDEX);
+            switch (other.type()) {
+                case STRING:
+                    return comparableQualifier(value).compareTo(comparableQualifier(((StringItem) other).value));
+                default:
+                    return -1;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class ListItem extends ArrayList<Item> implements Item {
+
+        @Override
+        public int type() {
+            return LIST;
+        }
+
+        @Override
+        public boolean isNull() {
+            return isEmpty();
+        }
+
+        //去掉末尾的 0、空限定符与空列表
+        void normalize() {
+            for (int i = size() - 1; i >= 0; i--) {
+                Item last = get(i);
+                if (last.isNull()) {
+                    remove(i);
+                } else if (last.type() != LIST) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public int compareTo(Item other) {
+            if (other == null) {
+                if (isEmpty())
+                    return 0;
+                return get(0).compareTo(null);
+            }
+            switch (other.type()) {
+                case NUMBER:
+                    return -1;
+                case STRING:
+                    return 1;
+                default:
+                    Iterator<Item> left = iterator();
+                    Iterator<Item> right = ((ListItem) other).iterator();
+                    while (left.hasNext() || right.hasNext()) {
+                        Item l = left.hasNext() ? left.next() : null;
+                        Item r = right.hasNext() ? right.next() : null;
+                        int result = l == null ? (r == null ? 0 : -1 * r.compareTo(null)) : l.compareTo(r);
+                        if (result != 0)
+                            return result;
+                    }
+                    return 0;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (Item item : this) {
+                if (sb.length() > 0)
+                    sb.append(item.type() == LIST ? '-' : '.');
+                sb.append(item);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A Maven version specification: a plain recommended version such as {@code 1.0}, or one or more ranges
+ * such as {@code [1.0,2.0)}, {@code [1.5]}, {@code (,1.0],[1.2,)}.
+ * A plain version contains every version, as in Maven where it is only a recommendation.
+ * @author i-Taozi
+ */
+public final class VersionRange {
+
+    private static final BoundedCache<String, VersionRange> CACHE = new BoundedCache<>(16384);
+
+    private final String spec;
+    private final Version recommendedVersion;
+    private final List<Restriction> restrictions;
+
+    private VersionRange(String spec, Version recommendedVersion, List<Restriction> restrictions) {
+        this.spec = spec;
+        this.recommendedVersion = recommendedVersion;
+        this.restrictions = Collections.unmodifiableList(restrictions);
+    }
+
+    /**
+     * Parse a version specification, cached like {@link Version#parse(String)}.
+     * @throws IllegalArgumentException When a range is malformed.
+     */
+    public static VersionRange parse(String spec) {
+        VersionRange range = CACHE.get(spec, VersionRange::create);
+        if (range == null)
+            throw new IllegalArgumentException("版本范围格式错误: " + spec);
+        return range;
+    }
+
+    /**
+     * Whether the version string is a range rather than a single version.
+     */
+    public static boolean isRange(String version) {
+        return version.startsWith("[") || version.startsWith("(");
+    }
+
+    /**
+     * Whether the resolved version can change between builds: RELEASE, LATEST, snapshots and ranges.
+     */
+    public static boolean isDynamic(String version) {
+        return version.equals("RELEASE") || version.equals("LATEST") || version.endsWith("SNAPSHOT") || isRange(version);
+    }
+
+    public String getSpec() {
+        return spec;
+    }
+
+    /**
+     * The version of a plain specification, {@code null} for ranges.
+     */
+    public Version getRecommendedVersion() {
+        return recommendedVersion;
+    }
+
+    public List<Restriction> getRestrictions() {
+        return restrictions;
+    }
+
+    public boolean hasRestrictions() {
+        return !restrictions.isEmpty();
+    }
+
+    public boolean containsVersion(String version) {
+        return containsVersion(Version.parse(version));
+    }
+
+    public boolean containsVersion(Version version) {
+        if (restrictions.isEmpty())
+            return true;
+        for (Restriction restriction : restrictions) {
+            if (restriction.containsVersion(version))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * The newest of the given versions inside this range, {@code null} when none is.
+     */
+    public Version match(Iterable<Version> versions) {
+        Version best = null;
+        for (Version version : versions) {
+            if (containsVersion(version) && (best == null || version.isNewerThan(best)))
+                best = version;
+        }
+        return best;
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    //格式错误时返回 null，由 parse 抛出异常
+    private static VersionRange create(String spec) {
+        String rest = spec.trim();
+        if (!isRange(rest))
+            return new VersionRange(spec, Version.parse(rest), Collections.<Restriction>emptyList());
+        List<Restriction> restrictions = new ArrayList<>();
+        while (isRange(rest)) {
+            int close = indexOfClose(rest);
+            if (close < 0)
+                return null;
+            Restriction restriction = Restriction.parse(rest.substring(0, close + 1));
+            if (restriction == null)
+                return null;
+            restrictions.add(restriction);
+            rest = rest.substring(close + 1).trim();
+            if (rest.startsWith(","))
+                rest = rest.substring(1).trim();
+        }
+        if (!rest.isEmpty())
+            return null;
+        return new VersionRange(spec, null, restrictions);
+    }
+
+    private static int indexOfClose(String s) {
+        int bracket = s.indexOf(']');
+        int paren = s.indexOf(')');
+        if (bracket < 0)
+            return paren;
+        if (paren < 0)
+            return bracket;
+        return Math.min(bracket, paren);
+    }
+
+    /**
+     * One interval; a {@code null} bound is unbounded.
+     */
+    public static final class Restriction {
+        private final Version lowerBound;
+        private final boolean lowerInclusive;
+        private final Version upperBound;
+        private final boolean upperInclusive;
+
+        Restriction(Version lowerBound, boolean lowerInclusive, Version upperBound, boolean upperInclusive) {
+            this.lowerBound = lowerBound;
+            this.lowerInclusive = lowerInclusive;
+            this.upperBound = upperBound;
+            this.upperInclusive = upperInclusive;
+        }
+
+        static Restriction parse(String spec) {
+            boolean lowerInclusive = spec.startsWith("[");
+            boolean upperInclusive = spec.endsWith("]");
+            String body = spec.substring(1, spec.length() - 1).trim();
+            int comma = body.indexOf(',');
+            if (comma < 0) {
+                //[1.0] 表示恰好该版本
+                if (!lowerInclusive || !upperInclusive || body.isEmpty())
+                    return null;
+                Version version = Version.parse(body);
+                return new Restriction(version, true, version, true);
+            }
+            String lower = body.substring(0, comma).trim();
+            String upper = body.substring(comma + 1).trim();
+            if (upper.contains(","))
+                return null;
+            Version lowerBound = lower.isEmpty() ? null : Version.parse(lower);
+            Version upperBound = upper.isEmpty() ? null : Version.parse(upper);
+            if (lowerBound != null && upperBound != null) {
+                int c = lowerBound.compareTo(upperBound);
+                if (c > 0 || (c == 0 && !(lowerInclusive && upperInclusive)))
+                    return null;
+            }
+            return new Restriction(lowerBound, lowerInclusive, upperBound, upperInclusive);
+        }
+
+        public Version getLowerBound() {
+            return lowerBound;
+        }
+
+        public boolean isLowerInclusive() {
+            return lowerInclusive;
+        }
+
+        public Version getUpperBound() {
+            return upperBound;
+        }
+
+        public boolean isUpperInclusive() {
+            return upperInclusive;
+        }
+
+        public boolean containsVersion(Version version) {
+            if (lowerBound != null) {
+                int c = lowerBound.compareTo(version);
+                if (c > 0 || (c == 0 && !lowerInclusive))
+                    return false;
+            }
+            if (upperBound != null) {
+                int c = upperBound.compareTo(version);
+                if (c < 0 || (c == 0 && !upperInclusive))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return (lowerInclusive ? "[" : "(") + (lowerBound == null ? "" : lowerBound) + ","
+                    + (upperBound == null ? "" : upperBound) + (upperInclusive ? "]" : ")");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Mediation, exclusions and unresolvable dependencies of {@link DependencyResolver} against a local repository
+ * written to a temporary folder.
+ * @author i-Taozi
+ */
+public class DependencyResolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void resolve() throws Exception {
+        File repository = folder.newFolder("repository");
+        //a -> b:1 -> d:1，c -> d:2；d 取最近的，c 中排除了 e
+        install(repository, "a", "1", dependency("b", "1", "") + dependency("x", "", ""));
+        install(repository, "b", "1", dependency("d", "1", ""));
+        install(repository, "c", "1", dependency("d", "2", "") + dependency("e", "1", "")
+                + dependency("t", "1", "<scope>test</scope>"));
+        install(repository, "d", "1", "");
+        install(repository, "d", "2", "");
+        install(repository, "e", "1", "");
+
+        File root = folder.newFile("pom.xml");
+        Files.write(root.toPath(), pom("root", "1", dependency("a", "1", "")
+                + dependency("c", "1", "<exclusions><exclusion><groupId>g</groupId><artifactId>b</artifactId>"
+                + "</exclusion></exclusions>") + dependency("m", "1", "")).getBytes(StandardCharsets.UTF_8));
+
+        LocalRepository local = new LocalRepository(repository.getPath());
+        for (int parallelism : new int[]{1, 4}) {
+            DependencyResolver resolver = new DependencyResolver(local);
+            resolver.setParallelism(parallelism);
+            DependencyGraph graph = resolver.resolve(new POMParser().parse(root.getPath()));
+            assertEquals("[a:1, c:1, m:1, b:1, x:, d:2, e:1]", coordinates(graph.flatten()));
+            assertEquals("[m:1]", coordinates(graph.getMissing()));
+            //版本既未声明也未被管理，不算作本地仓库缺失
+            assertEquals("[x:]", coordinates(graph.getUnversioned()));
+        }
+
+        //再次解析复用共享的子树
+        int size = DependencyResolver.getSubtreeCache().size();
+        new DependencyResolver(local).resolve(new POMParser().parse(root.getPath()));
+        assertEquals(size, DependencyResolver.getSubtreeCache().size());
+        DependencyResolver.Subtree a = DependencyResolver.getSubtreeCache()
+                .get(local.getRoot() + "|g:a:1|compile|", k -> null);
+        assertSame(a, DependencyResolver.getSubtreeCache().get(local.getRoot() + "|g:a:1|compile|", k -> null));
+        assertEquals("[b:1, x:]", coordinates(a.getDependencies()));
+    }
+
+    private static String coordinates(List<Dependency> dependencies) {
+        List<String> list = new ArrayList<>();
+        for (Dependency dependency : dependencies) {
+            list.add(dependency.getArtifactID() + ":" + dependency.getVersion());
+        }
+        return list.toString();
+    }
+
+    private static void install(File repository, String artifactId, String version, String dependencies)
+            throws Exception {
+        File dir = new File(repository, "g/" + artifactId + "/" + version);
+        dir.mkdirs();
+        Files.write(new File(dir, artifactId + "-" + version + ".pom").toPath(),
+                pom(artifactId, version, dependencies).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String pom(String artifactId, String version, String dependencies) {
+        return "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId><artifactId>" + artifactId
+                + "</artifactId><version>" + version + "</version><dependencies>" + dependencies
+                + "</dependencies></project>";
+    }
+
+    private static String dependency(String artifactId, String version, String more) {
+        return "<dependency><groupId>g</groupId><artifactId>" + artifactId + "</artifactId>"
+                + (version.isEmpty() ? "" : "<version>" + version + "</version>") + more + "</dependency>";
+    }
+}
@@ -0,0 +1,62 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Orphans, profile modules and missing modules of a {@link DiscoveryReport} over a tree written to a temporary folder.
+ * @author i-Taozi
+ */
+public class DiscoveryReportTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void profileModulesAreNotOrphans() throws Exception {
+        File root = folder.getRoot();
+        write(root, "root", "pom", "<modules><module>a</module></modules><profiles><profile><id>extra</id>"
+                + "<modules><module>b</module><module>gone</module></modules></profile></profiles>");
+        write(new File(root, "a"), "a", "jar", "");
+        //b 只由 profile 声明，它自己的 modules 也只在该 profile 下
+        write(new File(root, "b"), "b", "pom", "<modules><module>c</module></modules>");
+        write(new File(root, "b/c"), "c", "jar", "");
+        write(new File(root, "lost"), "lost", "jar", "");
+
+        for (int parallelism : new int[]{1, 4}) {
+            DiscoveryReport report = new POMDiscovery().setParallelism(parallelism).discover(root.getPath());
+            assertEquals("[lost]", artifactIds(report.getOrphans()));
+            //按路径排序
+            assertEquals("[c, b]", artifactIds(report.getProfileModules()));
+            assertEquals(1, report.getMissingModules().size());
+            assertEquals("gone", report.getMissingModules().get(0).getModule());
+            assertEquals("extra", report.getMissingModules().get(0).getProfile());
+            //聚合树本身只包含默认的 modules
+            assertEquals(1, report.getRootPom().getAggregatorPoms().size());
+        }
+    }
+
+    private static String artifactIds(List<POM> poms) {
+        List<String> list = new ArrayList<>();
+        for (POM pom : poms) {
+            list.add(pom.getArtifactId());
+        }
+        return list.toString();
+    }
+
+    private static void write(File dir, String artifactId, String packaging, String more) throws Exception {
+        dir.mkdirs();
+        Files.write(new File(dir, "pom.xml").toPath(), ("<project><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>g</groupId><artifactId>" + artifactId + "</artifactId><version>1</version>"
+                + "<packaging>" + packaging + "</packaging>" + more + "</project>").getBytes(StandardCharsets.UTF_8));
+    }
+}
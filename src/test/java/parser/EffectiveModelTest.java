@@ -0,0 +1,45 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Property precedence in an {@link EffectiveModel}: user properties, then the POM's, then system properties.
+ * @author i-Taozi
+ */
+public class EffectiveModelTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void propertyPrecedence() throws Exception {
+        File file = folder.newFile("pom.xml");
+        Files.write(file.toPath(), ("<project><groupId>g</groupId><artifactId>a</artifactId><version>1</version>"
+                + "<properties><java.version>1.8</java.version></properties>"
+                + "<dependencies><dependency><groupId>x</groupId><artifactId>y</artifactId>"
+                + "<version>${java.version}</version></dependency></dependencies></project>")
+                .getBytes(StandardCharsets.UTF_8));
+        POM pom = new POMParser().parse(file.getPath());
+        ActivationContext system = ActivationContext.EMPTY
+                .withSystemProperties(Collections.singletonMap("java.version", "17"))
+                .withSystemProperties(Collections.singletonMap("os.name", "linux"));
+
+        EffectiveModel model = pom.getEffectiveModel(system);
+        assertEquals("1.8", model.getProperty("java.version"));
+        assertEquals("linux", model.getProperty("os.name"));
+        assertEquals("1.8", model.getDependencies().get(0).getVersion());
+
+        model = pom.getEffectiveModel(system.withProperty("java.version", "21"));
+        assertEquals("21", model.getProperty("java.version"));
+        assertEquals("21", model.getDependencies().get(0).getVersion());
+    }
+}
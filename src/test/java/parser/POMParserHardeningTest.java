@@ -0,0 +1,126 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The reasons {@link ParserConfig} limits reject a pom.xml with, for both {@link POMParser.Mode}s.
+ * @author i-Taozi
+ */
+public class POMParserHardeningTest {
+
+    private static final String POM = "<project><modelVersion>4.0.0</modelVersion>"
+            + "<groupId>g</groupId><artifactId>a</artifactId><version>1</version>%s</project>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void entityExpansion() throws Exception {
+        StringBuilder entities = new StringBuilder("<!ENTITY l0 \"lol\">");
+        for (int i = 1; i < 10; i++) {
+            entities.append("<!ENTITY l").append(i).append(" \"");
+            for (int j = 0; j < 10; j++) {
+                entities.append("&l").append(i - 1).append(';');
+            }
+            entities.append("\">");
+        }
+        String content = "<!DOCTYPE project [" + entities + "]>"
+                + String.format(POM, "<description>&l9;</description>");
+        assertRejected(ParserConfig.DEFAULT, content, POMParseException.Reason.ENTITY_EXPANSION);
+    }
+
+    @Test
+    public void depth() throws Exception {
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            nested.append("<x>");
+        }
+        for (int i = 0; i < 20; i++) {
+            nested.append("</x>");
+        }
+        String content = String.format(POM, "<properties>" + nested + "</properties>");
+        assertRejected(ParserConfig.DEFAULT.withMaxElementDepth(10), content, POMParseException.Reason.TOO_DEEP);
+    }
+
+    @Test
+    public void doctype() throws Exception {
+        String content = "<!DOCTYPE project>" + String.format(POM, "");
+        assertRejected(ParserConfig.DEFAULT.withAllowDoctype(false), content, POMParseException.Reason.DOCTYPE);
+        //默认允许不引用外部资源的 DOCTYPE
+        assertParsed(ParserConfig.DEFAULT, content);
+    }
+
+    @Test
+    public void externalEntityIsNotRead() throws Exception {
+        File secret = folder.newFile("secret.txt");
+        Files.write(secret.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        String content = "<!DOCTYPE project [<!ENTITY s SYSTEM \"" + secret.toURI() + "\">]>"
+                + String.format(POM, "<properties><p>&s;</p></properties>");
+        String path = write(content);
+        //外部实体不被解析，引用处为空
+        for (POMParser.Mode mode : POMParser.Mode.values()) {
+            POM pom = new POMParser(mode).parse(path);
+            assertEquals(mode.toString(), "", pom.getRawProperties().get("p"));
+        }
+    }
+
+    @Test
+    public void fileSize() throws Exception {
+        String content = String.format(POM, "");
+        assertRejected(ParserConfig.DEFAULT.withMaxFileSize(16), content, POMParseException.Reason.TOO_LARGE);
+        assertParsed(ParserConfig.DEFAULT.withMaxFileSize(content.length()), content);
+    }
+
+    @Test
+    public void malformed() throws Exception {
+        String content = String.format(POM, "\n<dependencies>");
+        for (POMParser.Mode mode : POMParser.Mode.values()) {
+            POMParseException e = parseFailure(mode, ParserConfig.DEFAULT, content);
+            assertEquals(mode.toString(), POMParseException.Reason.MALFORMED, e.getReason());
+            assertTrue(mode + " line " + e.getLine(), e.getLine() > 0);
+        }
+    }
+
+    private void assertRejected(ParserConfig config, String content, POMParseException.Reason reason) throws Exception {
+        for (POMParser.Mode mode : POMParser.Mode.values()) {
+            POMParseException e = parseFailure(mode, config, content);
+            assertEquals(mode + ": " + e.getMessage(), reason, e.getReason());
+        }
+    }
+
+    private POMParseException parseFailure(POMParser.Mode mode, ParserConfig config, String content) throws Exception {
+        String path = write(content);
+        try {
+            new POMParser(mode, config).parse(path);
+        } catch (POMParseException e) {
+            assertEquals(path, e.getPath());
+            return e;
+        }
+        fail(mode + " accepted " + content);
+        return null;
+    }
+
+    private void assertParsed(ParserConfig config, String content) throws Exception {
+        String path = write(content);
+        for (POMParser.Mode mode : POMParser.Mode.values()) {
+            POM pom = new POMParser(mode, config).parse(path);
+            assertEquals(mode.toString(), "a", pom.getArtifactId());
+        }
+    }
+
+    private String write(String content) throws Exception {
+        File file = folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.getPath();
+    }
+}
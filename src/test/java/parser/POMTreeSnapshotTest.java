@@ -0,0 +1,121 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * The {@link POMSource} of a tree survives a {@link POMTreeSnapshot} round trip.
+ * @author i-Taozi
+ */
+public class POMTreeSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void files() throws Exception {
+        File repo = folder.newFolder("repo");
+        writeTree(repo, "1");
+        POMTree tree = new POMTree(repo.getPath());
+        Path file = new File(folder.getRoot(), "tree.snapshot").toPath();
+        tree.saveSnapshot(file);
+
+        POMTree loaded = POMTree.loadSnapshot(file);
+        assertSame(POMSource.FILES, loaded.getSource());
+        assertEquals("1", module(loaded).getVersion());
+    }
+
+    @Test
+    public void gitCommit() throws Exception {
+        File repo = folder.newFolder("repo");
+        writeTree(repo, "1");
+        git(repo, "init", "-q");
+        git(repo, "add", ".");
+        git(repo, "-c", "user.name=t", "-c", "user.email=t@t", "commit", "-q", "-m", "1");
+        //工作区与提交不同，快照必须继续读取提交中的内容
+        writeTree(repo, "2");
+
+        Path file = new File(folder.getRoot(), "tree.snapshot").toPath();
+        try (GitRepository git = new GitRepository(repo.toPath())) {
+            git.createPomTree("HEAD", new POMParser()).saveSnapshot(file);
+        }
+        POMTree loaded = POMTree.loadSnapshot(file);
+        assertTrue(loaded.getSource() instanceof GitPOMSource);
+        POM module = module(loaded);
+        assertTrue(module.getRaw().contains("<version>1</version>"));
+        loaded.reload(module.getPath());
+        assertEquals("1", module(loaded).getVersion());
+        ((GitPOMSource) loaded.getSource()).getRepository().close();
+
+        try (POMTreeSnapshot snapshot = POMTreeSnapshot.open(file, new GitRepository(folder.getRoot().toPath()))) {
+            fail("opened with another repository: " + snapshot.getSource());
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void otherSourcesAreRefused() throws Exception {
+        File repo = folder.newFolder("repo");
+        writeTree(repo, "1");
+        POMSource source = new POMSource() {
+            @Override
+            public boolean exists(String path) throws IOException {
+                return POMSource.FILES.exists(path);
+            }
+
+            @Override
+            public long size(String path) throws IOException {
+                return POMSource.FILES.size(path);
+            }
+
+            @Override
+            public InputStream open(String path) throws IOException {
+                return POMSource.FILES.open(path);
+            }
+        };
+        POMTree tree = new POMTree(repo.getPath(), new POMParser(), source);
+        tree.saveSnapshot(new File(folder.getRoot(), "tree.snapshot").toPath());
+    }
+
+    private static POM module(POMTree tree) {
+        for (POM pom : tree.getPomList()) {
+            if (pom.getArtifactId().equals("a"))
+                return pom;
+        }
+        throw new AssertionError("module a not found");
+    }
+
+    private static void writeTree(File repo, String version) throws Exception {
+        write(new File(repo, "pom.xml"), "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId>"
+                + "<artifactId>root</artifactId><version>1</version><packaging>pom</packaging>"
+                + "<modules><module>a</module></modules></project>");
+        write(new File(repo, "a/pom.xml"), "<project><modelVersion>4.0.0</modelVersion><groupId>g</groupId>"
+                + "<artifactId>a</artifactId><version>" + version + "</version></project>");
+    }
+
+    private static void write(File file, String content) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void git(File dir, String... args) throws Exception {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        Process process = new ProcessBuilder(command).directory(dir).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+}
@@ -0,0 +1,48 @@
+package parser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Plugin configurations with namespace prefixes, for both {@link POMParser.Mode}s.
+ * @author i-Taozi
+ */
+public class PluginConfigurationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void prefixedElements() throws Exception {
+        File file = folder.newFile("pom.xml");
+        Files.write(file.toPath(), ("<project xmlns:p=\"urn:p\"><groupId>g</groupId><artifactId>a</artifactId>"
+                + "<version>1</version><build><plugins><plugin><artifactId>maven-surefire-plugin</artifactId>"
+                + "<configuration><f:x xmlns:f=\"urn:f\">1</f:x><p:y p:a=\"v\"><p:z>2</p:z></p:y>"
+                + "<forkCount>3</forkCount></configuration></plugin></plugins></build></project>")
+                .getBytes(StandardCharsets.UTF_8));
+        for (POMParser.Mode mode : POMParser.Mode.values()) {
+            POM pom = new POMParser(mode).parse(file.getPath());
+            assertEquals(mode.toString(), "1", pom.getTestConfigurations().get("f:x"));
+            assertEquals(mode.toString(), "2", pom.getTestConfigurations().get("p:y"));
+            assertEquals(mode.toString(), "3", pom.getTestConfigurations().get("forkCount"));
+
+            PluginConfiguration configuration = pom.getPlugins().get(0).getConfiguration();
+            //测试配置在解析时记录，不展开配置
+            assertFalse(mode.toString(), configuration.isExpanded());
+            assertEquals(mode.toString(), "<configuration><f:x xmlns:f=\"urn:f\">1</f:x>"
+                    + "<p:y p:a=\"v\" xmlns:p=\"urn:p\"><p:z>2</p:z></p:y><forkCount>3</forkCount></configuration>",
+                    configuration.getXml());
+            assertEquals(mode.toString(), "2", configuration.getValue("p:y/p:z"));
+            assertEquals(mode.toString(), "v", configuration.getRoot().getChild("p:y").getAttribute("p:a"));
+            assertEquals(mode.toString(), 1, configuration.getRoot().getChild("p:y").getAttributes().size());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Parsing and matching of {@link VersionRange}.
+ * @author i-Taozi
+ */
+public class VersionRangeTest {
+
+    @Test
+    public void plainVersionIsARecommendation() {
+        VersionRange range = VersionRange.parse("1.0");
+        assertFalse(range.hasRestrictions());
+        assertEquals(Version.parse("1.0"), range.getRecommendedVersion());
+        assertTrue(range.containsVersion("0.1"));
+        assertTrue(range.containsVersion("9.0"));
+    }
+
+    @Test
+    public void halfOpenRange() {
+        VersionRange range = VersionRange.parse("[1.0,2.0)");
+        assertNull(range.getRecommendedVersion());
+        assertEquals(1, range.getRestrictions().size());
+        VersionRange.Restriction restriction = range.getRestrictions().get(0);
+        assertEquals(Version.parse("1.0"), restriction.getLowerBound());
+        assertTrue(restriction.isLowerInclusive());
+        assertEquals(Version.parse("2.0"), restriction.getUpperBound());
+        assertFalse(restriction.isUpperInclusive());
+
+        assertFalse(range.containsVersion("0.9"));
+        assertTrue(range.containsVersion("1.0"));
+        assertTrue(range.containsVersion("1"));
+        assertTrue(range.containsVersion("1.9.9"));
+        //快照早于正式版本，仍在范围内
+        assertTrue(range.containsVersion("2.0-SNAPSHOT"));
+        assertFalse(range.containsVersion("2.0"));
+        assertFalse(range.containsVersion("2.0.0"));
+    }
+
+    @Test
+    public void exclusiveLowerBound() {
+        VersionRange range = VersionRange.parse("(1.0,2.0]");
+        assertFalse(range.containsVersion("1.0"));
+        assertTrue(range.containsVersion("1.0.1"));
+        assertTrue(range.containsVersion("2.0"));
+        assertFalse(range.containsVersion("2.0.1"));
+    }
+
+    @Test
+    public void exactVersion() {
+        VersionRange range = VersionRange.parse("[1.5]");
+        assertTrue(range.containsVersion("1.5"));
+        assertTrue(range.containsVersion("1.5.0"));
+        assertFalse(range.containsVersion("1.5.1"));
+        assertFalse(range.containsVersion("1.4"));
+    }
+
+    @Test
+    public void unboundedAndMultipleRanges() {
+        VersionRange range = VersionRange.parse("(,1.0],[1.2,)");
+        assertEquals(2, range.getRestrictions().size());
+        assertNull(range.getRestrictions().get(0).getLowerBound());
+        assertNull(range.getRestrictions().get(1).getUpperBound());
+        assertTrue(range.containsVersion("0.1"));
+        assertTrue(range.containsVersion("1.0"));
+        assertFalse(range.containsVersion("1.1"));
+        assertTrue(range.containsVersion("1.2"));
+        assertTrue(range.containsVersion("99"));
+    }
+
+    @Test
+    public void whitespaceIsIgnored() {
+        VersionRange range = VersionRange.parse(" [ 1.0 , 2.0 ) ");
+        assertTrue(range.containsVersion("1.0"));
+        assertFalse(range.containsVersion("2.0"));
+    }
+
+    @Test
+    public void matchPicksTheNewestContainedVersion() {
+        List<Version> versions = Arrays.asList(Version.parse("1.0"), Version.parse("1.5"),
+                Version.parse("1.10"), Version.parse("2.0"));
+        assertEquals(Version.parse("1.10"), VersionRange.parse("[1.0,2.0)").match(versions));
+        assertNull(VersionRange.parse("[3.0,)").match(versions));
+    }
+
+    @Test
+    public void malformedRangesAreRejected() {
+        String[] malformed = {
+                "[1.0", "[1.0,2.0", "(1.0)", "[]", "(1.0]", "[2.0,1.0]", "(1.0,1.0)", "[1.0,1.0)",
+                "[1.0,2.0,3.0]", "[1.0,2.0)x", "[1.0,2.0)1.5"
+        };
+        for (String spec : malformed) {
+            try {
+                VersionRange.parse(spec);
+                fail("accepted " + spec);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage().contains(spec));
+            }
+        }
+    }
+
+    @Test
+    public void dynamicVersions() {
+        assertTrue(VersionRange.isRange("[1.0,)"));
+        assertTrue(VersionRange.isRange("(,1.0]"));
+        assertFalse(VersionRange.isRange("1.0"));
+        assertTrue(VersionRange.isDynamic("RELEASE"));
+        assertTrue(VersionRange.isDynamic("LATEST"));
+        assertTrue(VersionRange.isDynamic("1.0-SNAPSHOT"));
+        assertTrue(VersionRange.isDynamic("[1.0,2.0)"));
+        assertFalse(VersionRange.isDynamic("1.0"));
+    }
+}
@@ -0,0 +1,110 @@
+package parser;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Ordering of {@link Version}, checked against the tables Maven's {@code ComparableVersion} is tested with.
+ * @author i-Taozi
+ */
+public class VersionTest {
+
+    //按从旧到新排列
+    private static final String[] QUALIFIER_ORDER = {
+            "1-alpha2snapshot", "1-alpha2", "1-alpha-123", "1-beta-2", "1-beta123", "1-m2", "1-m11", "1-rc",
+            "1-cr2", "1-rc123", "1-SNAPSHOT", "1", "1-sp", "1-sp2", "1-sp123", "1-abc", "1-def", "1-pom-1",
+            "1-1-snapshot", "1-1", "1-2", "1-123"
+    };
+
+    private static final String[] NUMBER_ORDER = {
+            "2.0", "2-1", "2.0.a", "2.0.0.a", "2.0.2", "2.0.123", "2.1.0", "2.1-a", "2.1b", "2.1-c", "2.1-1",
+            "2.1.0.1", "2.2", "2.123", "11.a2", "11.a11", "11.b2", "11.b11", "11.m2", "11.m11", "11", "11.a",
+            "11b", "11c", "11m"
+    };
+
+    @Test
+    public void qualifiersOrderAsInMaven() {
+        assertOrdered(QUALIFIER_ORDER);
+    }
+
+    @Test
+    public void numbersOrderAsInMaven() {
+        assertOrdered(NUMBER_ORDER);
+    }
+
+    @Test
+    public void separatorsAndTrailingZerosDoNotMatter() {
+        assertSameVersion("1", "1.0", "1.0.0", "1-0", "1.0-0", "1-ga", "1.0-final", "1-release", "1GA");
+        assertSameVersion("1.0alpha1", "1.0-alpha-1", "1.0-a1", "1a1", "1-ALPHA-1");
+        assertSameVersion("1-cr1", "1-rc-1");
+        assertSameVersion("1-b2", "1-beta-2");
+        assertSameVersion("1m3", "1-milestone-3");
+    }
+
+    @Test
+    public void dashIsOlderThanDot() {
+        assertOlder("1-1", "1.1");
+        assertOlder("1.0-1", "1.0.1");
+    }
+
+    @Test
+    public void servicePackAndUnknownQualifiersAreNewerThanRelease() {
+        assertOlder("1.0", "1.0-sp");
+        assertOlder("1.0-sp", "1.0-foo");
+        assertOlder("1.0-foo", "1.0-zzz");
+        assertOlder("1.0-SNAPSHOT", "1.0");
+        assertOlder("1.0-rc1", "1.0-SNAPSHOT");
+    }
+
+    @Test
+    public void largeNumbersCompareNumerically() {
+        assertOlder("1.9", "1.10");
+        assertOlder("1.999999999999999999", "1.1000000000000000000");
+        assertOlder("1.12345678901234567890", "1.12345678901234567891");
+        assertSameVersion("1.0012345678901234567890", "1.12345678901234567890");
+    }
+
+    @Test
+    public void parseIsCached() {
+        assertSame(Version.parse("3.2.1"), Version.parse("3.2.1"));
+        assertEquals("3.2.1", Version.parse("3.2.1").getValue());
+    }
+
+    @Test
+    public void snapshot() {
+        assertTrue(Version.parse("1.0-SNAPSHOT").isSnapshot());
+        assertFalse(Version.parse("1.0").isSnapshot());
+    }
+
+    private static void assertOrdered(String[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            for (int j = i + 1; j < versions.length; j++) {
+                assertOlder(versions[i], versions[j]);
+            }
+        }
+    }
+
+    private static void assertOlder(String older, String newer) {
+        Version a = Version.parse(older);
+        Version b = Version.parse(newer);
+        assertTrue(older + " < " + newer, a.compareTo(b) < 0);
+        assertTrue(newer + " > " + older, b.compareTo(a) > 0);
+        assertTrue(newer + " newer than " + older, b.isNewerThan(a));
+        assertFalse(older + " != " + newer, a.equals(b));
+    }
+
+    private static void assertSameVersion(String... versions) {
+        Version first = Version.parse(versions[0]);
+        for (String version : versions) {
+            Version other = Version.parse(version);
+            assertEquals(versions[0] + " == " + version, 0, first.compareTo(other));
+            assertEquals(versions[0] + " == " + version, first, other);
+            assertEquals(versions[0] + " == " + version, first.hashCode(), other.hashCode());
+            assertEquals(first.getCanonical(), other.getCanonical());
+        }
+    }
+}